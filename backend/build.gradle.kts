@@ -2,6 +2,7 @@ plugins {
     java
     id("org.springframework.boot") version "3.4.2"
     id("io.spring.dependency-management") version "1.1.7"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.slotme"
@@ -34,6 +35,10 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-security")
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-starter-actuator")
+    implementation("org.springframework.boot:spring-boot-starter-aop")
+
+    // Cache
+    implementation("com.github.ben-manes.caffeine:caffeine")
 
     // JWT
     implementation("io.jsonwebtoken:jjwt-api:0.12.6")
@@ -86,3 +91,15 @@ tasks.withType<Test> {
 tasks.withType<JavaCompile> {
     options.compilerArgs.addAll(listOf("--enable-preview"))
 }
+
+// Benchmarks live in src/jmh/java; run with ./gradlew jmh, or a subset with
+// ./gradlew jmh -PjmhIncludes=AvailabilityBenchmark
+jmh {
+    jmhVersion = "1.37"
+    includes = listOf(providers.gradleProperty("jmhIncludes").getOrElse(".*"))
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    jvmArgsAppend = listOf("--enable-preview")
+    resultFormat = "JSON"
+}
@@ -0,0 +1,136 @@
+package com.slotme.calendar.service;
+
+import com.slotme.appointment.entity.Appointment;
+import com.slotme.calendar.entity.AvailabilityRule;
+import com.slotme.calendar.entity.Calendar;
+import com.slotme.calendar.entity.TimeBlock;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Slot generation for one salon over a date range, on synthetic data: every master works
+ * 09:00-19:00 with a lunch break, a few one-off blocks and evenly spread appointments.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AvailabilityBenchmark {
+
+    @Param({"1", "10", "50"})
+    int masters;
+
+    @Param({"1", "14"})
+    int days;
+
+    @Param({"8"})
+    int appointmentsPerDay;
+
+    @Param({"2"})
+    int blocksPerDay;
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Berlin");
+    private static final LocalDate FIRST_DAY = LocalDate.of(2026, 3, 2);
+    private static final int SERVICE_MINUTES = 45;
+    private static final int BUFFER_MINUTES = 10;
+
+    private List<AvailabilitySnapshot.MasterSchedule> schedules;
+    private List<MasterDay> cachedDays;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        schedules = new ArrayList<>(masters);
+        for (int m = 0; m < masters; m++) {
+            Calendar calendar = new Calendar();
+            calendar.setId(UUID.randomUUID());
+            calendar.setMasterId(UUID.randomUUID());
+            calendar.setTimezone(ZONE.getId());
+
+            List<AvailabilityRule> rules = new ArrayList<>();
+            for (short dow = 0; dow < 7; dow++) {
+                rules.add(rule(calendar.getId(), dow, LocalTime.of(9, 0), LocalTime.of(13, 0)));
+                rules.add(rule(calendar.getId(), dow, LocalTime.of(14, 0), LocalTime.of(19, 0)));
+            }
+
+            List<TimeBlock> blocks = new ArrayList<>();
+            List<Appointment> appointments = new ArrayList<>();
+            for (int d = 0; d < days; d++) {
+                LocalDate date = FIRST_DAY.plusDays(d);
+                for (int b = 0; b < blocksPerDay; b++) {
+                    Instant start = date.atTime(9 + random.nextInt(9), 5 * random.nextInt(12)).atZone(ZONE).toInstant();
+                    TimeBlock block = new TimeBlock();
+                    block.setCalendarId(calendar.getId());
+                    block.setStartAt(start);
+                    block.setEndAt(start.plus(Duration.ofMinutes(30)));
+                    blocks.add(block);
+                }
+                int spacing = 600 / Math.max(1, appointmentsPerDay);
+                for (int a = 0; a < appointmentsPerDay; a++) {
+                    Instant start = date.atTime(9, 0).plusMinutes((long) a * spacing).atZone(ZONE).toInstant();
+                    Appointment appt = new Appointment();
+                    appt.setMasterId(calendar.getMasterId());
+                    appt.setStartAt(start);
+                    appt.setEndAt(start.plus(Duration.ofMinutes(SERVICE_MINUTES)));
+                    appointments.add(appt);
+                }
+            }
+            schedules.add(new AvailabilitySnapshot.MasterSchedule(
+                    calendar, ZONE, rules, blocks, List.of(), appointments));
+        }
+
+        cachedDays = new ArrayList<>(masters * days);
+        for (AvailabilitySnapshot.MasterSchedule schedule : schedules) {
+            for (int d = 0; d < days; d++) {
+                cachedDays.add(schedule.day(FIRST_DAY.plusDays(d)));
+            }
+        }
+    }
+
+    /** Cold path: rules, blocks and appointments to slots, as after a cache miss. */
+    @Benchmark
+    public void slotsFromSnapshot(Blackhole bh) {
+        for (AvailabilitySnapshot.MasterSchedule schedule : schedules) {
+            for (int d = 0; d < days; d++) {
+                MasterDay day = schedule.day(FIRST_DAY.plusDays(d));
+                bh.consume(day.grid(BUFFER_MINUTES).slotStarts(SERVICE_MINUTES + BUFFER_MINUTES, 15));
+            }
+        }
+    }
+
+    /** Warm path: slots from cached master days. */
+    @Benchmark
+    public void slotsFromCachedDays(Blackhole bh) {
+        for (MasterDay day : cachedDays) {
+            bh.consume(day.grid(BUFFER_MINUTES).slotStarts(SERVICE_MINUTES + BUFFER_MINUTES, 15));
+        }
+    }
+
+    /** Warm path with the run-length slot encoding used by the compact format. */
+    @Benchmark
+    public void slotRunsFromCachedDays(Blackhole bh) {
+        for (MasterDay day : cachedDays) {
+            bh.consume(day.grid(BUFFER_MINUTES).slotRuns(SERVICE_MINUTES + BUFFER_MINUTES, 15));
+        }
+    }
+
+    /** Window arithmetic alone: opening working hours and subtracting blocks and appointments. */
+    @Benchmark
+    public void subtractBlocks(Blackhole bh) {
+        for (MasterDay day : cachedDays) {
+            bh.consume(day.grid(BUFFER_MINUTES));
+        }
+    }
+
+    private static AvailabilityRule rule(UUID calendarId, short dow, LocalTime start, LocalTime end) {
+        AvailabilityRule rule = new AvailabilityRule();
+        rule.setCalendarId(calendarId);
+        rule.setDayOfWeek(dow);
+        rule.setStartTime(start);
+        rule.setEndTime(end);
+        return rule;
+    }
+}
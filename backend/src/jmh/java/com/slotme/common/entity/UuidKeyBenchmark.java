@@ -0,0 +1,90 @@
+package com.slotme.common.entity;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batched primary key inserts into PostgreSQL with random v4 and time-ordered v7 ids.
+ * Each trial preloads a scratch table, measures inserts in rows per second and prints the
+ * primary key index size after the preload and after the run.
+ * <p>
+ * Needs a database; the docker-compose one is used unless {@code -Dslotme.bench.url},
+ * {@code .user} and {@code .password} say otherwise. Random keys only start to hurt once
+ * the index outgrows shared_buffers, so size {@code preloadRows} past that.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class UuidKeyBenchmark {
+
+    @Param({"v4", "v7"})
+    String keys;
+
+    @Param({"2000000"})
+    int preloadRows;
+
+    private static final int BATCH = 1_000;
+    private static final String PAYLOAD = "x".repeat(100);
+
+    private Connection connection;
+    private PreparedStatement insert;
+    private String table;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("slotme.bench.url",
+                        "jdbc:postgresql://localhost:5432/slotme?reWriteBatchedInserts=true"),
+                System.getProperty("slotme.bench.user", "slotme"),
+                System.getProperty("slotme.bench.password", "slotme_dev"));
+        table = "bench_uuid_" + keys;
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS " + table);
+            st.execute("CREATE TABLE " + table + " (id UUID PRIMARY KEY,"
+                    + " created_at TIMESTAMPTZ NOT NULL DEFAULT now(), payload TEXT NOT NULL)");
+        }
+        connection.setAutoCommit(false);
+        insert = connection.prepareStatement("INSERT INTO " + table + " (id, payload) VALUES (?, ?)");
+        for (int rows = 0; rows < preloadRows; rows += BATCH) {
+            insertBatch();
+        }
+        report("after preload");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        report("after run");
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP TABLE " + table);
+        }
+        connection.commit();
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void insertBatch() throws SQLException {
+        boolean v7 = "v7".equals(keys);
+        for (int i = 0; i < BATCH; i++) {
+            insert.setObject(1, v7 ? UuidV7Generator.generate() : UUID.randomUUID());
+            insert.setString(2, PAYLOAD);
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+    }
+
+    private void report(String label) throws SQLException {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT count(*), pg_size_pretty(pg_relation_size('"
+                     + table + "_pkey')), pg_relation_size('" + table + "_pkey') / 8192 FROM " + table)) {
+            rs.next();
+            System.out.printf("%n[%s] %s: %d rows, primary key index %s (%d pages)%n",
+                    keys, label, rs.getLong(1), rs.getString(2), rs.getLong(3));
+        }
+        connection.commit();
+    }
+}
@@ -0,0 +1,38 @@
+package com.slotme.messaging.channel.whatsapp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.slotme.messaging.channel.InboundMessage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WhatsAppAdapterBenchmark {
+
+    @Param({"32", "4096"})
+    int messageLength;
+
+    private WhatsAppAdapter adapter;
+    private String payload;
+
+    @Setup
+    public void setUp() {
+        // parseWebhook only needs the ObjectMapper
+        adapter = new WhatsAppAdapter(null, null, new ObjectMapper());
+        payload = """
+                {"object":"whatsapp_business_account","entry":[{"id":"1029384756","changes":[{"field":"messages",
+                "value":{"messaging_product":"whatsapp","metadata":{"display_phone_number":"15550001111",
+                "phone_number_id":"1234567890"},"contacts":[{"profile":{"name":"Jane"},"wa_id":"15551234567"}],
+                "messages":[{"from":"15551234567","id":"wamid.HBgLMTU1NTEyMzQ1NjcVAgASGBQzQUZCMEU1","timestamp":"1767225600",
+                "type":"text","text":{"body":"%s"}}]}}]}]}
+                """.formatted("a".repeat(messageLength));
+    }
+
+    @Benchmark
+    public InboundMessage parseWebhook() {
+        return adapter.parseWebhook(payload, Map.of());
+    }
+}
@@ -0,0 +1,42 @@
+package com.slotme.notification.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NotificationTemplateEngineBenchmark {
+
+    @Param({"4", "32"})
+    int variables;
+
+    @Param({"20", "500"})
+    int textBetweenVariables;
+
+    private NotificationTemplateEngine engine;
+    private String template;
+    private Map<String, String> values;
+
+    @Setup
+    public void setUp() {
+        // render does not touch the repository
+        engine = new NotificationTemplateEngine(null);
+        String filler = "x".repeat(textBetweenVariables);
+        StringBuilder sb = new StringBuilder();
+        values = new HashMap<>();
+        for (int i = 0; i < variables; i++) {
+            sb.append(filler).append("{{var").append(i).append("}}");
+            values.put("var" + i, "value-" + i);
+        }
+        template = sb.append(filler).toString();
+    }
+
+    @Benchmark
+    public String render() {
+        return engine.render(template, values);
+    }
+}
@@ -0,0 +1,33 @@
+package com.slotme.security;
+
+import com.slotme.config.JwtProperties;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtServiceBenchmark {
+
+    @Param({"16", "256"})
+    int emailLength;
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(new JwtProperties(null, 0, 0));
+        String email = "u".repeat(Math.max(1, emailLength - 9)) + "@test.com";
+        token = jwtService.generateAccessToken(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+                "SALON_ADMIN", email);
+    }
+
+    @Benchmark
+    public Claims parseToken() {
+        return jwtService.parseToken(token);
+    }
+}
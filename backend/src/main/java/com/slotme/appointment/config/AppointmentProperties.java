@@ -0,0 +1,45 @@
+package com.slotme.appointment.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.Period;
+
+@ConfigurationProperties(prefix = "slotme.appointments")
+public record AppointmentProperties(
+        Archive archive,
+        Index index
+) {
+    public AppointmentProperties {
+        if (archive == null) archive = new Archive(null, null, 0, 0);
+        if (index == null) index = new Index(null, null, null, 0);
+    }
+
+    public record Archive(
+            Boolean enabled,
+            Period after,
+            int batchSize,
+            int partitionsAhead
+    ) {
+        public Archive {
+            if (enabled == null) enabled = true;
+            if (after == null) after = Period.ofMonths(24);
+            if (batchSize <= 0) batchSize = 1000;
+            if (partitionsAhead <= 0) partitionsAhead = 3;
+        }
+    }
+
+    public record Index(
+            Boolean enabled,
+            Duration horizon,
+            Duration ttl,
+            long maximumSize
+    ) {
+        public Index {
+            if (enabled == null) enabled = true;
+            if (horizon == null) horizon = Duration.ofDays(60);
+            if (ttl == null) ttl = Duration.ofMinutes(1);
+            if (maximumSize <= 0) maximumSize = 10_000;
+        }
+    }
+}
@@ -33,6 +33,24 @@ public class AppointmentController {
                 .body(appointmentService.bookAppointment(salonId, request));
     }
 
+    @PostMapping("/combo")
+    @PreAuthorize("hasAnyRole('SALON_ADMIN', 'MASTER')")
+    public ResponseEntity<List<AppointmentResponse>> bookCombo(
+            @PathVariable UUID salonId,
+            @Valid @RequestBody BookComboRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(appointmentService.bookCombo(salonId, request));
+    }
+
+    @PostMapping("/series")
+    @PreAuthorize("hasAnyRole('SALON_ADMIN', 'MASTER')")
+    public ResponseEntity<List<AppointmentResponse>> bookSeries(
+            @PathVariable UUID salonId,
+            @Valid @RequestBody BookSeriesRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(appointmentService.bookSeries(salonId, request));
+    }
+
     @GetMapping
     @PreAuthorize("hasAnyRole('SALON_ADMIN', 'MASTER')")
     public ResponseEntity<Page<AppointmentResponse>> listAppointments(
@@ -47,6 +65,33 @@ public class AppointmentController {
                 salonId, masterId, clientId, status, dateFrom, dateTo, pageable));
     }
 
+    @GetMapping("/scroll")
+    @PreAuthorize("hasAnyRole('SALON_ADMIN', 'MASTER')")
+    public ResponseEntity<AppointmentWindowResponse> scrollAppointments(
+            @PathVariable UUID salonId,
+            @RequestParam(required = false) UUID masterId,
+            @RequestParam(required = false) UUID clientId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Instant dateFrom,
+            @RequestParam(required = false) Instant dateTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "false") boolean ascending,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(appointmentService.scrollAppointments(
+                salonId, masterId, clientId, status, dateFrom, dateTo, cursor, limit, ascending, includeTotal));
+    }
+
+    @GetMapping("/history")
+    @PreAuthorize("hasRole('SALON_ADMIN')")
+    public ResponseEntity<List<AppointmentHistoryResponse>> getSalonHistory(
+            @PathVariable UUID salonId,
+            @RequestParam Instant from,
+            @RequestParam Instant to,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(appointmentService.getSalonHistory(salonId, from, to, limit));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('SALON_ADMIN', 'MASTER')")
     public ResponseEntity<AppointmentResponse> getAppointment(@PathVariable UUID id) {
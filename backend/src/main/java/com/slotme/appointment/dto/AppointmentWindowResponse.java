@@ -0,0 +1,13 @@
+package com.slotme.appointment.dto;
+
+import java.util.List;
+
+/**
+ * One window of a keyset-paginated appointment list. {@code nextCursor} is null on the
+ * last window; {@code totalElements} is only filled when requested.
+ */
+public record AppointmentWindowResponse(
+        List<AppointmentResponse> content,
+        String nextCursor,
+        Long totalElements
+) {}
@@ -0,0 +1,23 @@
+package com.slotme.appointment.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record BookComboRequest(
+        @NotNull UUID clientId,
+        @NotEmpty @Size(max = 5) List<@Valid Step> steps,
+        @Size(max = 2000) String notes,
+        @Size(max = 50) String source
+) {
+    public record Step(
+            @NotNull UUID serviceId,
+            @NotNull UUID masterId,
+            @NotNull Instant startAt
+    ) {}
+}
@@ -0,0 +1,24 @@
+package com.slotme.appointment.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A run of appointments at the same local time every {@code intervalWeeks} weeks,
+ * starting at {@code firstStartAt}.
+ */
+public record BookSeriesRequest(
+        @NotNull UUID masterId,
+        @NotNull UUID serviceId,
+        @NotNull UUID clientId,
+        @NotNull Instant firstStartAt,
+        @Min(1) @Max(12) int intervalWeeks,
+        @Min(2) @Max(52) int occurrences,
+        @Size(max = 2000) String notes,
+        @Size(max = 50) String source
+) {}
@@ -21,6 +21,9 @@ public class AppointmentHistory extends BaseEntity {
     @Column(name = "appointment_id", nullable = false)
     private UUID appointmentId;
 
+    @Column(name = "salon_id")
+    private UUID salonId;
+
     @Column(nullable = false, length = 50)
     private String action;
 
@@ -0,0 +1,27 @@
+package com.slotme.appointment.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Synchronize;
+
+/**
+ * An appointment read from the live table or the archive, whichever holds it. Reads that
+ * must see a salon's or client's whole history go through this; changes always go through
+ * {@link Appointment}, so archived appointments cannot be modified. Pending changes to
+ * appointments are flushed before the view is queried, as for the tables themselves.
+ */
+@Entity
+@Immutable
+@Synchronize({"appointments", "appointments_archive"})
+@Table(name = "appointments_with_archive")
+@Getter
+@NoArgsConstructor
+public class AppointmentRecord extends BaseAppointment {
+
+    @Column(nullable = false)
+    private boolean archived;
+}
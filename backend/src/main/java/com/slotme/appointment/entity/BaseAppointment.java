@@ -0,0 +1,67 @@
+package com.slotme.appointment.entity;
+
+import com.slotme.common.entity.TenantAwareEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.MappedSuperclass;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Columns shared by live appointments and their archived copies, see {@link Appointment}
+ * and {@link AppointmentRecord}.
+ */
+@MappedSuperclass
+@Getter
+@Setter
+@NoArgsConstructor
+public abstract class BaseAppointment extends TenantAwareEntity {
+
+    @Column(name = "salon_id", nullable = false)
+    private UUID salonId;
+
+    @Column(name = "master_id", nullable = false)
+    private UUID masterId;
+
+    @Column(name = "client_id", nullable = false)
+    private UUID clientId;
+
+    @Column(name = "service_id", nullable = false)
+    private UUID serviceId;
+
+    @Column(nullable = false, length = 30)
+    private String status = "confirmed";
+
+    @Column(name = "start_at", nullable = false)
+    private Instant startAt;
+
+    @Column(name = "end_at", nullable = false)
+    private Instant endAt;
+
+    @Column(name = "duration_minutes", nullable = false)
+    private int durationMinutes;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal price;
+
+    @Column(nullable = false, length = 3)
+    private String currency = "USD";
+
+    private String notes;
+
+    @Column(name = "internal_notes")
+    private String internalNotes;
+
+    @Column(nullable = false, length = 30)
+    private String source = "manual";
+
+    @Column(name = "cancelled_at")
+    private Instant cancelledAt;
+
+    @Column(name = "cancellation_reason")
+    private String cancellationReason;
+}
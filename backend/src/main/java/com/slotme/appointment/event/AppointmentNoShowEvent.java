@@ -0,0 +1,18 @@
+package com.slotme.appointment.event;
+
+import com.slotme.appointment.entity.Appointment;
+import org.springframework.context.ApplicationEvent;
+
+public class AppointmentNoShowEvent extends ApplicationEvent {
+
+    private final Appointment appointment;
+
+    public AppointmentNoShowEvent(Object source, Appointment appointment) {
+        super(source);
+        this.appointment = appointment;
+    }
+
+    public Appointment getAppointment() {
+        return appointment;
+    }
+}
@@ -0,0 +1,24 @@
+package com.slotme.appointment.event;
+
+import com.slotme.appointment.entity.Appointment;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Published once for a booked series instead of one {@link AppointmentCreatedEvent} per
+ * occurrence. Appointments are in start order and share master, client and service.
+ */
+public class AppointmentSeriesCreatedEvent extends ApplicationEvent {
+
+    private final List<Appointment> appointments;
+
+    public AppointmentSeriesCreatedEvent(Object source, List<Appointment> appointments) {
+        super(source);
+        this.appointments = List.copyOf(appointments);
+    }
+
+    public List<Appointment> getAppointments() {
+        return appointments;
+    }
+}
@@ -0,0 +1,102 @@
+package com.slotme.appointment.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Partition maintenance for appointment_history and appointments_archive, and the move of
+ * cold appointments into the archive, which run across tenants. Archived rows are read
+ * through {@link AppointmentRecordRepository}; the few changes they still take, on behalf
+ * of a client, are the tenant-scoped updates at the end.
+ */
+@Repository
+public class AppointmentArchiveRepository {
+
+    private static final String COLUMNS = "id, tenant_id, salon_id, master_id, client_id, service_id, status,"
+            + " start_at, end_at, duration_minutes, price, currency, notes, internal_notes, source,"
+            + " cancelled_at, cancellation_reason, created_at, updated_at";
+
+    private static final String ARCHIVE_BATCH_SQL = """
+            WITH moved AS (
+                DELETE FROM appointments
+                WHERE id IN (
+                    SELECT id FROM appointments
+                    WHERE start_at < :cutoff AND end_at < :cutoff
+                    ORDER BY start_at
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING %1$s
+            )
+            INSERT INTO appointments_archive (%1$s)
+            SELECT %1$s FROM moved
+            """.formatted(COLUMNS);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public AppointmentArchiveRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Creates the monthly partitions of {@code table} missing between the two dates.
+     */
+    public int createMonthlyPartitions(String table, LocalDate from, LocalDate to) {
+        Integer created = jdbcTemplate.queryForObject(
+                "SELECT create_monthly_partitions(:table, :from, :to)",
+                new MapSqlParameterSource()
+                        .addValue("table", table)
+                        .addValue("from", from)
+                        .addValue("to", to),
+                Integer.class);
+        return created != null ? created : 0;
+    }
+
+    public Optional<Instant> findOldestStartBefore(Instant cutoff) {
+        Timestamp oldest = jdbcTemplate.queryForObject(
+                "SELECT min(start_at) FROM appointments WHERE start_at < :cutoff",
+                new MapSqlParameterSource("cutoff", Timestamp.from(cutoff)), Timestamp.class);
+        return Optional.ofNullable(oldest).map(Timestamp::toInstant);
+    }
+
+    /**
+     * Moves up to {@code limit} appointments that started and ended before {@code cutoff}
+     * into the archive in one statement. The archive partitions must already exist.
+     */
+    public int archiveBatch(Instant cutoff, int limit) {
+        return jdbcTemplate.update(ARCHIVE_BATCH_SQL, new MapSqlParameterSource()
+                .addValue("cutoff", Timestamp.from(cutoff))
+                .addValue("limit", limit));
+    }
+
+    /**
+     * Clears the free-text notes of the client's archived appointments, as GDPR
+     * anonymization does for live ones.
+     */
+    public int clearNotesForClient(UUID clientId) {
+        return jdbcTemplate.update(
+                "UPDATE appointments_archive SET notes = NULL, internal_notes = NULL, updated_at = now()"
+                        + " WHERE client_id = :clientId",
+                new MapSqlParameterSource("clientId", clientId));
+    }
+
+    /**
+     * Moves the archived appointments of one client to another, as a client merge does for
+     * live ones.
+     */
+    public int reassignClient(UUID fromClientId, UUID toClientId) {
+        return jdbcTemplate.update(
+                "UPDATE appointments_archive SET client_id = :toClientId, updated_at = now()"
+                        + " WHERE client_id = :fromClientId",
+                new MapSqlParameterSource()
+                        .addValue("fromClientId", fromClientId)
+                        .addValue("toClientId", toClientId));
+    }
+}
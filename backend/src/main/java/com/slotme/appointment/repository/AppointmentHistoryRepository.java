@@ -1,12 +1,27 @@
 package com.slotme.appointment.repository;
 
 import com.slotme.appointment.entity.AppointmentHistory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
 public interface AppointmentHistoryRepository extends JpaRepository<AppointmentHistory, UUID> {
 
     List<AppointmentHistory> findByAppointmentIdOrderByCreatedAtDesc(UUID appointmentId);
+
+    List<AppointmentHistory> findByAppointmentIdAndCreatedAtGreaterThanEqualOrderByCreatedAtDesc(
+            UUID appointmentId, Instant createdAfter);
+
+    @Query("SELECT h FROM AppointmentHistory h WHERE h.salonId = :salonId" +
+           " AND h.createdAt >= :from AND h.createdAt < :to" +
+           " ORDER BY h.createdAt DESC, h.id DESC")
+    List<AppointmentHistory> findSalonRange(@Param("salonId") UUID salonId,
+                                            @Param("from") Instant from,
+                                            @Param("to") Instant to,
+                                            Limit limit);
 }
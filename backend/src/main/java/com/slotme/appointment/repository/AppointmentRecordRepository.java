@@ -0,0 +1,29 @@
+package com.slotme.appointment.repository;
+
+import com.slotme.appointment.entity.AppointmentRecord;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read-only access to live and archived appointments alike.
+ */
+public interface AppointmentRecordRepository extends Repository<AppointmentRecord, UUID>,
+        JpaSpecificationExecutor<AppointmentRecord> {
+
+    @Query("SELECT a AS appointment, m.displayName AS masterName," +
+           " c.firstName AS clientFirstName, c.lastName AS clientLastName, s.name AS serviceName" +
+           " FROM AppointmentRecord a" +
+           " LEFT JOIN Master m ON m.id = a.masterId" +
+           " LEFT JOIN Client c ON c.id = a.clientId" +
+           " LEFT JOIN SalonService s ON s.id = a.serviceId" +
+           " WHERE a.id = :id")
+    Optional<AppointmentWithNames> findWithNamesById(@Param("id") UUID id);
+
+    List<AppointmentRecord> findByClientIdOrderByStartAtDesc(UUID clientId);
+}
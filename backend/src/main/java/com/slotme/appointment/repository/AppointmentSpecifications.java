@@ -0,0 +1,53 @@
+package com.slotme.appointment.repository;
+
+import com.slotme.appointment.entity.AppointmentRecord;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Appointment list filters, applied to live and archived appointments alike. Only the
+ * filters that are set become predicates, so the planner sees plain
+ * {@code salon_id = ? AND start_at >= ?} conditions in both branches of the view and can
+ * use the salon/master date indexes instead of {@code :x IS NULL OR ...} branches.
+ */
+public final class AppointmentSpecifications {
+
+    private AppointmentSpecifications() {
+    }
+
+    public static Specification<AppointmentRecord> filtered(UUID salonId, UUID masterId, UUID clientId,
+                                                      String status, Instant dateFrom, Instant dateTo) {
+        Specification<AppointmentRecord> spec = (root, query, cb) -> cb.equal(root.get("salonId"), salonId);
+        if (masterId != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("masterId"), masterId));
+        }
+        if (clientId != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("clientId"), clientId));
+        }
+        if (status != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("status"), status));
+        }
+        if (dateFrom != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("startAt"), dateFrom));
+        }
+        if (dateTo != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("startAt"), dateTo));
+        }
+        return spec;
+    }
+
+    /**
+     * Rows strictly after {@code (startAt, id)} in {@code (start_at, id)} order, or strictly
+     * before it when descending. The leading {@code start_at} bound is a plain range so it
+     * can drive an index scan; the id only breaks ties.
+     */
+    public static Specification<AppointmentRecord> after(Instant startAt, UUID id, boolean ascending) {
+        return (root, query, cb) -> ascending
+                ? cb.and(cb.greaterThanOrEqualTo(root.get("startAt"), startAt),
+                        cb.or(cb.greaterThan(root.get("startAt"), startAt), cb.greaterThan(root.get("id"), id)))
+                : cb.and(cb.lessThanOrEqualTo(root.get("startAt"), startAt),
+                        cb.or(cb.lessThan(root.get("startAt"), startAt), cb.lessThan(root.get("id"), id)));
+    }
+}
@@ -0,0 +1,20 @@
+package com.slotme.appointment.repository;
+
+import com.slotme.appointment.entity.AppointmentRecord;
+
+/**
+ * An appointment, live or archived, together with the display names shown next to it,
+ * read in one query.
+ */
+public interface AppointmentWithNames {
+
+    AppointmentRecord getAppointment();
+
+    String getMasterName();
+
+    String getClientFirstName();
+
+    String getClientLastName();
+
+    String getServiceName();
+}
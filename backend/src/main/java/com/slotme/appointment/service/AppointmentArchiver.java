@@ -0,0 +1,95 @@
+package com.slotme.appointment.service;
+
+import com.slotme.appointment.config.AppointmentProperties;
+import com.slotme.appointment.repository.AppointmentArchiveRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+/**
+ * Keeps appointment_history partitioned ahead of time and moves appointments older than
+ * {@code slotme.appointments.archive.after} into appointments_archive, one batch per
+ * transaction so the hot table is never locked for long.
+ */
+@Component
+public class AppointmentArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentArchiver.class);
+
+    private final AppointmentArchiveRepository archiveRepository;
+    private final AppointmentProperties.Archive properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archivedCounter;
+
+    public AppointmentArchiver(AppointmentArchiveRepository archiveRepository,
+                               AppointmentProperties appointmentProperties,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry registry) {
+        this.archiveRepository = archiveRepository;
+        this.properties = appointmentProperties.archive();
+        this.transactionTemplate = transactionTemplate;
+        this.archivedCounter = Counter.builder("appointment.archived.total")
+                .description("Appointments moved to the archive")
+                .register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        createHistoryPartitions();
+    }
+
+    @Scheduled(cron = "0 30 3 * * *")
+    public void maintain() {
+        createHistoryPartitions();
+        if (properties.enabled()) {
+            archive(Instant.now().atZone(ZoneOffset.UTC).minus(properties.after()).toInstant());
+        }
+    }
+
+    /**
+     * Archives every appointment that started and ended before {@code cutoff}. Returns the
+     * number of appointments moved.
+     */
+    public int archive(Instant cutoff) {
+        Optional<Instant> oldest = archiveRepository.findOldestStartBefore(cutoff);
+        if (oldest.isEmpty()) return 0;
+        archiveRepository.createMonthlyPartitions("appointments_archive",
+                LocalDate.ofInstant(oldest.get(), ZoneOffset.UTC), LocalDate.ofInstant(cutoff, ZoneOffset.UTC));
+
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveRepository.archiveBatch(cutoff, properties.batchSize()));
+            total += moved;
+            archivedCounter.increment(moved);
+        } while (moved == properties.batchSize());
+        if (total > 0) {
+            log.info("Archived {} appointments that ended before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    private void createHistoryPartitions() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        try {
+            int created = archiveRepository.createMonthlyPartitions("appointment_history",
+                    today, today.plusMonths(properties.partitionsAhead()));
+            if (created > 0) {
+                log.info("Created {} appointment_history partitions", created);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to create appointment_history partitions", e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.slotme.appointment.service;
+
+import com.slotme.appointment.entity.Appointment;
+import com.slotme.common.entity.UuidV7Generator;
+import com.slotme.outbox.repository.OutboxRepository;
+import com.slotme.security.SecurityUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Write-behind appointment history. Entries recorded during a transaction are buffered and
+ * written as one outbox event just before it commits, so they are exactly as durable as
+ * the change they describe; {@link AppointmentHistoryProjector} later turns them into
+ * appointment_history rows. History therefore trails the change by one relay cycle.
+ */
+@Component
+public class AppointmentAuditLog {
+
+    public static final String EVENT_TYPE = "appointment.audit";
+
+    private final OutboxRepository outboxRepository;
+
+    public AppointmentAuditLog(OutboxRepository outboxRepository) {
+        this.outboxRepository = outboxRepository;
+    }
+
+    public record Entry(
+            UUID id,
+            UUID appointmentId,
+            UUID salonId,
+            String action,
+            String oldStatus,
+            String newStatus,
+            Instant oldStartAt,
+            Instant newStartAt,
+            UUID changedBy,
+            String changeSource,
+            String notes,
+            Instant occurredAt
+    ) {}
+
+    public void record(Appointment appointment, String action, String oldStatus, String newStatus,
+                       Instant oldStartAt, Instant newStartAt, String notes) {
+        UUID changedBy = null;
+        try {
+            changedBy = SecurityUtils.getCurrentUserId();
+        } catch (IllegalStateException e) {
+            // System-initiated change (e.g., AI booking) - changedBy stays null
+        }
+        Entry entry = new Entry(UuidV7Generator.generate(), appointment.getId(), appointment.getSalonId(), action,
+                oldStatus, newStatus, oldStartAt, newStartAt, changedBy, AppointmentChangeSource.current(changedBy), notes, Instant.now());
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(appointment.getTenantId(), List.of(entry));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<Entry> buffer = (List<Entry>) TransactionSynchronizationManager.getResource(this);
+        if (buffer == null) {
+            List<Entry> entries = new ArrayList<>();
+            UUID tenantId = appointment.getTenantId();
+            TransactionSynchronizationManager.bindResource(this, entries);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    append(tenantId, entries);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AppointmentAuditLog.this);
+                }
+            });
+            buffer = entries;
+        }
+        buffer.add(entry);
+    }
+
+    private void append(UUID tenantId, List<Entry> entries) {
+        outboxRepository.append(tenantId, AppointmentOutboxWriter.AGGREGATE_TYPE,
+                entries.getFirst().appointmentId(), EVENT_TYPE, Map.of("entries", entries));
+    }
+}
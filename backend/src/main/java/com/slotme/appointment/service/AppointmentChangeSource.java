@@ -0,0 +1,40 @@
+package com.slotme.appointment.service;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Who is changing appointments on the current thread, recorded as the change_source of
+ * their history. Callers such as the AI assistant wrap their work in {@link #callAs};
+ * otherwise a change by a signed-in user is {@link #MANUAL} and anything else {@link #SYSTEM}.
+ */
+public final class AppointmentChangeSource {
+
+    public static final String MANUAL = "manual";
+    public static final String AI = "ai";
+    public static final String SYSTEM = "system";
+
+    private static final ThreadLocal<String> CURRENT_SOURCE = new ThreadLocal<>();
+
+    private AppointmentChangeSource() {}
+
+    public static String current(UUID changedBy) {
+        String source = CURRENT_SOURCE.get();
+        if (source != null) return source;
+        return changedBy != null ? MANUAL : SYSTEM;
+    }
+
+    public static <T> T callAs(String source, Supplier<T> action) {
+        String previous = CURRENT_SOURCE.get();
+        CURRENT_SOURCE.set(source);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT_SOURCE.set(previous);
+            } else {
+                CURRENT_SOURCE.remove();
+            }
+        }
+    }
+}
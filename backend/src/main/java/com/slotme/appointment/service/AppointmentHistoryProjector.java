@@ -0,0 +1,82 @@
+package com.slotme.appointment.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.slotme.outbox.repository.OutboxRepository;
+import com.slotme.outbox.service.OutboxEventHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the entries of {@link AppointmentAuditLog} events to appointment_history as one
+ * JDBC batch per event. Entry ids are fixed when recorded, so a redelivered event inserts
+ * nothing twice.
+ */
+@Component
+public class AppointmentHistoryProjector implements OutboxEventHandler {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO appointment_history (id, appointment_id, salon_id, action, old_status, new_status,
+                                             old_start_at, new_start_at, changed_by, change_source, notes,
+                                             created_at, updated_at)
+            VALUES (:id, :appointmentId, :salonId, :action, :oldStatus, :newStatus,
+                    :oldStartAt, :newStartAt, :changedBy, :changeSource, :notes,
+                    :occurredAt, :occurredAt)
+            ON CONFLICT (id, created_at) DO NOTHING
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public AppointmentHistoryProjector(NamedParameterJdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String name() {
+        return "appointment-history";
+    }
+
+    @Override
+    public void handle(OutboxRepository.Event event) {
+        if (!AppointmentAuditLog.EVENT_TYPE.equals(event.eventType())) return;
+
+        List<MapSqlParameterSource> batch = new ArrayList<>();
+        for (JsonNode node : event.payload().path("entries")) {
+            AppointmentAuditLog.Entry entry;
+            try {
+                entry = objectMapper.treeToValue(node, AppointmentAuditLog.Entry.class);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Unreadable audit entry in outbox event " + event.id(), e);
+            }
+            batch.add(new MapSqlParameterSource()
+                    .addValue("id", entry.id())
+                    .addValue("appointmentId", entry.appointmentId())
+                    .addValue("salonId", entry.salonId())
+                    .addValue("action", entry.action())
+                    .addValue("oldStatus", entry.oldStatus())
+                    .addValue("newStatus", entry.newStatus())
+                    .addValue("oldStartAt", timestamp(entry.oldStartAt()))
+                    .addValue("newStartAt", timestamp(entry.newStartAt()))
+                    .addValue("changedBy", entry.changedBy())
+                    .addValue("changeSource", entry.changeSource())
+                    .addValue("notes", entry.notes())
+                    .addValue("occurredAt", timestamp(entry.occurredAt())));
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch.toArray(MapSqlParameterSource[]::new));
+        }
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+}
@@ -0,0 +1,174 @@
+package com.slotme.appointment.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.slotme.appointment.config.AppointmentProperties;
+import com.slotme.appointment.entity.Appointment;
+import com.slotme.appointment.entity.AppointmentStatus;
+import com.slotme.appointment.event.AppointmentCancelledEvent;
+import com.slotme.appointment.event.AppointmentCompletedEvent;
+import com.slotme.appointment.event.AppointmentCreatedEvent;
+import com.slotme.appointment.event.AppointmentNoShowEvent;
+import com.slotme.appointment.event.AppointmentRescheduledEvent;
+import com.slotme.appointment.event.AppointmentSeriesCreatedEvent;
+import com.slotme.appointment.repository.AppointmentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Confirmed appointments per master around now, keyed by start. Confirmed appointments of
+ * one master never overlap, so the only candidate for a conflict with {@code [start, end)}
+ * is the last appointment starting before {@code end}: one floor lookup.
+ * <p>
+ * The index only ever rejects. A hit means the slot was taken when the index last saw it;
+ * a miss still goes to the database, whose exclusion constraint has the final word. Local
+ * appointment events keep it exact on this instance; entries expire after
+ * {@code slotme.appointments.index.ttl} to pick up changes made elsewhere.
+ */
+@Component
+public class AppointmentIntervalIndex {
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentProperties.Index properties;
+    private final Cache<UUID, MasterIntervals> index;
+    private final AtomicLong invalidationSequence = new AtomicLong();
+    private final Counter rejectionCounter;
+
+    public AppointmentIntervalIndex(AppointmentRepository appointmentRepository,
+                                    AppointmentProperties appointmentProperties,
+                                    MeterRegistry registry) {
+        this.appointmentRepository = appointmentRepository;
+        this.properties = appointmentProperties.index();
+        this.index = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, index, "appointment-intervals");
+        this.rejectionCounter = Counter.builder("appointment.index.rejections")
+                .description("Bookings rejected by the in-memory index without a database check")
+                .register(registry);
+    }
+
+    private record Interval(UUID appointmentId, Instant endAt) {}
+
+    private record MasterIntervals(Instant coveredFrom, Instant coveredTo,
+                                   NavigableMap<Instant, Interval> byStart) {
+
+        boolean covers(Instant from, Instant to) {
+            return !from.isBefore(coveredFrom) && !to.isAfter(coveredTo);
+        }
+    }
+
+    /**
+     * Whether {@code [startAt, endAt)} overlaps a confirmed appointment of the master other
+     * than {@code excludeId}. Windows outside the horizon are never reported as taken.
+     */
+    public boolean isTaken(UUID masterId, Instant startAt, Instant endAt, UUID excludeId) {
+        if (!properties.enabled()) return false;
+        MasterIntervals intervals = intervalsFor(masterId, startAt, endAt);
+        if (intervals == null) return false;
+
+        // Also look one step further back in case the floor entry is the excluded appointment
+        Map.Entry<Instant, Interval> entry = intervals.byStart().lowerEntry(endAt);
+        while (entry != null && entry.getValue().endAt().isAfter(startAt)) {
+            if (!entry.getValue().appointmentId().equals(excludeId)) {
+                rejectionCounter.increment();
+                return true;
+            }
+            entry = intervals.byStart().lowerEntry(entry.getKey());
+        }
+        return false;
+    }
+
+    // --- Event Listeners ---
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentCreated(AppointmentCreatedEvent event) {
+        add(event.getAppointment());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentSeriesCreated(AppointmentSeriesCreatedEvent event) {
+        event.getAppointments().forEach(this::add);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentCancelled(AppointmentCancelledEvent event) {
+        remove(event.getAppointment(), event.getAppointment().getStartAt());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentCompleted(AppointmentCompletedEvent event) {
+        remove(event.getAppointment(), event.getAppointment().getStartAt());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentNoShow(AppointmentNoShowEvent event) {
+        remove(event.getAppointment(), event.getAppointment().getStartAt());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentRescheduled(AppointmentRescheduledEvent event) {
+        if (event.getPreviousStartAt() != null) {
+            remove(event.getAppointment(), event.getPreviousStartAt());
+        }
+        add(event.getAppointment());
+    }
+
+    // --- Helper Methods ---
+
+    private MasterIntervals intervalsFor(UUID masterId, Instant startAt, Instant endAt) {
+        MasterIntervals intervals = index.getIfPresent(masterId);
+        if (intervals != null) {
+            return intervals.covers(startAt, endAt) ? intervals : null;
+        }
+
+        Instant now = Instant.now();
+        Instant coveredFrom = now.minus(Duration.ofDays(1));
+        Instant coveredTo = now.plus(properties.horizon());
+        if (startAt.isBefore(coveredFrom) || endAt.isAfter(coveredTo)) {
+            return null;
+        }
+
+        long sequence = invalidationSequence.get();
+        NavigableMap<Instant, Interval> byStart = new ConcurrentSkipListMap<>();
+        for (Appointment appt : appointmentRepository.findConflicting(masterId, coveredFrom, coveredTo)) {
+            byStart.put(appt.getStartAt(), new Interval(appt.getId(), appt.getEndAt()));
+        }
+        intervals = new MasterIntervals(coveredFrom, coveredTo, byStart);
+        // A change that committed while loading may be missing from the snapshot
+        if (sequence == invalidationSequence.get()) {
+            index.put(masterId, intervals);
+        }
+        return intervals;
+    }
+
+    private void add(Appointment appt) {
+        invalidationSequence.incrementAndGet();
+        MasterIntervals intervals = index.getIfPresent(appt.getMasterId());
+        if (intervals != null && AppointmentStatus.CONFIRMED.equals(appt.getStatus())) {
+            intervals.byStart().put(appt.getStartAt(), new Interval(appt.getId(), appt.getEndAt()));
+        }
+    }
+
+    private void remove(Appointment appt, Instant startAt) {
+        invalidationSequence.incrementAndGet();
+        MasterIntervals intervals = index.getIfPresent(appt.getMasterId());
+        if (intervals != null) {
+            intervals.byStart().computeIfPresent(startAt,
+                    (start, interval) -> interval.appointmentId().equals(appt.getId()) ? null : interval);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.slotme.appointment.service;
+
+import com.slotme.appointment.entity.Appointment;
+import com.slotme.appointment.event.AppointmentCancelledEvent;
+import com.slotme.appointment.event.AppointmentCompletedEvent;
+import com.slotme.appointment.event.AppointmentCreatedEvent;
+import com.slotme.appointment.event.AppointmentNoShowEvent;
+import com.slotme.appointment.event.AppointmentRescheduledEvent;
+import com.slotme.appointment.event.AppointmentSeriesCreatedEvent;
+import com.slotme.outbox.repository.OutboxRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+
+/**
+ * Copies appointment events into the outbox just before the booking transaction commits,
+ * so they are stored exactly when the change is. In-process listeners (caches, holds)
+ * still get the Spring events after commit; anything that must survive a crash or run
+ * on another instance consumes the outbox instead.
+ */
+@Component
+public class AppointmentOutboxWriter {
+
+    public static final String AGGREGATE_TYPE = "appointment";
+    public static final String CREATED = "appointment.created";
+    public static final String SERIES_CREATED = "appointment.series_created";
+    public static final String CANCELLED = "appointment.cancelled";
+    public static final String COMPLETED = "appointment.completed";
+    public static final String NO_SHOW = "appointment.no_show";
+    public static final String RESCHEDULED = "appointment.rescheduled";
+
+    private final OutboxRepository outboxRepository;
+
+    public AppointmentOutboxWriter(OutboxRepository outboxRepository) {
+        this.outboxRepository = outboxRepository;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onAppointmentCreated(AppointmentCreatedEvent event) {
+        append(event.getAppointment(), CREATED, Map.of());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onAppointmentSeriesCreated(AppointmentSeriesCreatedEvent event) {
+        append(event.getAppointments().getFirst(), SERIES_CREATED, Map.of("appointmentIds",
+                event.getAppointments().stream().map(Appointment::getId).toList()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onAppointmentCancelled(AppointmentCancelledEvent event) {
+        append(event.getAppointment(), CANCELLED, Map.of());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onAppointmentCompleted(AppointmentCompletedEvent event) {
+        append(event.getAppointment(), COMPLETED, Map.of());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onAppointmentNoShow(AppointmentNoShowEvent event) {
+        append(event.getAppointment(), NO_SHOW, Map.of());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onAppointmentRescheduled(AppointmentRescheduledEvent event) {
+        append(event.getAppointment(), RESCHEDULED, event.getPreviousStartAt() != null
+                ? Map.of("previousStartAt", event.getPreviousStartAt().toString())
+                : Map.of());
+    }
+
+    private void append(Appointment appt, String eventType, Map<String, ?> payload) {
+        outboxRepository.append(appt.getTenantId(), AGGREGATE_TYPE, appt.getId(), eventType, payload);
+    }
+}
@@ -2,11 +2,18 @@ package com.slotme.appointment.service;
 
 import com.slotme.appointment.dto.*;
 import com.slotme.appointment.entity.Appointment;
+import com.slotme.appointment.entity.BaseAppointment;
 import com.slotme.appointment.entity.AppointmentHistory;
+import com.slotme.appointment.entity.AppointmentRecord;
 import com.slotme.appointment.entity.AppointmentStatus;
 import com.slotme.appointment.event.*;
 import com.slotme.appointment.repository.AppointmentHistoryRepository;
+import com.slotme.appointment.repository.AppointmentRecordRepository;
 import com.slotme.appointment.repository.AppointmentRepository;
+import com.slotme.appointment.repository.AppointmentSpecifications;
+import com.slotme.appointment.repository.AppointmentWithNames;
+import com.slotme.calendar.repository.CalendarRepository;
+import com.slotme.calendar.service.SlotHoldService;
 import com.slotme.client.entity.Client;
 import com.slotme.client.repository.ClientRepository;
 import com.slotme.common.exception.ConflictException;
@@ -16,51 +23,87 @@ import com.slotme.master.repository.MasterRepository;
 import com.slotme.security.SecurityUtils;
 import com.slotme.service.entity.SalonService;
 import com.slotme.service.repository.SalonServiceRepository;
+import io.github.resilience4j.retry.annotation.Retry;
 import io.micrometer.core.instrument.Counter;
-import jakarta.persistence.EntityManager;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.List;
-import java.util.UUID;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 public class AppointmentService {
 
+    private static final String EXCLUSION_VIOLATION = "23P01";
+    private static final int MAX_WINDOW_LIMIT = 200;
+    private static final Duration HISTORY_CLOCK_SKEW = Duration.ofMinutes(1);
+    private static final Duration MAX_HISTORY_RANGE = Duration.ofDays(92);
+    private static final int MAX_HISTORY_LIMIT = 1000;
+
     private final AppointmentRepository appointmentRepository;
+    private final AppointmentRecordRepository recordRepository;
     private final AppointmentHistoryRepository historyRepository;
     private final SalonServiceRepository salonServiceRepository;
     private final MasterRepository masterRepository;
     private final ClientRepository clientRepository;
-    private final EntityManager entityManager;
+    private final CalendarRepository calendarRepository;
+    private final SlotHoldService slotHoldService;
+    private final AppointmentIntervalIndex intervalIndex;
+    private final AppointmentAuditLog auditLog;
     private final ApplicationEventPublisher eventPublisher;
     private final Counter appointmentCreatedCounter;
     private final Counter bookingConflictCounter;
 
     public AppointmentService(AppointmentRepository appointmentRepository,
+                              AppointmentRecordRepository recordRepository,
                               AppointmentHistoryRepository historyRepository,
                               SalonServiceRepository salonServiceRepository,
                               MasterRepository masterRepository,
                               ClientRepository clientRepository,
-                              EntityManager entityManager,
+                              CalendarRepository calendarRepository,
+                              SlotHoldService slotHoldService,
+                              AppointmentIntervalIndex intervalIndex,
+                              AppointmentAuditLog auditLog,
                               ApplicationEventPublisher eventPublisher,
                               Counter appointmentCreatedCounter,
                               Counter bookingConflictCounter) {
         this.appointmentRepository = appointmentRepository;
+        this.recordRepository = recordRepository;
         this.historyRepository = historyRepository;
         this.salonServiceRepository = salonServiceRepository;
         this.masterRepository = masterRepository;
         this.clientRepository = clientRepository;
-        this.entityManager = entityManager;
+        this.calendarRepository = calendarRepository;
+        this.slotHoldService = slotHoldService;
+        this.intervalIndex = intervalIndex;
+        this.auditLog = auditLog;
         this.eventPublisher = eventPublisher;
         this.appointmentCreatedCounter = appointmentCreatedCounter;
         this.bookingConflictCounter = bookingConflictCounter;
     }
 
+    /**
+     * Overlap is enforced by the appointments_master_no_overlap exclusion constraint, so
+     * concurrent bookings of different slots for one master never wait on each other.
+     * The conflict query only spares the common case a failed insert.
+     */
+    @Retry(name = "booking")
     @Transactional
     public AppointmentResponse bookAppointment(UUID salonId, CreateAppointmentRequest request) {
         SalonService service = salonServiceRepository.findById(request.serviceId())
@@ -70,10 +113,14 @@ public class AppointmentService {
         int durationMinutes = service.getDurationMinutes();
         Instant endAt = startAt.plusSeconds((long) durationMinutes * 60);
 
-        // Advisory lock on master + date to prevent concurrent double-booking
-        acquireAdvisoryLock(request.masterId(), startAt);
+        // Time held for another client is off limits until the hold expires
+        slotHoldService.checkNotHeld(salonId, request.masterId(), startAt, endAt, request.clientId());
 
-        // Check for conflicts
+        // Check for conflicts, in memory first
+        if (intervalIndex.isTaken(request.masterId(), startAt, endAt, null)) {
+            bookingConflictCounter.increment();
+            throw new ConflictException("Time slot is already booked for this master");
+        }
         List<Appointment> conflicts = appointmentRepository.findConflicting(
                 request.masterId(), startAt, endAt);
         if (!conflicts.isEmpty()) {
@@ -95,9 +142,10 @@ public class AppointmentService {
         appointment.setNotes(request.notes());
         appointment.setSource(request.source() != null ? request.source() : "manual");
 
-        appointment = appointmentRepository.save(appointment);
+        Appointment toSave = appointment;
+        appointment = saveOrConflict(() -> appointmentRepository.saveAndFlush(toSave));
 
-        recordHistory(appointment.getId(), "created", null,
+        recordHistory(appointment, "created", null,
                 AppointmentStatus.CONFIRMED, null, appointment.getStartAt(), null);
 
         appointmentCreatedCounter.increment();
@@ -106,19 +154,192 @@ public class AppointmentService {
         return toResponse(appointment);
     }
 
+    /**
+     * Books every step of a combo or none. Conflicts for all steps are checked with a
+     * single query; the exclusion constraint catches concurrent bookings at flush.
+     */
+    @Retry(name = "booking")
+    @Transactional
+    public List<AppointmentResponse> bookCombo(UUID salonId, BookComboRequest request) {
+        Map<UUID, SalonService> servicesById = new HashMap<>();
+        for (SalonService service : salonServiceRepository.findAllById(
+                request.steps().stream().map(BookComboRequest.Step::serviceId).collect(Collectors.toSet()))) {
+            servicesById.put(service.getId(), service);
+        }
+
+        List<Appointment> appointments = new ArrayList<>(request.steps().size());
+        for (BookComboRequest.Step step : request.steps()) {
+            SalonService service = servicesById.get(step.serviceId());
+            if (service == null) {
+                throw new ResourceNotFoundException("Service", step.serviceId());
+            }
+            Appointment appointment = new Appointment();
+            appointment.setSalonId(salonId);
+            appointment.setMasterId(step.masterId());
+            appointment.setClientId(request.clientId());
+            appointment.setServiceId(step.serviceId());
+            appointment.setStatus(AppointmentStatus.CONFIRMED);
+            appointment.setStartAt(step.startAt());
+            appointment.setEndAt(step.startAt().plusSeconds((long) service.getDurationMinutes() * 60));
+            appointment.setDurationMinutes(service.getDurationMinutes());
+            appointment.setPrice(service.getPrice());
+            appointment.setCurrency(service.getCurrency());
+            appointment.setNotes(request.notes());
+            appointment.setSource(request.source() != null ? request.source() : "manual");
+            appointments.add(appointment);
+        }
+
+        // Steps of the same combo must not overlap for one master
+        for (int i = 0; i < appointments.size(); i++) {
+            for (int j = i + 1; j < appointments.size(); j++) {
+                if (overlaps(appointments.get(i), appointments.get(j))
+                        && appointments.get(i).getMasterId().equals(appointments.get(j).getMasterId())) {
+                    throw new IllegalArgumentException("Combo steps overlap for the same master");
+                }
+            }
+            slotHoldService.checkNotHeld(salonId, appointments.get(i).getMasterId(),
+                    appointments.get(i).getStartAt(), appointments.get(i).getEndAt(), request.clientId());
+        }
+        rejectIfIndexed(appointments);
+
+        Instant rangeStart = appointments.stream().map(Appointment::getStartAt).min(Comparator.naturalOrder()).orElseThrow();
+        Instant rangeEnd = appointments.stream().map(Appointment::getEndAt).max(Comparator.naturalOrder()).orElseThrow();
+        List<Appointment> existing = appointmentRepository.findConflictingForMasters(
+                appointments.stream().map(Appointment::getMasterId).collect(Collectors.toSet()), rangeStart, rangeEnd);
+        for (Appointment appointment : appointments) {
+            for (Appointment other : existing) {
+                if (other.getMasterId().equals(appointment.getMasterId()) && overlaps(appointment, other)) {
+                    bookingConflictCounter.increment();
+                    throw new ConflictException("Time slot is already booked for this master");
+                }
+            }
+        }
+
+        List<Appointment> toSave = appointments;
+        appointments = saveOrConflict(() -> appointmentRepository.saveAllAndFlush(toSave));
+
+        for (Appointment appointment : appointments) {
+            recordHistory(appointment, "created", null,
+                    AppointmentStatus.CONFIRMED, null, appointment.getStartAt(), "combo");
+            appointmentCreatedCounter.increment();
+            eventPublisher.publishEvent(new AppointmentCreatedEvent(this, appointment));
+        }
+        return toResponses(appointments);
+    }
+
+    /**
+     * Books a recurring series or nothing. All occurrences are checked against existing
+     * appointments and holds with one read each, then appointments and their history rows
+     * go out as JDBC batches and a single {@link AppointmentSeriesCreatedEvent} is published.
+     * Occurrences keep the wall-clock time of the first one in the master's time zone.
+     */
+    @Retry(name = "booking")
+    @Transactional
+    public List<AppointmentResponse> bookSeries(UUID salonId, BookSeriesRequest request) {
+        SalonService service = salonServiceRepository.findById(request.serviceId())
+                .orElseThrow(() -> new ResourceNotFoundException("Service", request.serviceId()));
+        ZoneId zone = calendarRepository.findByMasterId(request.masterId())
+                .map(calendar -> ZoneId.of(calendar.getTimezone()))
+                .orElse(ZoneOffset.UTC);
+
+        ZonedDateTime first = request.firstStartAt().atZone(zone);
+        List<Appointment> appointments = new ArrayList<>(request.occurrences());
+        for (int i = 0; i < request.occurrences(); i++) {
+            Instant startAt = first.plusWeeks((long) i * request.intervalWeeks()).toInstant();
+            Appointment appointment = new Appointment();
+            appointment.setSalonId(salonId);
+            appointment.setMasterId(request.masterId());
+            appointment.setClientId(request.clientId());
+            appointment.setServiceId(request.serviceId());
+            appointment.setStatus(AppointmentStatus.CONFIRMED);
+            appointment.setStartAt(startAt);
+            appointment.setEndAt(startAt.plusSeconds((long) service.getDurationMinutes() * 60));
+            appointment.setDurationMinutes(service.getDurationMinutes());
+            appointment.setPrice(service.getPrice());
+            appointment.setCurrency(service.getCurrency());
+            appointment.setNotes(request.notes());
+            appointment.setSource(request.source() != null ? request.source() : "manual");
+            appointments.add(appointment);
+        }
+
+        slotHoldService.checkNotHeld(salonId, appointments, request.clientId());
+        rejectIfIndexed(appointments);
+
+        List<Appointment> existing = appointmentRepository.findConflictingForMasters(Set.of(request.masterId()),
+                appointments.getFirst().getStartAt(), appointments.getLast().getEndAt());
+        for (Appointment appointment : appointments) {
+            for (Appointment other : existing) {
+                if (overlaps(appointment, other)) {
+                    bookingConflictCounter.increment();
+                    throw new ConflictException("Time slot on " + appointment.getStartAt().atZone(zone).toLocalDate()
+                            + " is already booked for this master");
+                }
+            }
+        }
+
+        List<Appointment> toSave = appointments;
+        appointments = saveOrConflict(() -> appointmentRepository.saveAllAndFlush(toSave));
+
+        for (Appointment appointment : appointments) {
+            recordHistory(appointment, "created", null,
+                    AppointmentStatus.CONFIRMED, null, appointment.getStartAt(), "series");
+        }
+
+        appointmentCreatedCounter.increment(appointments.size());
+        eventPublisher.publishEvent(new AppointmentSeriesCreatedEvent(this, appointments));
+        return toResponses(appointments);
+    }
+
     public Page<AppointmentResponse> listAppointments(UUID salonId, UUID masterId, UUID clientId,
                                                        String status, Instant dateFrom, Instant dateTo,
                                                        Pageable pageable) {
-        return appointmentRepository.findFiltered(salonId, masterId, clientId, status,
-                dateFrom, dateTo, pageable).map(this::toResponse);
+        Page<AppointmentRecord> page = recordRepository.findAll(
+                AppointmentSpecifications.filtered(salonId, masterId, clientId, status, dateFrom, dateTo),
+                pageable);
+        return new PageImpl<>(toResponses(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    /**
+     * Keyset-paginated list ordered by {@code (startAt, id)}. Each window continues after the
+     * cursor of the previous one, so deep windows cost the same as the first; the total is
+     * only counted when asked for. Archived appointments are listed alongside live ones.
+     */
+    public AppointmentWindowResponse scrollAppointments(UUID salonId, UUID masterId, UUID clientId,
+                                                        String status, Instant dateFrom, Instant dateTo,
+                                                        String cursor, int limit, boolean ascending,
+                                                        boolean includeTotal) {
+        if (limit < 1 || limit > MAX_WINDOW_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_WINDOW_LIMIT);
+        }
+        Specification<AppointmentRecord> filter =
+                AppointmentSpecifications.filtered(salonId, masterId, clientId, status, dateFrom, dateTo);
+        Specification<AppointmentRecord> spec = filter;
+        if (cursor != null && !cursor.isBlank()) {
+            AppointmentCursor position = AppointmentCursor.decode(cursor);
+            spec = spec.and(AppointmentSpecifications.after(position.startAt(), position.id(), ascending));
+        }
+        Sort sort = Sort.by(ascending ? Sort.Direction.ASC : Sort.Direction.DESC, "startAt", "id");
+
+        // One extra row tells whether another window follows
+        List<AppointmentRecord> rows = recordRepository.findBy(spec, q -> q.sortBy(sort).limit(limit + 1).all());
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            AppointmentRecord last = rows.getLast();
+            nextCursor = new AppointmentCursor(last.getStartAt(), last.getId()).encode();
+        }
+        Long total = includeTotal ? recordRepository.count(filter) : null;
+        return new AppointmentWindowResponse(toResponses(rows), nextCursor, total);
     }
 
     public AppointmentResponse getAppointment(UUID appointmentId) {
-        Appointment appointment = appointmentRepository.findById(appointmentId)
+        AppointmentWithNames row = recordRepository.findWithNamesById(appointmentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Appointment", appointmentId));
-        return toResponse(appointment);
+        return toResponse(row.getAppointment(), row.getMasterName(),
+                clientName(row.getClientFirstName(), row.getClientLastName()), row.getServiceName());
     }
 
+    @Retry(name = "booking")
     @Transactional
     public AppointmentResponse reschedule(UUID appointmentId, RescheduleRequest request) {
         Appointment appointment = appointmentRepository.findById(appointmentId)
@@ -130,11 +351,17 @@ public class AppointmentService {
 
         Instant newEndAt = request.startAt().plusSeconds((long) appointment.getDurationMinutes() * 60);
 
-        acquireAdvisoryLock(appointment.getMasterId(), request.startAt());
+        slotHoldService.checkNotHeld(appointment.getSalonId(), appointment.getMasterId(),
+                request.startAt(), newEndAt, appointment.getClientId());
 
+        if (intervalIndex.isTaken(appointment.getMasterId(), request.startAt(), newEndAt, appointmentId)) {
+            bookingConflictCounter.increment();
+            throw new ConflictException("New time slot is already booked for this master");
+        }
         List<Appointment> conflicts = appointmentRepository.findConflictingExcluding(
                 appointment.getMasterId(), request.startAt(), newEndAt, appointmentId);
         if (!conflicts.isEmpty()) {
+            bookingConflictCounter.increment();
             throw new ConflictException("New time slot is already booked for this master");
         }
 
@@ -148,9 +375,10 @@ public class AppointmentService {
 
         // After rescheduling, set back to confirmed for the new slot
         appointment.setStatus(AppointmentStatus.CONFIRMED);
-        appointment = appointmentRepository.save(appointment);
+        Appointment toSave = appointment;
+        appointment = saveOrConflict(() -> appointmentRepository.saveAndFlush(toSave));
 
-        recordHistory(appointment.getId(), "rescheduled", oldStatus,
+        recordHistory(appointment, "rescheduled", oldStatus,
                 AppointmentStatus.CONFIRMED, previousStartAt, request.startAt(), null);
 
         eventPublisher.publishEvent(new AppointmentRescheduledEvent(this, appointment, previousStartAt));
@@ -177,7 +405,7 @@ public class AppointmentService {
         appointment.setCancellationReason(request != null ? request.reason() : null);
         appointment = appointmentRepository.save(appointment);
 
-        recordHistory(appointment.getId(), "cancelled", oldStatus, newStatus,
+        recordHistory(appointment, "cancelled", oldStatus, newStatus,
                 null, null, request != null ? request.reason() : null);
 
         eventPublisher.publishEvent(new AppointmentCancelledEvent(this, appointment));
@@ -198,7 +426,7 @@ public class AppointmentService {
         appointment.setStatus(AppointmentStatus.COMPLETED);
         appointment = appointmentRepository.save(appointment);
 
-        recordHistory(appointment.getId(), "completed", oldStatus,
+        recordHistory(appointment, "completed", oldStatus,
                 AppointmentStatus.COMPLETED, null, null, null);
 
         eventPublisher.publishEvent(new AppointmentCompletedEvent(this, appointment));
@@ -219,60 +447,143 @@ public class AppointmentService {
         appointment.setStatus(AppointmentStatus.NO_SHOW);
         appointment = appointmentRepository.save(appointment);
 
-        recordHistory(appointment.getId(), "no_show", oldStatus,
+        recordHistory(appointment, "no_show", oldStatus,
                 AppointmentStatus.NO_SHOW, null, null, null);
 
+        eventPublisher.publishEvent(new AppointmentNoShowEvent(this, appointment));
+
         return toResponse(appointment);
     }
 
+    /**
+     * Confirmed, completed and no-show appointments of the given masters overlapping
+     * {@code [from, to)}, ordered by start, with names resolved in one query per kind.
+     */
+    public List<AppointmentResponse> listForMasters(Collection<UUID> masterIds, Instant from, Instant to) {
+        if (masterIds.isEmpty()) {
+            return List.of();
+        }
+        return toResponses(appointmentRepository.findActiveForMasters(masterIds, from, to));
+    }
+
     public List<AppointmentHistoryResponse> getHistory(UUID appointmentId) {
-        return historyRepository.findByAppointmentIdOrderByCreatedAtDesc(appointmentId)
-                .stream()
+        // History is partitioned by created_at and never predates its appointment, so the
+        // lower bound lets the planner skip older partitions; archived appointments scan all
+        List<AppointmentHistory> history = appointmentRepository.findById(appointmentId)
+                .map(appointment -> historyRepository.findByAppointmentIdAndCreatedAtGreaterThanEqualOrderByCreatedAtDesc(
+                        appointmentId, appointment.getCreatedAt().minus(HISTORY_CLOCK_SKEW)))
+                .orElseGet(() -> historyRepository.findByAppointmentIdOrderByCreatedAtDesc(appointmentId));
+        return history.stream()
+                .map(this::toHistoryResponse)
+                .toList();
+    }
+
+    /**
+     * Salon-wide audit trail between {@code from} (inclusive) and {@code to} (exclusive),
+     * newest first. Served by the (salon_id, created_at) index, pruned to the partitions
+     * the range covers. Entries appear once the outbox relay has projected them.
+     */
+    public List<AppointmentHistoryResponse> getSalonHistory(UUID salonId, Instant from, Instant to, int limit) {
+        if (!to.isAfter(from)) {
+            throw new IllegalArgumentException("to must be after from");
+        }
+        if (Duration.between(from, to).compareTo(MAX_HISTORY_RANGE) > 0) {
+            throw new IllegalArgumentException("Range must not exceed " + MAX_HISTORY_RANGE.toDays() + " days");
+        }
+        if (limit < 1 || limit > MAX_HISTORY_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_HISTORY_LIMIT);
+        }
+        return historyRepository.findSalonRange(salonId, from, to, Limit.of(limit)).stream()
                 .map(this::toHistoryResponse)
                 .toList();
     }
 
     // --- Helper Methods ---
 
-    private void acquireAdvisoryLock(UUID masterId, Instant startAt) {
-        String lockKey = masterId.toString() + startAt.toString().substring(0, 10);
-        entityManager.createNativeQuery("SELECT pg_advisory_xact_lock(hashtext(:key))")
-                .setParameter("key", lockKey)
-                .getSingleResult();
+    /**
+     * Runs a flushing save and turns an exclusion violation (SQLSTATE 23P01) on the
+     * no-overlap constraint into a conflict. The transaction is rolled back either way.
+     */
+    private <T> T saveOrConflict(Supplier<T> save) {
+        try {
+            return save.get();
+        } catch (DataIntegrityViolationException e) {
+            if (NestedExceptionUtils.getMostSpecificCause(e) instanceof SQLException sql
+                    && EXCLUSION_VIOLATION.equals(sql.getSQLState())) {
+                bookingConflictCounter.increment();
+                throw new ConflictException("Time slot is already booked for this master");
+            }
+            throw e;
+        }
     }
 
-    private void recordHistory(UUID appointmentId, String action, String oldStatus,
+    private void rejectIfIndexed(List<Appointment> appointments) {
+        for (Appointment appointment : appointments) {
+            if (intervalIndex.isTaken(appointment.getMasterId(), appointment.getStartAt(), appointment.getEndAt(), null)) {
+                bookingConflictCounter.increment();
+                throw new ConflictException("Time slot is already booked for this master");
+            }
+        }
+    }
+
+    private static boolean overlaps(Appointment a, Appointment b) {
+        return a.getStartAt().isBefore(b.getEndAt()) && a.getEndAt().isAfter(b.getStartAt());
+    }
+
+    private void recordHistory(Appointment appointment, String action, String oldStatus,
                                String newStatus, Instant oldStartAt, Instant newStartAt,
                                String notes) {
-        AppointmentHistory history = new AppointmentHistory();
-        history.setAppointmentId(appointmentId);
-        history.setAction(action);
-        history.setOldStatus(oldStatus);
-        history.setNewStatus(newStatus);
-        history.setOldStartAt(oldStartAt);
-        history.setNewStartAt(newStartAt);
-        history.setChangeSource("manual");
-        history.setNotes(notes);
-        try {
-            history.setChangedBy(SecurityUtils.getCurrentUserId());
-        } catch (IllegalStateException e) {
-            // System-initiated change (e.g., AI booking) - changedBy stays null
+        auditLog.record(appointment, action, oldStatus, newStatus, oldStartAt, newStartAt, notes);
+    }
+
+    private AppointmentResponse toResponse(BaseAppointment a) {
+        return toResponses(List.of(a)).getFirst();
+    }
+
+    /**
+     * Maps appointments to responses, resolving master, client and service names with one
+     * query per kind however many appointments there are.
+     */
+    private List<AppointmentResponse> toResponses(Collection<? extends BaseAppointment> appointments) {
+        if (appointments.isEmpty()) {
+            return List.of();
+        }
+        Set<UUID> masterIds = new HashSet<>();
+        Set<UUID> clientIds = new HashSet<>();
+        Set<UUID> serviceIds = new HashSet<>();
+        for (BaseAppointment a : appointments) {
+            masterIds.add(a.getMasterId());
+            clientIds.add(a.getClientId());
+            serviceIds.add(a.getServiceId());
+        }
+        Map<UUID, String> masterNames = new HashMap<>();
+        for (Master master : masterRepository.findAllById(masterIds)) {
+            masterNames.put(master.getId(), master.getDisplayName());
+        }
+        Map<UUID, String> clientNames = new HashMap<>();
+        for (Client client : clientRepository.findAllById(clientIds)) {
+            clientNames.put(client.getId(), clientName(client.getFirstName(), client.getLastName()));
         }
-        historyRepository.save(history);
+        Map<UUID, String> serviceNames = new HashMap<>();
+        for (SalonService service : salonServiceRepository.findAllById(serviceIds)) {
+            serviceNames.put(service.getId(), service.getName());
+        }
+
+        List<AppointmentResponse> responses = new ArrayList<>(appointments.size());
+        for (BaseAppointment a : appointments) {
+            responses.add(toResponse(a, masterNames.get(a.getMasterId()),
+                    clientNames.get(a.getClientId()), serviceNames.get(a.getServiceId())));
+        }
+        return responses;
     }
 
-    private AppointmentResponse toResponse(Appointment a) {
-        String masterName = masterRepository.findById(a.getMasterId())
-                .map(Master::getDisplayName).orElse(null);
-        String clientName = clientRepository.findById(a.getClientId())
-                .map(c -> {
-                    String first = c.getFirstName() != null ? c.getFirstName() : "";
-                    String last = c.getLastName() != null ? c.getLastName() : "";
-                    return (first + " " + last).trim();
-                }).orElse(null);
-        String serviceName = salonServiceRepository.findById(a.getServiceId())
-                .map(SalonService::getName).orElse(null);
+    private static String clientName(String firstName, String lastName) {
+        String first = firstName != null ? firstName : "";
+        String last = lastName != null ? lastName : "";
+        return (first + " " + last).trim();
+    }
 
+    private AppointmentResponse toResponse(BaseAppointment a, String masterName, String clientName, String serviceName) {
         return new AppointmentResponse(
                 a.getId().toString(),
                 a.getSalonId().toString(),
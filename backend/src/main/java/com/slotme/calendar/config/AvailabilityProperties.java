@@ -0,0 +1,82 @@
+package com.slotme.calendar.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "slotme.availability")
+public record AvailabilityProperties(
+        Cache cache,
+        Recurrence recurrence,
+        Holds holds,
+        Occupancy occupancy,
+        Feed feed
+) {
+    public AvailabilityProperties {
+        if (cache == null) cache = new Cache(null, 0, null, false, null);
+        if (recurrence == null) recurrence = new Recurrence(null, null, 0);
+        if (holds == null) holds = new Holds(null, false);
+        if (occupancy == null) occupancy = new Occupancy(0, null);
+        if (feed == null) feed = new Feed(0, null, null, null);
+    }
+
+    public record Cache(
+            Boolean enabled,
+            long maximumSize,
+            Duration localTtl,
+            boolean redisEnabled,
+            Duration redisTtl
+    ) {
+        public Cache {
+            if (enabled == null) enabled = true;
+            if (maximumSize <= 0) maximumSize = 50_000;
+            if (localTtl == null) localTtl = Duration.ofMinutes(10);
+            if (redisTtl == null) redisTtl = Duration.ofHours(6);
+        }
+    }
+
+    public record Recurrence(
+            Duration horizon,
+            Duration indexTtl,
+            long maximumSize
+    ) {
+        public Recurrence {
+            if (horizon == null) horizon = Duration.ofDays(180);
+            if (indexTtl == null) indexTtl = Duration.ofMinutes(10);
+            if (maximumSize <= 0) maximumSize = 10_000;
+        }
+    }
+
+    public record Holds(
+            Duration ttl,
+            boolean redisEnabled
+    ) {
+        public Holds {
+            if (ttl == null) ttl = Duration.ofMinutes(5);
+        }
+    }
+
+    public record Occupancy(
+            long maximumSize,
+            Duration ttl
+    ) {
+        public Occupancy {
+            if (maximumSize <= 0) maximumSize = 10_000;
+            if (ttl == null) ttl = Duration.ofMinutes(10);
+        }
+    }
+
+    public record Feed(
+            long maximumSize,
+            Duration ttl,
+            Duration past,
+            Duration ahead
+    ) {
+        public Feed {
+            if (maximumSize <= 0) maximumSize = 5_000;
+            if (ttl == null) ttl = Duration.ofMinutes(10);
+            if (past == null) past = Duration.ofDays(30);
+            if (ahead == null) ahead = Duration.ofDays(180);
+        }
+    }
+}
@@ -1,14 +1,25 @@
 package com.slotme.calendar.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.slotme.calendar.dto.*;
 import com.slotme.calendar.service.AvailabilityService;
+import com.slotme.calendar.service.CalendarFeedService;
+import com.slotme.calendar.service.CalendarViewService;
+import com.slotme.calendar.service.OccupancyService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
@@ -18,10 +29,24 @@ import java.util.UUID;
 @RequestMapping("/api/v1")
 public class CalendarController {
 
+    private static final MediaType TEXT_CALENDAR = MediaType.parseMediaType("text/calendar;charset=UTF-8");
+
     private final AvailabilityService availabilityService;
+    private final OccupancyService occupancyService;
+    private final CalendarViewService calendarViewService;
+    private final CalendarFeedService calendarFeedService;
+    private final ObjectMapper objectMapper;
 
-    public CalendarController(AvailabilityService availabilityService) {
+    public CalendarController(AvailabilityService availabilityService,
+                              OccupancyService occupancyService,
+                              CalendarViewService calendarViewService,
+                              CalendarFeedService calendarFeedService,
+                              ObjectMapper objectMapper) {
         this.availabilityService = availabilityService;
+        this.occupancyService = occupancyService;
+        this.calendarViewService = calendarViewService;
+        this.calendarFeedService = calendarFeedService;
+        this.objectMapper = objectMapper;
     }
 
     // --- Availability Rules ---
@@ -85,4 +110,168 @@ public class CalendarController {
         return ResponseEntity.ok(
                 availabilityService.getAvailableSlots(salonId, serviceId, masterId, from, to));
     }
+
+    @GetMapping(value = "/salons/{salonId}/available-slots", params = "format=compact")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<CompactAvailableSlotResponse> getAvailableSlotsCompact(
+            @PathVariable UUID salonId,
+            @RequestParam UUID serviceId,
+            @RequestParam(required = false) UUID masterId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo) {
+        LocalDate from = dateFrom != null ? dateFrom : (date != null ? date : LocalDate.now());
+        LocalDate to = dateTo != null ? dateTo : from;
+        return ResponseEntity.ok(
+                availabilityService.getAvailableSlotsCompact(salonId, serviceId, masterId, from, to));
+    }
+
+    /**
+     * Newline-delimited JSON, one {@link AvailableSlotResponse.DaySlots} per line, flushed
+     * after every date. Written on the request thread, which is virtual, so the tenant
+     * and security context stay in place.
+     */
+    @GetMapping(value = "/salons/{salonId}/available-slots/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public void streamAvailableSlots(
+            @PathVariable UUID salonId,
+            @RequestParam UUID serviceId,
+            @RequestParam(required = false) UUID masterId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        try {
+            availabilityService.streamAvailableSlots(salonId, serviceId, masterId, dateFrom, dateTo, daySlots -> {
+                try {
+                    for (AvailableSlotResponse.DaySlots day : daySlots) {
+                        out.write(objectMapper.writeValueAsBytes(day));
+                        out.write('\n');
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Client went away mid-stream
+            throw e.getCause();
+        }
+    }
+
+    @GetMapping("/salons/{salonId}/available-slots/combo")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ComboSlotResponse> getComboSlots(
+            @PathVariable UUID salonId,
+            @RequestParam List<UUID> serviceIds,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
+            @RequestParam(defaultValue = "10") int limit) {
+        LocalDate from = date != null ? date : LocalDate.now();
+        return ResponseEntity.ok(availabilityService.findComboChains(
+                salonId, serviceIds, from, dateTo != null ? dateTo : from, limit));
+    }
+
+    @GetMapping("/salons/{salonId}/available-slots/first")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<FirstAvailableSlotsResponse> getFirstAvailableSlots(
+            @PathVariable UUID salonId,
+            @RequestParam UUID serviceId,
+            @RequestParam(required = false) UUID masterId,
+            @RequestParam(required = false) Instant after,
+            @RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(availabilityService.findFirstAvailable(
+                salonId, serviceId, masterId, after != null ? after : Instant.now(), limit));
+    }
+
+    // --- Slot Holds ---
+
+    @PostMapping("/salons/{salonId}/slot-holds")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<SlotHoldResponse> holdSlot(
+            @PathVariable UUID salonId,
+            @Valid @RequestBody CreateSlotHoldRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(availabilityService.holdSlot(
+                salonId, request.serviceId(), request.masterId(), request.startAt(), request.clientId()));
+    }
+
+    @DeleteMapping("/salons/{salonId}/slot-holds/{holdId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Void> releaseHold(
+            @PathVariable UUID salonId,
+            @PathVariable UUID holdId) {
+        availabilityService.releaseHold(salonId, holdId);
+        return ResponseEntity.noContent().build();
+    }
+
+    // --- Occupancy ---
+
+    @GetMapping("/salons/{salonId}/occupancy")
+    @PreAuthorize("hasRole('SALON_ADMIN')")
+    public ResponseEntity<OccupancyResponse> getOccupancy(
+            @PathVariable UUID salonId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo) {
+        return ResponseEntity.ok(occupancyService.getOccupancy(
+                salonId, dateFrom, dateTo != null ? dateTo : dateFrom));
+    }
+
+    // --- Calendar View ---
+
+    /**
+     * Conditional GET: a matching {@code If-None-Match} is answered with 304 after reading
+     * nothing but the salon's calendar version.
+     */
+    @GetMapping("/salons/{salonId}/calendar-view")
+    @PreAuthorize("hasAnyRole('SALON_ADMIN', 'MASTER')")
+    public ResponseEntity<CalendarViewResponse> getCalendarView(
+            @PathVariable UUID salonId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
+            WebRequest request) {
+        long version = calendarViewService.currentVersion(salonId);
+        String etag = "W/\"" + version + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(
+                calendarViewService.getView(salonId, version, date, dateTo != null ? dateTo : date));
+    }
+
+    // --- iCalendar Feed ---
+
+    @PostMapping("/masters/{masterId}/calendar-feed")
+    @PreAuthorize("hasAnyRole('SALON_ADMIN', 'MASTER')")
+    public ResponseEntity<CalendarFeedResponse> issueCalendarFeed(@PathVariable UUID masterId) {
+        String token = calendarFeedService.issueToken(masterId);
+        String url = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/v1/calendar-feeds/{token}.ics")
+                .buildAndExpand(token)
+                .toUriString();
+        return ResponseEntity.status(HttpStatus.CREATED).body(new CalendarFeedResponse(url));
+    }
+
+    @DeleteMapping("/masters/{masterId}/calendar-feed")
+    @PreAuthorize("hasAnyRole('SALON_ADMIN', 'MASTER')")
+    public ResponseEntity<Void> revokeCalendarFeed(@PathVariable UUID masterId) {
+        calendarFeedService.revokeToken(masterId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Public: the token in the path is the credential. The pre-rendered body is written
+     * as is; calendar apps that revalidate get 304.
+     */
+    @GetMapping("/calendar-feeds/{token}.ics")
+    public ResponseEntity<byte[]> getCalendarFeed(@PathVariable String token, WebRequest request) {
+        CalendarFeedService.RenderedFeed feed = calendarFeedService.getFeed(token);
+        if (request.checkNotModified(feed.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(TEXT_CALENDAR)
+                .eTag(feed.etag())
+                .body(feed.body());
+    }
 }
@@ -0,0 +1,5 @@
+package com.slotme.calendar.dto;
+
+public record CalendarFeedResponse(
+        String url
+) {}
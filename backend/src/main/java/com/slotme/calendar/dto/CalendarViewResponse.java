@@ -0,0 +1,22 @@
+package com.slotme.calendar.dto;
+
+import com.slotme.appointment.dto.AppointmentResponse;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record CalendarViewResponse(
+        LocalDate dateFrom,
+        LocalDate dateTo,
+        long version,
+        List<MasterCalendar> masters
+) {
+    public record MasterCalendar(
+            String masterId,
+            String displayName,
+            String timezone,
+            List<AvailabilityRuleDto> workingHours,
+            List<TimeBlockDto> timeBlocks,
+            List<AppointmentResponse> appointments
+    ) {}
+}
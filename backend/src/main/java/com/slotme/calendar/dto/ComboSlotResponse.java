@@ -0,0 +1,25 @@
+package com.slotme.calendar.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+public record ComboSlotResponse(
+        List<Chain> chains
+) {
+    public record Chain(
+            LocalDate date,
+            List<Step> steps
+    ) {}
+
+    public record Step(
+            String serviceId,
+            String serviceName,
+            String masterId,
+            String masterName,
+            LocalTime start,
+            LocalTime end,
+            Instant startAt
+    ) {}
+}
@@ -0,0 +1,27 @@
+package com.slotme.calendar.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Run-length form of {@link AvailableSlotResponse}: each range lists the first and last
+ * possible start, and every {@code stepMinutes} in between is also a valid start.
+ */
+public record CompactAvailableSlotResponse(
+        int stepMinutes,
+        int durationMinutes,
+        List<DayRanges> slots
+) {
+    public record DayRanges(
+            LocalDate date,
+            String masterId,
+            String masterName,
+            List<StartRange> ranges
+    ) {}
+
+    public record StartRange(
+            LocalTime first,
+            LocalTime last
+    ) {}
+}
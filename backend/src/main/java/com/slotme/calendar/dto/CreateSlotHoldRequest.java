@@ -0,0 +1,13 @@
+package com.slotme.calendar.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record CreateSlotHoldRequest(
+        @NotNull UUID masterId,
+        @NotNull UUID serviceId,
+        @NotNull Instant startAt,
+        UUID clientId
+) {}
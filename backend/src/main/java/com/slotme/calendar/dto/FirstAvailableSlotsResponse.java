@@ -0,0 +1,19 @@
+package com.slotme.calendar.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+public record FirstAvailableSlotsResponse(
+        List<Slot> slots
+) {
+    public record Slot(
+            String masterId,
+            String masterName,
+            LocalDate date,
+            LocalTime start,
+            LocalTime end,
+            Instant startAt
+    ) {}
+}
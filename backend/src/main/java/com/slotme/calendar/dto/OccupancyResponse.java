@@ -0,0 +1,29 @@
+package com.slotme.calendar.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Salon utilization heatmap: for every active master, working and booked minutes per
+ * local hour of each day. Hours without working time or bookings are omitted.
+ */
+public record OccupancyResponse(
+        LocalDate dateFrom,
+        LocalDate dateTo,
+        List<MasterOccupancy> masters
+) {
+    public record MasterOccupancy(
+            String masterId,
+            String masterName,
+            int availableMinutes,
+            int bookedMinutes,
+            List<HourCell> hours
+    ) {}
+
+    public record HourCell(
+            LocalDate date,
+            int hour,
+            int availableMinutes,
+            int bookedMinutes
+    ) {}
+}
@@ -0,0 +1,12 @@
+package com.slotme.calendar.dto;
+
+import java.time.Instant;
+
+public record SlotHoldResponse(
+        String id,
+        String masterId,
+        String serviceId,
+        Instant startAt,
+        Instant endAt,
+        Instant expiresAt
+) {}
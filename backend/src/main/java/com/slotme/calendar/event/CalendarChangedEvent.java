@@ -0,0 +1,40 @@
+package com.slotme.calendar.event;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published when a master's working hours or time blocks change. A {@code null}
+ * range means the whole calendar is affected.
+ */
+public class CalendarChangedEvent extends ApplicationEvent {
+
+    private final UUID masterId;
+    private final Instant from;
+    private final Instant to;
+
+    public CalendarChangedEvent(Object source, UUID masterId, Instant from, Instant to) {
+        super(source);
+        this.masterId = masterId;
+        this.from = from;
+        this.to = to;
+    }
+
+    public UUID getMasterId() {
+        return masterId;
+    }
+
+    public Instant getFrom() {
+        return from;
+    }
+
+    public Instant getTo() {
+        return to;
+    }
+
+    public boolean isWholeCalendar() {
+        return from == null || to == null;
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,5 +24,13 @@ public interface AvailabilityRuleRepository extends JpaRepository<AvailabilityRu
         """)
     List<AvailabilityRule> findActiveRules(UUID calendarId, short dayOfWeek, LocalDate date);
 
+    @Query("""
+        SELECT ar FROM AvailabilityRule ar
+        WHERE ar.calendarId IN :calendarIds
+          AND (ar.validFrom IS NULL OR ar.validFrom <= :dateTo)
+          AND (ar.validUntil IS NULL OR ar.validUntil >= :dateFrom)
+        """)
+    List<AvailabilityRule> findActiveRulesInRange(Collection<UUID> calendarIds, LocalDate dateFrom, LocalDate dateTo);
+
     void deleteByCalendarId(UUID calendarId);
 }
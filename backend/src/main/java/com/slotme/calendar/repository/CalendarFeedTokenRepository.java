@@ -0,0 +1,32 @@
+package com.slotme.calendar.repository;
+
+import com.slotme.calendar.entity.CalendarFeedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface CalendarFeedTokenRepository extends JpaRepository<CalendarFeedToken, UUID> {
+
+    Optional<CalendarFeedToken> findByTokenHash(String tokenHash);
+
+    @Modifying
+    @Query("DELETE FROM CalendarFeedToken t WHERE t.masterId = :masterId")
+    void deleteByMasterId(UUID masterId);
+
+    @Modifying
+    @Query("UPDATE CalendarFeedToken t SET t.feedVersion = t.feedVersion + 1 WHERE t.masterId = :masterId")
+    int bumpFeedVersion(UUID masterId);
+
+    @Modifying
+    @Query("""
+        UPDATE CalendarFeedToken t SET t.feedVersion = t.feedVersion + 1
+        WHERE t.masterId IN (SELECT a.masterId FROM Appointment a WHERE a.id IN :appointmentIds)
+        """)
+    int bumpFeedVersionForAppointments(Collection<UUID> appointmentIds);
+}
@@ -4,6 +4,8 @@ import com.slotme.calendar.entity.Calendar;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,4 +13,6 @@ import java.util.UUID;
 public interface CalendarRepository extends JpaRepository<Calendar, UUID> {
 
     Optional<Calendar> findByMasterId(UUID masterId);
+
+    List<Calendar> findByMasterIdIn(Collection<UUID> masterIds);
 }
@@ -0,0 +1,29 @@
+package com.slotme.calendar.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads the per-salon calendar version kept by the triggers of V018. A salon that has
+ * never changed has no row and reports version 0.
+ */
+@Repository
+public class CalendarVersionRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public CalendarVersionRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long findVersion(UUID salonId) {
+        List<Long> versions = jdbcTemplate.queryForList(
+                "SELECT version FROM calendar_versions WHERE salon_id = :salonId",
+                new MapSqlParameterSource("salonId", salonId), Long.class);
+        return versions.isEmpty() ? 0 : versions.getFirst();
+    }
+}
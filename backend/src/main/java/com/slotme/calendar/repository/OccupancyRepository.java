@@ -0,0 +1,93 @@
+package com.slotme.calendar.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Working vs booked minutes per master and local hour, computed in one statement.
+ * Working hours of each master-day are merged into a multirange (so overlapping rules
+ * count once) and intersected with every hour bucket; appointments are clipped to the
+ * bucket through their {@code during} range.
+ */
+@Repository
+public class OccupancyRepository {
+
+    private static final String BUCKETS_SQL = """
+            WITH master_days AS (
+                SELECT c.master_id, c.id AS calendar_id, c.timezone, d::date AS day
+                FROM calendars c
+                JOIN masters m ON m.id = c.master_id
+                CROSS JOIN generate_series(CAST(:dateFrom AS date), CAST(:dateTo AS date), interval '1 day') AS d
+                WHERE m.salon_id = :salonId AND m.is_active = true
+            ),
+            open_days AS (
+                SELECT md.master_id, md.day, md.timezone,
+                       COALESCE(range_agg(tstzrange((md.day + r.start_time) AT TIME ZONE md.timezone,
+                                                    (md.day + r.end_time) AT TIME ZONE md.timezone)),
+                                '{}'::tstzmultirange) AS open
+                FROM master_days md
+                LEFT JOIN availability_rules r
+                       ON r.calendar_id = md.calendar_id
+                      AND r.is_available
+                      AND r.day_of_week = EXTRACT(ISODOW FROM md.day) - 1
+                      AND (r.valid_from IS NULL OR r.valid_from <= md.day)
+                      AND (r.valid_until IS NULL OR r.valid_until >= md.day)
+                GROUP BY md.master_id, md.day, md.timezone
+            ),
+            buckets AS (
+                SELECT o.master_id, o.day, h.hour, bk.bucket, av.available_seconds
+                FROM open_days o
+                CROSS JOIN generate_series(0, 23) AS h(hour)
+                CROSS JOIN LATERAL (
+                    SELECT tstzrange((o.day + make_interval(hours => h.hour)) AT TIME ZONE o.timezone,
+                                     (o.day + make_interval(hours => h.hour + 1)) AT TIME ZONE o.timezone) AS bucket
+                ) AS bk
+                CROSS JOIN LATERAL (
+                    SELECT COALESCE(sum(EXTRACT(EPOCH FROM upper(r) - lower(r))), 0) AS available_seconds
+                    FROM unnest(o.open * tstzmultirange(bk.bucket)) AS r
+                ) AS av
+            )
+            SELECT b.master_id, b.day, b.hour,
+                   CAST(b.available_seconds / 60 AS int) AS available_minutes,
+                   CAST(COALESCE(sum(EXTRACT(EPOCH FROM upper(a.during * b.bucket) - lower(a.during * b.bucket))), 0) / 60
+                        AS int) AS booked_minutes
+            FROM buckets b
+            LEFT JOIN appointments a
+                   ON a.master_id = b.master_id
+                  AND a.during && b.bucket
+                  AND a.status IN ('confirmed', 'completed', 'no_show')
+            GROUP BY b.master_id, b.day, b.hour, b.available_seconds
+            HAVING b.available_seconds > 0 OR count(a.id) > 0
+            ORDER BY b.day, b.master_id, b.hour
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public OccupancyRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record Bucket(UUID masterId, LocalDate date, int hour, int availableMinutes, int bookedMinutes) {}
+
+    /**
+     * Returns every master-hour of the salon's active masters with working time or bookings,
+     * ordered by date, master and hour. Dates and hours are local to each master's calendar.
+     */
+    public List<Bucket> findBuckets(UUID salonId, LocalDate dateFrom, LocalDate dateTo) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("salonId", salonId)
+                .addValue("dateFrom", dateFrom)
+                .addValue("dateTo", dateTo);
+        return jdbcTemplate.query(BUCKETS_SQL, params, (rs, rowNum) -> new Bucket(
+                rs.getObject("master_id", UUID.class),
+                rs.getObject("day", LocalDate.class),
+                rs.getInt("hour"),
+                rs.getInt("available_minutes"),
+                rs.getInt("booked_minutes")));
+    }
+}
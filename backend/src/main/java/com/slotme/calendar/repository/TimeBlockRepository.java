@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -20,5 +21,22 @@ public interface TimeBlockRepository extends JpaRepository<TimeBlock, UUID> {
         """)
     List<TimeBlock> findOverlapping(UUID calendarId, Instant startAt, Instant endAt);
 
+    @Query("""
+        SELECT tb FROM TimeBlock tb
+        WHERE tb.calendarId IN :calendarIds
+          AND tb.recurring = false
+          AND tb.startAt < :endAt
+          AND tb.endAt > :startAt
+        ORDER BY tb.startAt
+        """)
+    List<TimeBlock> findOneOffOverlappingForCalendars(Collection<UUID> calendarIds, Instant startAt, Instant endAt);
+
+    @Query("""
+        SELECT tb FROM TimeBlock tb
+        WHERE tb.calendarId IN :calendarIds
+          AND tb.recurring = true
+        """)
+    List<TimeBlock> findRecurringForCalendars(Collection<UUID> calendarIds);
+
     List<TimeBlock> findByCalendarIdAndStartAtBetween(UUID calendarId, Instant startAt, Instant endAt);
 }
@@ -0,0 +1,344 @@
+package com.slotme.calendar.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.slotme.appointment.entity.Appointment;
+import com.slotme.appointment.event.AppointmentCancelledEvent;
+import com.slotme.appointment.event.AppointmentCompletedEvent;
+import com.slotme.appointment.event.AppointmentCreatedEvent;
+import com.slotme.appointment.event.AppointmentRescheduledEvent;
+import com.slotme.appointment.event.AppointmentSeriesCreatedEvent;
+import com.slotme.calendar.config.AvailabilityProperties;
+import com.slotme.calendar.event.CalendarChangedEvent;
+import com.slotme.master.entity.Master;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-master, per-day cache of {@link MasterDay} in front of the availability snapshot.
+ * A local Caffeine cache is always used; when {@code slotme.availability.cache.redis-enabled}
+ * is set and Redis is configured, days are also shared through one Redis hash per master.
+ * <p>
+ * Entries are evicted after commit by appointment and calendar events, covering only the
+ * days the change touches. Each Redis eviction also bumps a per-master generation; a
+ * loaded snapshot is only written to Redis if the generation is still the one read before
+ * loading, so a node cannot publish days that another node evicted in the meantime.
+ */
+@Component
+public class AvailabilityCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityCache.class);
+    private static final String REDIS_KEY_PREFIX = "availability:";
+    private static final String GENERATION_KEY_PREFIX = "availability-generation:";
+    // KEYS: days hash, generation; ARGV: expected generation, ttl millis, then field/value pairs
+    private static final RedisScript<Long> WRITE_IF_CURRENT = new DefaultRedisScript<>("""
+            if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then
+                return 0
+            end
+            for i = 3, #ARGV, 2 do
+                redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+            end
+            redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            return 1
+            """, Long.class);
+    // Events carry instants but cache keys are local dates; this covers every UTC offset
+    private static final Duration ZONE_MARGIN = Duration.ofHours(14);
+
+    private final AvailabilitySnapshotLoader snapshotLoader;
+    private final AvailabilityProperties.Cache properties;
+    private final Cache<DayKey, MasterDay> localCache;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final AtomicLong invalidationSequence = new AtomicLong();
+    private final Counter redisHitCounter;
+    private final Counter redisMissCounter;
+    private final Counter redisStaleWriteCounter;
+    private final Counter invalidationCounter;
+
+    public AvailabilityCache(AvailabilitySnapshotLoader snapshotLoader,
+                             AvailabilityProperties availabilityProperties,
+                             ObjectProvider<RedisTemplate<String, Object>> redisTemplateProvider,
+                             MeterRegistry registry) {
+        this.snapshotLoader = snapshotLoader;
+        this.properties = availabilityProperties.cache();
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.localTtl())
+                .recordStats()
+                .build();
+        this.redisTemplate = properties.redisEnabled() ? redisTemplateProvider.getIfAvailable() : null;
+
+        CaffeineCacheMetrics.monitor(registry, localCache, "availability");
+        this.redisHitCounter = Counter.builder("availability.cache.redis")
+                .tag("result", "hit")
+                .description("Availability days served from Redis")
+                .register(registry);
+        this.redisMissCounter = Counter.builder("availability.cache.redis")
+                .tag("result", "miss")
+                .description("Availability days not found in Redis")
+                .register(registry);
+        this.redisStaleWriteCounter = Counter.builder("availability.cache.redis.stale")
+                .description("Loaded availability not written to Redis because another node evicted it meanwhile")
+                .register(registry);
+        this.invalidationCounter = Counter.builder("availability.cache.invalidations")
+                .description("Availability cache invalidations triggered by domain events")
+                .register(registry);
+    }
+
+    public record DayKey(UUID masterId, LocalDate date) {}
+
+    /**
+     * Returns the availability of every master on every day of the range. All misses are
+     * loaded together with a single snapshot.
+     */
+    public Map<DayKey, MasterDay> getAll(List<Master> masters, LocalDate dateFrom, LocalDate dateTo) {
+        Map<DayKey, MasterDay> result = new HashMap<>();
+        if (!properties.enabled()) {
+            AvailabilitySnapshot snapshot = snapshotLoader.load(masters, dateFrom, dateTo);
+            for (Master master : masters) {
+                for (LocalDate date = dateFrom; !date.isAfter(dateTo); date = date.plusDays(1)) {
+                    result.put(new DayKey(master.getId(), date), snapshot.day(master.getId(), date));
+                }
+            }
+            return result;
+        }
+
+        long sequence = invalidationSequence.get();
+        Map<UUID, List<LocalDate>> misses = new LinkedHashMap<>();
+        for (Master master : masters) {
+            for (LocalDate date = dateFrom; !date.isAfter(dateTo); date = date.plusDays(1)) {
+                DayKey key = new DayKey(master.getId(), date);
+                MasterDay day = localCache.getIfPresent(key);
+                if (day != null) {
+                    result.put(key, day);
+                } else {
+                    misses.computeIfAbsent(master.getId(), id -> new ArrayList<>()).add(date);
+                }
+            }
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
+
+        if (redisTemplate != null) {
+            readFromRedis(misses, result);
+            if (misses.isEmpty()) {
+                return result;
+            }
+        }
+
+        LocalDate missFrom = null;
+        LocalDate missTo = null;
+        for (List<LocalDate> dates : misses.values()) {
+            if (missFrom == null || dates.getFirst().isBefore(missFrom)) missFrom = dates.getFirst();
+            if (missTo == null || dates.getLast().isAfter(missTo)) missTo = dates.getLast();
+        }
+        List<Master> missingMasters = masters.stream()
+                .filter(m -> misses.containsKey(m.getId()))
+                .toList();
+        // Read before loading: an eviction committed after this point changes the generation
+        Map<UUID, String> generations = redisTemplate != null ? readGenerations(misses.keySet()) : null;
+        AvailabilitySnapshot snapshot = snapshotLoader.load(missingMasters, missFrom, missTo);
+
+        // Skip caching if anything was invalidated while loading, the snapshot may predate it
+        boolean cacheable = sequence == invalidationSequence.get();
+        for (Map.Entry<UUID, List<LocalDate>> entry : misses.entrySet()) {
+            Map<String, Object> redisEntries = new HashMap<>();
+            for (LocalDate date : entry.getValue()) {
+                DayKey key = new DayKey(entry.getKey(), date);
+                MasterDay day = snapshot.day(entry.getKey(), date);
+                result.put(key, day);
+                if (cacheable) {
+                    localCache.put(key, day);
+                    redisEntries.put(date.toString(), day.encode());
+                }
+            }
+            if (cacheable && generations != null) {
+                writeToRedis(entry.getKey(), generations.get(entry.getKey()), redisEntries);
+            }
+        }
+        return result;
+    }
+
+    public void evictDays(UUID masterId, Instant from, Instant to) {
+        invalidationSequence.incrementAndGet();
+        invalidationCounter.increment();
+        LocalDate first = LocalDate.ofInstant(from.minus(ZONE_MARGIN), ZoneOffset.UTC);
+        LocalDate last = LocalDate.ofInstant(to.plus(ZONE_MARGIN), ZoneOffset.UTC);
+        List<Object> fields = new ArrayList<>();
+        for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+            localCache.invalidate(new DayKey(masterId, date));
+            fields.add(date.toString());
+        }
+        if (redisTemplate != null) {
+            try {
+                bumpGeneration(masterId);
+                redisTemplate.opsForHash().delete(REDIS_KEY_PREFIX + masterId, fields.toArray());
+            } catch (RuntimeException e) {
+                log.warn("Failed to evict availability days for master {} from Redis", masterId, e);
+            }
+        }
+    }
+
+    public void evictMaster(UUID masterId) {
+        invalidationSequence.incrementAndGet();
+        invalidationCounter.increment();
+        localCache.asMap().keySet().removeIf(key -> key.masterId().equals(masterId));
+        if (redisTemplate != null) {
+            try {
+                bumpGeneration(masterId);
+                redisTemplate.delete(REDIS_KEY_PREFIX + masterId);
+            } catch (RuntimeException e) {
+                log.warn("Failed to evict availability for master {} from Redis", masterId, e);
+            }
+        }
+    }
+
+    // --- Event Listeners ---
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentCreated(AppointmentCreatedEvent event) {
+        evictAppointment(event.getAppointment());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentSeriesCreated(AppointmentSeriesCreatedEvent event) {
+        event.getAppointments().forEach(this::evictAppointment);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentCancelled(AppointmentCancelledEvent event) {
+        evictAppointment(event.getAppointment());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentCompleted(AppointmentCompletedEvent event) {
+        evictAppointment(event.getAppointment());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentRescheduled(AppointmentRescheduledEvent event) {
+        Appointment appt = event.getAppointment();
+        evictAppointment(appt);
+        if (event.getPreviousStartAt() != null) {
+            evictDays(appt.getMasterId(), event.getPreviousStartAt(),
+                    event.getPreviousStartAt().plusSeconds((long) appt.getDurationMinutes() * 60));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCalendarChanged(CalendarChangedEvent event) {
+        if (event.isWholeCalendar()) {
+            evictMaster(event.getMasterId());
+        } else {
+            evictDays(event.getMasterId(), event.getFrom(), event.getTo());
+        }
+    }
+
+    // --- Helper Methods ---
+
+    private void evictAppointment(Appointment appt) {
+        evictDays(appt.getMasterId(), appt.getStartAt(), appt.getEndAt());
+    }
+
+    private void readFromRedis(Map<UUID, List<LocalDate>> misses, Map<DayKey, MasterDay> result) {
+        Iterator<Map.Entry<UUID, List<LocalDate>>> it = misses.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<UUID, List<LocalDate>> entry = it.next();
+            List<Object> fields = entry.getValue().stream().map(d -> (Object) d.toString()).toList();
+            List<Object> values;
+            try {
+                values = redisTemplate.opsForHash().multiGet(REDIS_KEY_PREFIX + entry.getKey(), fields);
+            } catch (RuntimeException e) {
+                log.warn("Failed to read availability for master {} from Redis", entry.getKey(), e);
+                continue;
+            }
+
+            List<LocalDate> stillMissing = new ArrayList<>();
+            for (int i = 0; i < entry.getValue().size(); i++) {
+                LocalDate date = entry.getValue().get(i);
+                Object value = values.get(i);
+                if (value instanceof String encoded) {
+                    DayKey key = new DayKey(entry.getKey(), date);
+                    MasterDay day = MasterDay.decode(encoded);
+                    localCache.put(key, day);
+                    result.put(key, day);
+                    redisHitCounter.increment();
+                } else {
+                    stillMissing.add(date);
+                    redisMissCounter.increment();
+                }
+            }
+            if (stillMissing.isEmpty()) {
+                it.remove();
+            } else {
+                entry.setValue(stillMissing);
+            }
+        }
+    }
+
+    private Map<UUID, String> readGenerations(Collection<UUID> masterIds) {
+        List<UUID> ids = List.copyOf(masterIds);
+        List<Object> values;
+        try {
+            values = redisTemplate.opsForValue().multiGet(ids.stream().map(id -> GENERATION_KEY_PREFIX + id).toList());
+        } catch (RuntimeException e) {
+            log.warn("Failed to read availability generations from Redis", e);
+            return null;
+        }
+        if (values == null) return null;
+        Map<UUID, String> generations = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Object value = values.get(i);
+            generations.put(ids.get(i), value != null ? value.toString() : "0");
+        }
+        return generations;
+    }
+
+    private void bumpGeneration(UUID masterId) {
+        // Before the delete, so a writer that read the old generation can no longer write
+        String key = GENERATION_KEY_PREFIX + masterId;
+        redisTemplate.opsForValue().increment(key);
+        redisTemplate.expire(key, properties.redisTtl());
+    }
+
+    private void writeToRedis(UUID masterId, String generation, Map<String, Object> entries) {
+        if (entries.isEmpty()) return;
+        // Values go through the hash serializer so they read back like any other hash entry
+        @SuppressWarnings("unchecked")
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getHashValueSerializer();
+        List<Object> args = new ArrayList<>();
+        args.add(generation);
+        args.add(Long.toString(properties.redisTtl().toMillis()));
+        entries.forEach((field, value) -> {
+            args.add(field);
+            args.add(new String(valueSerializer.serialize(value), StandardCharsets.UTF_8));
+        });
+        try {
+            Long written = redisTemplate.execute(WRITE_IF_CURRENT, RedisSerializer.string(), null,
+                    List.of(REDIS_KEY_PREFIX + masterId, GENERATION_KEY_PREFIX + masterId), args.toArray());
+            if (written != null && written == 0) {
+                redisStaleWriteCounter.increment();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to write availability for master {} to Redis", masterId, e);
+        }
+    }
+}
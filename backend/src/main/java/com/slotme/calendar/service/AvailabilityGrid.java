@@ -0,0 +1,196 @@
+package com.slotme.calendar.service;
+
+import java.util.Arrays;
+
+/**
+ * Free/busy map of a single master-day, stored as a fixed-size bitset of
+ * 5-minute cells. A set bit means the cell is open for booking.
+ * <p>
+ * Working hours are added with {@link #open}, which rounds inward so a slot can
+ * never start before the master is available. Time blocks and appointments are
+ * removed with {@link #close}, which rounds outward so a partially busy cell is
+ * never offered. All range operations work on whole 64-bit words.
+ */
+public final class AvailabilityGrid {
+
+    public static final int CELL_MINUTES = 5;
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final int CELLS = MINUTES_PER_DAY / CELL_MINUTES;
+
+    private static final int WORDS = (CELLS + 63) >>> 6;
+
+    private final long[] words;
+
+    public AvailabilityGrid() {
+        this.words = new long[WORDS];
+    }
+
+    private AvailabilityGrid(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * Marks {@code [fromMinute, toMinute)} as open. Partial cells at either end stay closed.
+     */
+    public void open(int fromMinute, int toMinute) {
+        setRange(toCell(fromMinute, true), toCell(toMinute, false));
+    }
+
+    /**
+     * Marks {@code [fromMinute, toMinute)} as busy. Partial cells at either end are closed too.
+     */
+    public void close(int fromMinute, int toMinute) {
+        clearRange(toCell(fromMinute, false), toCell(toMinute, true));
+    }
+
+    /**
+     * Returns true when every cell covering {@code [fromMinute, toMinute)} is open.
+     */
+    public boolean isOpen(int fromMinute, int toMinute) {
+        int from = toCell(fromMinute, false);
+        int to = toCell(toMinute, true);
+        if (from >= to) {
+            return false;
+        }
+        return nextClearCell(from) >= to;
+    }
+
+    /**
+     * Returns the minute-of-day of every slot start such that {@code lengthMinutes}
+     * fit into a single run of open cells. Starts are aligned to the beginning of each
+     * run and advance by {@code stepMinutes}.
+     */
+    public int[] slotStarts(int lengthMinutes, int stepMinutes) {
+        int need = Math.max(1, ceilDiv(lengthMinutes, CELL_MINUTES));
+        int step = Math.max(1, stepMinutes / CELL_MINUTES);
+
+        int[] starts = new int[16];
+        int count = 0;
+        int runStart = nextSetCell(0);
+        while (runStart >= 0) {
+            int runEnd = nextClearCell(runStart);
+            for (int cell = runStart; cell + need <= runEnd; cell += step) {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                }
+                starts[count++] = cell * CELL_MINUTES;
+            }
+            runStart = nextSetCell(runEnd);
+        }
+        return Arrays.copyOf(starts, count);
+    }
+
+    /**
+     * Same slots as {@link #slotStarts}, encoded as one {@code [first, last]} pair of
+     * start minutes per run of open cells; the starts in between are
+     * {@code first + k * stepMinutes}. A day yields a handful of ints instead of one per slot.
+     */
+    public int[] slotRuns(int lengthMinutes, int stepMinutes) {
+        int need = Math.max(1, ceilDiv(lengthMinutes, CELL_MINUTES));
+        int step = Math.max(1, stepMinutes / CELL_MINUTES);
+
+        int[] runs = new int[8];
+        int count = 0;
+        int runStart = nextSetCell(0);
+        while (runStart >= 0) {
+            int runEnd = nextClearCell(runStart);
+            if (runStart + need <= runEnd) {
+                if (count == runs.length) {
+                    runs = Arrays.copyOf(runs, count * 2);
+                }
+                int last = runStart + (runEnd - need - runStart) / step * step;
+                runs[count++] = runStart * CELL_MINUTES;
+                runs[count++] = last * CELL_MINUTES;
+            }
+            runStart = nextSetCell(runEnd);
+        }
+        return Arrays.copyOf(runs, count);
+    }
+
+    public AvailabilityGrid copy() {
+        return new AvailabilityGrid(words.clone());
+    }
+
+    long[] toWords() {
+        return words.clone();
+    }
+
+    static AvailabilityGrid fromWords(long[] words) {
+        if (words.length != WORDS) {
+            throw new IllegalArgumentException("Expected " + WORDS + " words, got " + words.length);
+        }
+        return new AvailabilityGrid(words.clone());
+    }
+
+    // --- Bit Helpers ---
+
+    private static int toCell(int minute, boolean roundUp) {
+        int clamped = Math.max(0, Math.min(MINUTES_PER_DAY, minute));
+        return roundUp ? ceilDiv(clamped, CELL_MINUTES) : clamped / CELL_MINUTES;
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+
+    private void setRange(int from, int to) {
+        if (from >= to) return;
+        int startWord = from >>> 6;
+        int endWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (startWord == endWord) {
+            words[startWord] |= firstMask & lastMask;
+            return;
+        }
+        words[startWord] |= firstMask;
+        for (int i = startWord + 1; i < endWord; i++) {
+            words[i] = -1L;
+        }
+        words[endWord] |= lastMask;
+    }
+
+    private void clearRange(int from, int to) {
+        if (from >= to) return;
+        int startWord = from >>> 6;
+        int endWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (startWord == endWord) {
+            words[startWord] &= ~(firstMask & lastMask);
+            return;
+        }
+        words[startWord] &= ~firstMask;
+        for (int i = startWord + 1; i < endWord; i++) {
+            words[i] = 0L;
+        }
+        words[endWord] &= ~lastMask;
+    }
+
+    private int nextSetCell(int from) {
+        if (from >= CELLS) return -1;
+        int index = from >>> 6;
+        long word = words[index] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                int cell = (index << 6) + Long.numberOfTrailingZeros(word);
+                return cell < CELLS ? cell : -1;
+            }
+            if (++index == WORDS) return -1;
+            word = words[index];
+        }
+    }
+
+    private int nextClearCell(int from) {
+        if (from >= CELLS) return CELLS;
+        int index = from >>> 6;
+        long word = ~words[index] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return Math.min(CELLS, (index << 6) + Long.numberOfTrailingZeros(word));
+            }
+            if (++index == WORDS) return CELLS;
+            word = ~words[index];
+        }
+    }
+}
@@ -1,50 +1,70 @@
 package com.slotme.calendar.service;
 
-import com.slotme.appointment.entity.Appointment;
-import com.slotme.appointment.repository.AppointmentRepository;
 import com.slotme.calendar.dto.*;
 import com.slotme.calendar.entity.AvailabilityRule;
 import com.slotme.calendar.entity.Calendar;
 import com.slotme.calendar.entity.TimeBlock;
+import com.slotme.calendar.event.CalendarChangedEvent;
 import com.slotme.calendar.repository.AvailabilityRuleRepository;
 import com.slotme.calendar.repository.CalendarRepository;
 import com.slotme.calendar.repository.TimeBlockRepository;
+import com.slotme.common.exception.ConflictException;
 import com.slotme.common.exception.ResourceNotFoundException;
 import com.slotme.master.entity.Master;
+import com.slotme.master.entity.MasterService;
 import com.slotme.master.repository.MasterRepository;
+import com.slotme.master.repository.MasterServiceRepository;
 import com.slotme.security.SecurityUtils;
 import com.slotme.service.entity.SalonService;
 import com.slotme.service.repository.SalonServiceRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.*;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Service
 public class AvailabilityService {
 
     private static final int DEFAULT_SLOT_INCREMENT_MINUTES = 15;
+    private static final int MAX_FIRST_AVAILABLE_LIMIT = 50;
+    private static final int FIRST_AVAILABLE_SEARCH_DAYS = 60;
+    private static final int FIRST_AVAILABLE_MAX_CHUNK_DAYS = 7;
+    private static final int STREAM_MAX_DAYS = 366;
+    private static final int STREAM_MAX_CHUNK_DAYS = 7;
+    private static final int MAX_COMBO_SERVICES = 5;
+    private static final int MAX_COMBO_SEARCH_DAYS = 14;
 
     private final CalendarRepository calendarRepository;
     private final AvailabilityRuleRepository availabilityRuleRepository;
     private final TimeBlockRepository timeBlockRepository;
     private final MasterRepository masterRepository;
+    private final MasterServiceRepository masterServiceRepository;
     private final SalonServiceRepository salonServiceRepository;
-    private final AppointmentRepository appointmentRepository;
+    private final AvailabilityCache availabilityCache;
+    private final SlotHoldService slotHoldService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AvailabilityService(CalendarRepository calendarRepository,
                                 AvailabilityRuleRepository availabilityRuleRepository,
                                 TimeBlockRepository timeBlockRepository,
                                 MasterRepository masterRepository,
+                                MasterServiceRepository masterServiceRepository,
                                 SalonServiceRepository salonServiceRepository,
-                                AppointmentRepository appointmentRepository) {
+                                AvailabilityCache availabilityCache,
+                                SlotHoldService slotHoldService,
+                                ApplicationEventPublisher eventPublisher) {
         this.calendarRepository = calendarRepository;
         this.availabilityRuleRepository = availabilityRuleRepository;
         this.timeBlockRepository = timeBlockRepository;
         this.masterRepository = masterRepository;
+        this.masterServiceRepository = masterServiceRepository;
         this.salonServiceRepository = salonServiceRepository;
-        this.appointmentRepository = appointmentRepository;
+        this.availabilityCache = availabilityCache;
+        this.slotHoldService = slotHoldService;
+        this.eventPublisher = eventPublisher;
     }
 
     // --- Availability Rules Management ---
@@ -73,6 +93,8 @@ public class AvailabilityService {
             return availabilityRuleRepository.save(rule);
         }).toList();
 
+        eventPublisher.publishEvent(new CalendarChangedEvent(this, masterId, null, null));
+
         return rules.stream().map(this::toRuleDto).toList();
     }
 
@@ -80,8 +102,15 @@ public class AvailabilityService {
 
     public List<TimeBlockDto> getTimeBlocks(UUID masterId, Instant from, Instant to) {
         Calendar calendar = getOrCreateCalendar(masterId);
-        return timeBlockRepository.findByCalendarIdAndStartAtBetween(calendar.getId(), from, to)
-                .stream()
+        List<TimeBlock> blocks = new ArrayList<>(
+                timeBlockRepository.findByCalendarIdAndStartAtBetween(calendar.getId(), from, to));
+        // Recurring series started earlier still apply to the window
+        for (TimeBlock block : timeBlockRepository.findRecurringForCalendars(List.of(calendar.getId()))) {
+            if (block.getStartAt().isBefore(from)) {
+                blocks.add(block);
+            }
+        }
+        return blocks.stream()
                 .map(this::toBlockDto)
                 .toList();
     }
@@ -89,6 +118,9 @@ public class AvailabilityService {
     @Transactional
     public TimeBlockDto createTimeBlock(UUID masterId, CreateTimeBlockRequest request) {
         Calendar calendar = getOrCreateCalendar(masterId);
+        if (request.recurring()) {
+            RecurrenceRule.parse(request.recurrenceRule());
+        }
 
         TimeBlock block = new TimeBlock();
         block.setCalendarId(calendar.getId());
@@ -97,15 +129,22 @@ public class AvailabilityService {
         block.setStartAt(request.startAt());
         block.setEndAt(request.endAt());
         block.setRecurring(request.recurring());
-        block.setRecurrenceRule(request.recurrenceRule());
+        block.setRecurrenceRule(request.recurring() ? request.recurrenceRule() : null);
         block = timeBlockRepository.save(block);
 
+        eventPublisher.publishEvent(toChangedEvent(masterId, block));
+
         return toBlockDto(block);
     }
 
     @Transactional
     public void deleteTimeBlock(UUID blockId) {
-        timeBlockRepository.deleteById(blockId);
+        TimeBlock block = timeBlockRepository.findById(blockId).orElse(null);
+        if (block == null) return;
+        timeBlockRepository.delete(block);
+
+        calendarRepository.findById(block.getCalendarId()).ifPresent(calendar ->
+                eventPublisher.publishEvent(toChangedEvent(calendar.getMasterId(), block)));
     }
 
     // --- Available Slots Calculation ---
@@ -116,93 +155,459 @@ public class AvailabilityService {
         SalonService service = salonServiceRepository.findById(serviceId)
                 .orElseThrow(() -> new ResourceNotFoundException("Service", serviceId));
 
-        int slotDuration = service.getDurationMinutes() + service.getBufferMinutes();
-        List<Master> masters;
+        List<AvailableSlotResponse.DaySlots> allSlots = new ArrayList<>();
+        for (DaySlotRuns day : computeSlotRuns(salonId, service, masterId, dateFrom, dateTo)) {
+            allSlots.add(toDaySlots(day, service));
+        }
+        return new AvailableSlotResponse(allSlots);
+    }
 
-        if (masterId != null) {
-            Master master = masterRepository.findById(masterId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Master", masterId));
-            masters = List.of(master);
-        } else {
-            masters = masterRepository.findBySalonIdAndActiveTrue(salonId);
+    /**
+     * Streaming form of {@link #getAvailableSlots} for long ranges: hands the slots of each
+     * date (all masters, in master order) to {@code sink} as soon as that date is computed.
+     * Master days are loaded in chunks of up to a week, starting with a single day so the
+     * first results are available right away, and only one chunk is held at a time.
+     */
+    public void streamAvailableSlots(UUID salonId, UUID serviceId, UUID masterId,
+                                     LocalDate dateFrom, LocalDate dateTo,
+                                     Consumer<List<AvailableSlotResponse.DaySlots>> sink) {
+        if (dateTo.isBefore(dateFrom)) {
+            throw new IllegalArgumentException("dateTo must not be before dateFrom");
         }
+        if (dateFrom.plusDays(STREAM_MAX_DAYS).isBefore(dateTo)) {
+            throw new IllegalArgumentException("Range must not exceed " + STREAM_MAX_DAYS + " days");
+        }
+        SalonService service = salonServiceRepository.findById(serviceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Service", serviceId));
+        List<Master> masters = resolveMasters(salonId, masterId);
+        Map<AvailabilityCache.DayKey, List<int[]>> held = heldMinutes(salonId, masters, null);
+
+        int chunkDays = 1;
+        for (LocalDate chunkFrom = dateFrom; !chunkFrom.isAfter(dateTo); ) {
+            LocalDate chunkTo = chunkFrom.plusDays(chunkDays - 1);
+            if (chunkTo.isAfter(dateTo)) chunkTo = dateTo;
+            Map<AvailabilityCache.DayKey, MasterDay> days = availabilityCache.getAll(masters, chunkFrom, chunkTo);
+
+            for (LocalDate date = chunkFrom; !date.isAfter(chunkTo); date = date.plusDays(1)) {
+                List<AvailableSlotResponse.DaySlots> dateSlots = new ArrayList<>();
+                for (Master master : masters) {
+                    for (DaySlotRuns day : computeMasterSlotRuns(master, service, date, date, days, held)) {
+                        dateSlots.add(toDaySlots(day, service));
+                    }
+                }
+                if (!dateSlots.isEmpty()) {
+                    sink.accept(dateSlots);
+                }
+            }
+            chunkFrom = chunkTo.plusDays(1);
+            chunkDays = Math.min(chunkDays * 2, STREAM_MAX_CHUNK_DAYS);
+        }
+    }
 
-        List<AvailableSlotResponse.DaySlots> allSlots = new ArrayList<>();
+    /**
+     * Same availability as {@link #getAvailableSlots}, as start ranges plus a step instead
+     * of one entry per slot.
+     */
+    public CompactAvailableSlotResponse getAvailableSlotsCompact(UUID salonId, UUID serviceId,
+                                                                 UUID masterId, LocalDate dateFrom,
+                                                                 LocalDate dateTo) {
+        SalonService service = salonServiceRepository.findById(serviceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Service", serviceId));
 
-        for (Master master : masters) {
-            Calendar calendar = calendarRepository.findByMasterId(master.getId()).orElse(null);
-            if (calendar == null) continue;
+        List<CompactAvailableSlotResponse.DayRanges> allRanges = new ArrayList<>();
+        for (DaySlotRuns day : computeSlotRuns(salonId, service, masterId, dateFrom, dateTo)) {
+            List<CompactAvailableSlotResponse.StartRange> ranges = new ArrayList<>(day.runs().length / 2);
+            for (int i = 0; i < day.runs().length; i += 2) {
+                ranges.add(new CompactAvailableSlotResponse.StartRange(
+                        LocalTime.ofSecondOfDay(day.runs()[i] * 60L),
+                        LocalTime.ofSecondOfDay(day.runs()[i + 1] * 60L)));
+            }
+            allRanges.add(new CompactAvailableSlotResponse.DayRanges(
+                    day.date(), day.master().getId().toString(), day.master().getDisplayName(), ranges));
+        }
+        return new CompactAvailableSlotResponse(
+                DEFAULT_SLOT_INCREMENT_MINUTES, service.getDurationMinutes(), allRanges);
+    }
+
+    /**
+     * Returns the earliest {@code limit} slots starting at or after {@code after} across
+     * the salon's masters (or a single master). Days are loaded in small, growing chunks
+     * and the walk stops at the first day that completes the result, so the common
+     * "earliest opening" question only touches a day or two.
+     */
+    public FirstAvailableSlotsResponse findFirstAvailable(UUID salonId, UUID serviceId, UUID masterId,
+                                                          Instant after, int limit) {
+        if (limit < 1 || limit > MAX_FIRST_AVAILABLE_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_FIRST_AVAILABLE_LIMIT);
+        }
+        SalonService service = salonServiceRepository.findById(serviceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Service", serviceId));
+        int slotDuration = service.getDurationMinutes() + service.getBufferMinutes();
 
-            ZoneId zoneId = ZoneId.of(calendar.getTimezone());
+        // Masters without a calendar never work, so drop them before walking any days
+        List<Master> candidates = resolveMasters(salonId, masterId);
+        Map<UUID, ZoneId> zones = new HashMap<>();
+        for (Calendar calendar : calendarRepository.findByMasterIdIn(
+                candidates.stream().map(Master::getId).toList())) {
+            zones.put(calendar.getMasterId(), ZoneId.of(calendar.getTimezone()));
+        }
+        List<Master> masters = candidates.stream()
+                .filter(m -> zones.containsKey(m.getId()))
+                .toList();
+        if (masters.isEmpty()) {
+            return new FirstAvailableSlotsResponse(List.of());
+        }
+        Map<AvailabilityCache.DayKey, List<int[]>> held = heldMinutes(salonId, masters, null);
+
+        LocalDate firstDate = zones.values().stream()
+                .map(zone -> LocalDate.ofInstant(after, zone))
+                .min(Comparator.naturalOrder())
+                .orElseThrow();
+        LocalDate lastDate = firstDate.plusDays(FIRST_AVAILABLE_SEARCH_DAYS - 1);
+
+        List<FirstAvailableSlotsResponse.Slot> found = new ArrayList<>();
+        int chunkDays = 1;
+        for (LocalDate chunkFrom = firstDate; !chunkFrom.isAfter(lastDate); ) {
+            LocalDate chunkTo = chunkFrom.plusDays(chunkDays - 1);
+            if (chunkTo.isAfter(lastDate)) chunkTo = lastDate;
+            Map<AvailabilityCache.DayKey, MasterDay> days = availabilityCache.getAll(masters, chunkFrom, chunkTo);
+
+            for (LocalDate date = chunkFrom; !date.isAfter(chunkTo); date = date.plusDays(1)) {
+                for (Master master : masters) {
+                    AvailabilityCache.DayKey key = new AvailabilityCache.DayKey(master.getId(), date);
+                    MasterDay day = days.get(key);
+                    if (day == null || !day.working()) continue;
+                    ZoneId zoneId = zones.get(master.getId());
+                    int masterSlots = 0;
+                    for (int startMinute : grid(day, service.getBufferMinutes(), held.get(key))
+                            .slotStarts(slotDuration, DEFAULT_SLOT_INCREMENT_MINUTES)) {
+                        LocalTime start = LocalTime.ofSecondOfDay(startMinute * 60L);
+                        Instant startAt = date.atTime(start).atZone(zoneId).toInstant();
+                        if (startAt.isBefore(after)) continue;
+                        found.add(new FirstAvailableSlotsResponse.Slot(
+                                master.getId().toString(),
+                                master.getDisplayName(),
+                                date,
+                                start,
+                                start.plusMinutes(service.getDurationMinutes()),
+                                startAt));
+                        // Later slots of this master cannot beat its first `limit` ones
+                        if (++masterSlots == limit) break;
+                    }
+                }
+                // Every remaining day starts later than the slots found so far
+                if (found.size() >= limit) {
+                    return new FirstAvailableSlotsResponse(found.stream()
+                            .sorted(Comparator.comparing(FirstAvailableSlotsResponse.Slot::startAt))
+                            .limit(limit)
+                            .toList());
+                }
+            }
+            chunkFrom = chunkTo.plusDays(1);
+            chunkDays = Math.min(chunkDays * 2, FIRST_AVAILABLE_MAX_CHUNK_DAYS);
+        }
 
-            for (LocalDate date = dateFrom; !date.isAfter(dateTo); date = date.plusDays(1)) {
-                short dayOfWeek = (short) (date.getDayOfWeek().getValue() - 1); // 0=Mon
+        found.sort(Comparator.comparing(FirstAvailableSlotsResponse.Slot::startAt));
+        return new FirstAvailableSlotsResponse(found);
+    }
 
-                List<AvailabilityRule> rules = availabilityRuleRepository
-                        .findActiveRules(calendar.getId(), dayOfWeek, date);
+    /**
+     * Finds chains of back-to-back appointments for {@code serviceIds} in order: each step
+     * starts when the previous one ends and may be done by a different master. Masters
+     * assigned to a service are eligible for it; a service with no assignments can be done
+     * by any active master, as in {@link #getAvailableSlots}.
+     * <p>
+     * Every candidate start is a single pass over the cached day grids, preferring to keep
+     * the previous step's master. A master who does two steps in a row gets the larger of
+     * the two services' buffers in between, as if the steps were booked one by one.
+     */
+    public ComboSlotResponse findComboChains(UUID salonId, List<UUID> serviceIds,
+                                             LocalDate dateFrom, LocalDate dateTo, int limit) {
+        if (serviceIds.isEmpty() || serviceIds.size() > MAX_COMBO_SERVICES) {
+            throw new IllegalArgumentException("A combo must have between 1 and " + MAX_COMBO_SERVICES + " services");
+        }
+        if (limit < 1 || limit > MAX_FIRST_AVAILABLE_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_FIRST_AVAILABLE_LIMIT);
+        }
+        if (dateTo.isBefore(dateFrom) || dateFrom.plusDays(MAX_COMBO_SEARCH_DAYS).isBefore(dateTo)) {
+            throw new IllegalArgumentException("Range must cover 1 to " + MAX_COMBO_SEARCH_DAYS + " days");
+        }
 
-                if (rules.isEmpty() || rules.stream().noneMatch(AvailabilityRule::isAvailable)) {
-                    continue;
-                }
+        Map<UUID, SalonService> servicesById = new HashMap<>();
+        for (SalonService service : salonServiceRepository.findAllById(new HashSet<>(serviceIds))) {
+            servicesById.put(service.getId(), service);
+        }
+        List<SalonService> steps = new ArrayList<>(serviceIds.size());
+        for (UUID serviceId : serviceIds) {
+            SalonService service = servicesById.get(serviceId);
+            if (service == null) {
+                throw new ResourceNotFoundException("Service", serviceId);
+            }
+            steps.add(service);
+        }
 
-                // Get available time windows from rules
-                List<TimeWindow> windows = rules.stream()
-                        .filter(AvailabilityRule::isAvailable)
-                        .map(r -> new TimeWindow(r.getStartTime(), r.getEndTime()))
-                        .toList();
-
-                // Subtract time blocks
-                Instant dayStart = date.atStartOfDay(zoneId).toInstant();
-                Instant dayEnd = date.plusDays(1).atStartOfDay(zoneId).toInstant();
-                List<TimeBlock> blocks = timeBlockRepository
-                        .findOverlapping(calendar.getId(), dayStart, dayEnd);
-
-                List<TimeWindow> availableWindows = new ArrayList<>(windows);
-                for (TimeBlock block : blocks) {
-                    LocalTime blockStart = block.getStartAt().atZone(zoneId).toLocalTime();
-                    LocalTime blockEnd = block.getEndAt().atZone(zoneId).toLocalTime();
-                    availableWindows = subtractBlock(availableWindows, blockStart, blockEnd);
-                }
+        List<Master> masters = masterRepository.findBySalonIdAndActiveTrue(salonId);
+        Map<UUID, ZoneId> zones = new HashMap<>();
+        for (Calendar calendar : calendarRepository.findByMasterIdIn(masters.stream().map(Master::getId).toList())) {
+            zones.put(calendar.getMasterId(), ZoneId.of(calendar.getTimezone()));
+        }
+        masters = masters.stream().filter(m -> zones.containsKey(m.getId())).toList();
 
-                // Subtract existing confirmed appointments (with buffer)
-                List<Appointment> appointments = appointmentRepository
-                        .findConflicting(master.getId(), dayStart, dayEnd);
-                int bufferMinutes = service.getBufferMinutes();
-                for (Appointment appt : appointments) {
-                    LocalTime apptStart = appt.getStartAt().atZone(zoneId).toLocalTime();
-                    LocalTime apptEnd = appt.getEndAt().atZone(zoneId).toLocalTime();
-                    // Extend blocked window by buffer to ensure master has break between appointments
-                    LocalTime apptEndWithBuffer = apptEnd.plusMinutes(bufferMinutes);
-                    availableWindows = subtractBlock(availableWindows, apptStart, apptEndWithBuffer);
-                }
+        Map<UUID, Set<UUID>> assigned = new HashMap<>();
+        for (MasterService ms : masterServiceRepository.findByServiceIdIn(servicesById.keySet())) {
+            assigned.computeIfAbsent(ms.getServiceId(), id -> new HashSet<>()).add(ms.getMasterId());
+        }
+        boolean[][] eligible = new boolean[steps.size()][masters.size()];
+        for (int i = 0; i < steps.size(); i++) {
+            Set<UUID> allowed = assigned.get(steps.get(i).getId());
+            for (int m = 0; m < masters.size(); m++) {
+                eligible[i][m] = allowed == null || allowed.contains(masters.get(m).getId());
+            }
+        }
 
-                // Generate discrete slots
-                List<AvailableSlotResponse.TimeSlot> slots = new ArrayList<>();
-                for (TimeWindow window : availableWindows) {
-                    LocalTime cursor = window.start();
-                    while (cursor.plusMinutes(slotDuration).compareTo(window.end()) <= 0) {
-                        slots.add(new AvailableSlotResponse.TimeSlot(
-                                cursor, cursor.plusMinutes(service.getDurationMinutes())));
-                        cursor = cursor.plusMinutes(DEFAULT_SLOT_INCREMENT_MINUTES);
+        int chainMinutes = steps.stream().mapToInt(SalonService::getDurationMinutes).sum();
+        Map<AvailabilityCache.DayKey, MasterDay> days = availabilityCache.getAll(masters, dateFrom, dateTo);
+        Map<AvailabilityCache.DayKey, List<int[]>> held = heldMinutes(salonId, masters, null);
+        List<ComboSlotResponse.Chain> chains = new ArrayList<>();
+
+        for (LocalDate date = dateFrom; !date.isAfter(dateTo); date = date.plusDays(1)) {
+            AvailabilityGrid[][] grids = new AvailabilityGrid[steps.size()][masters.size()];
+            for (int m = 0; m < masters.size(); m++) {
+                AvailabilityCache.DayKey key = new AvailabilityCache.DayKey(masters.get(m).getId(), date);
+                MasterDay day = days.get(key);
+                if (day == null || !day.working()) continue;
+                for (int i = 0; i < steps.size(); i++) {
+                    if (eligible[i][m]) {
+                        grids[i][m] = grid(day, steps.get(i).getBufferMinutes(), held.get(key));
                     }
                 }
+            }
 
-                if (!slots.isEmpty()) {
-                    allSlots.add(new AvailableSlotResponse.DaySlots(
-                            date,
+            int[] chosen = new int[steps.size()];
+            int[] starts = new int[steps.size()];
+            for (int start = 0; start + chainMinutes <= AvailabilityGrid.MINUTES_PER_DAY;
+                 start += DEFAULT_SLOT_INCREMENT_MINUTES) {
+                if (!fillChain(steps, grids, start, chosen, starts)) continue;
+
+                List<ComboSlotResponse.Step> chainSteps = new ArrayList<>(steps.size());
+                for (int i = 0; i < steps.size(); i++) {
+                    SalonService service = steps.get(i);
+                    Master master = masters.get(chosen[i]);
+                    LocalTime startTime = LocalTime.ofSecondOfDay(starts[i] * 60L);
+                    chainSteps.add(new ComboSlotResponse.Step(
+                            service.getId().toString(),
+                            service.getName(),
                             master.getId().toString(),
                             master.getDisplayName(),
-                            slots
-                    ));
+                            startTime,
+                            startTime.plusMinutes(service.getDurationMinutes()),
+                            date.atTime(startTime).atZone(zones.get(master.getId())).toInstant()));
+                }
+                chains.add(new ComboSlotResponse.Chain(date, chainSteps));
+                if (chains.size() == limit) {
+                    return new ComboSlotResponse(chains);
                 }
             }
         }
+        return new ComboSlotResponse(chains);
+    }
 
-        return new AvailableSlotResponse(allSlots);
+    // --- Slot Holds ---
+
+    /**
+     * Holds a slot of {@code service} with a master for {@code holderId} (the client) while
+     * they confirm. The slot must still be free, ignoring the holder's own holds.
+     */
+    public SlotHoldResponse holdSlot(UUID salonId, UUID serviceId, UUID masterId, Instant startAt, UUID holderId) {
+        SalonService service = salonServiceRepository.findById(serviceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Service", serviceId));
+        Master master = masterRepository.findById(masterId)
+                .filter(m -> m.getSalonId().equals(salonId))
+                .orElseThrow(() -> new ResourceNotFoundException("Master", masterId));
+        Calendar calendar = calendarRepository.findByMasterId(masterId)
+                .orElseThrow(() -> new ConflictException("Master has no working hours"));
+
+        ZonedDateTime start = startAt.atZone(ZoneId.of(calendar.getTimezone()));
+        LocalDate date = start.toLocalDate();
+        AvailabilityCache.DayKey key = new AvailabilityCache.DayKey(masterId, date);
+        MasterDay day = availabilityCache.getAll(List.of(master), date, date).get(key);
+        int startMinute = start.getHour() * 60 + start.getMinute();
+        int slotDuration = service.getDurationMinutes() + service.getBufferMinutes();
+        if (day == null || !day.working()
+                || !grid(day, service.getBufferMinutes(), heldMinutes(salonId, List.of(master), holderId).get(key))
+                        .isOpen(startMinute, startMinute + slotDuration)) {
+            throw new ConflictException("Time slot is no longer available");
+        }
+
+        SlotHoldService.Hold hold = slotHoldService.hold(salonId, masterId, startAt,
+                startAt.plusSeconds((long) service.getDurationMinutes() * 60), holderId);
+        return new SlotHoldResponse(
+                hold.id().toString(),
+                masterId.toString(),
+                serviceId.toString(),
+                hold.startAt(),
+                hold.endAt(),
+                hold.expiresAt());
+    }
+
+    public void releaseHold(UUID salonId, UUID holdId) {
+        slotHoldService.release(salonId, holdId);
     }
 
     // --- Helper Methods ---
 
+    private static AvailabilityGrid grid(MasterDay day, int bufferMinutes, List<int[]> held) {
+        AvailabilityGrid grid = day.grid(bufferMinutes);
+        if (held != null) {
+            for (int[] range : held) {
+                grid.close(range[0], range[1] + bufferMinutes);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Minute ranges held by anyone but {@code exceptHolder}, per master-day in the master's
+     * time zone. Holds are few and short-lived, so they are applied on top of cached days
+     * rather than cached themselves; calendars are only looked up when something is held.
+     */
+    private Map<AvailabilityCache.DayKey, List<int[]>> heldMinutes(UUID salonId, List<Master> masters,
+                                                                   UUID exceptHolder) {
+        Set<UUID> masterIds = new HashSet<>();
+        for (Master master : masters) {
+            masterIds.add(master.getId());
+        }
+        List<SlotHoldService.Hold> holds = slotHoldService.findActive(salonId).stream()
+                .filter(h -> masterIds.contains(h.masterId()) && !h.heldBy(exceptHolder))
+                .toList();
+        if (holds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<UUID, ZoneId> zones = new HashMap<>();
+        for (Calendar calendar : calendarRepository.findByMasterIdIn(
+                holds.stream().map(SlotHoldService.Hold::masterId).distinct().toList())) {
+            zones.put(calendar.getMasterId(), ZoneId.of(calendar.getTimezone()));
+        }
+        Map<AvailabilityCache.DayKey, List<int[]>> held = new HashMap<>();
+        for (SlotHoldService.Hold hold : holds) {
+            ZoneId zone = zones.get(hold.masterId());
+            if (zone == null) continue;
+            ZonedDateTime start = hold.startAt().atZone(zone);
+            ZonedDateTime end = hold.endAt().atZone(zone);
+            for (LocalDate date = start.toLocalDate(); !date.isAfter(end.toLocalDate()); date = date.plusDays(1)) {
+                int from = date.equals(start.toLocalDate()) ? start.getHour() * 60 + start.getMinute() : 0;
+                int to = date.equals(end.toLocalDate())
+                        ? end.getHour() * 60 + end.getMinute() : AvailabilityGrid.MINUTES_PER_DAY;
+                held.computeIfAbsent(new AvailabilityCache.DayKey(hold.masterId(), date), k -> new ArrayList<>())
+                        .add(new int[]{from, to});
+            }
+        }
+        return held;
+    }
+
+    /**
+     * Slot start runs (see {@link AvailabilityGrid#slotRuns}) of every master-day with at
+     * least one slot, ordered by master then date.
+     */
+    private record DaySlotRuns(LocalDate date, Master master, int[] runs) {}
+
+    /**
+     * Picks a master and start minute for every step of a chain starting at {@code start},
+     * keeping the previous step's master when it is free after the buffer, otherwise taking
+     * the first master free right at the end of the previous step.
+     *
+     * @return false if some step has no free master
+     */
+    private boolean fillChain(List<SalonService> steps, AvailabilityGrid[][] grids, int start,
+                              int[] chosen, int[] starts) {
+        int previousEnd = start;
+        int previous = -1;
+        for (int i = 0; i < steps.size(); i++) {
+            SalonService step = steps.get(i);
+            int pick = -1;
+            int stepStart = previousEnd;
+            if (previous >= 0) {
+                int gap = Math.max(steps.get(i - 1).getBufferMinutes(), step.getBufferMinutes());
+                if (isOpen(grids[i][previous], previousEnd + gap, step)) {
+                    pick = previous;
+                    stepStart = previousEnd + gap;
+                }
+            }
+            for (int m = 0; pick < 0 && m < grids[i].length; m++) {
+                if (m != previous && isOpen(grids[i][m], previousEnd, step)) {
+                    pick = m;
+                }
+            }
+            if (pick < 0) {
+                return false;
+            }
+            chosen[i] = pick;
+            starts[i] = stepStart;
+            previous = pick;
+            previousEnd = stepStart + step.getDurationMinutes();
+        }
+        return true;
+    }
+
+    private boolean isOpen(AvailabilityGrid grid, int stepStart, SalonService step) {
+        int stepEnd = stepStart + step.getDurationMinutes() + step.getBufferMinutes();
+        return grid != null && stepEnd <= AvailabilityGrid.MINUTES_PER_DAY && grid.isOpen(stepStart, stepEnd);
+    }
+
+    private AvailableSlotResponse.DaySlots toDaySlots(DaySlotRuns day, SalonService service) {
+        List<AvailableSlotResponse.TimeSlot> slots = new ArrayList<>();
+        for (int i = 0; i < day.runs().length; i += 2) {
+            for (int minute = day.runs()[i]; minute <= day.runs()[i + 1]; minute += DEFAULT_SLOT_INCREMENT_MINUTES) {
+                LocalTime start = LocalTime.ofSecondOfDay(minute * 60L);
+                slots.add(new AvailableSlotResponse.TimeSlot(
+                        start, start.plusMinutes(service.getDurationMinutes())));
+            }
+        }
+        return new AvailableSlotResponse.DaySlots(
+                day.date(), day.master().getId().toString(), day.master().getDisplayName(), slots);
+    }
+
+    private List<DaySlotRuns> computeSlotRuns(UUID salonId, SalonService service, UUID masterId,
+                                              LocalDate dateFrom, LocalDate dateTo) {
+        List<Master> masters = resolveMasters(salonId, masterId);
+        Map<AvailabilityCache.DayKey, MasterDay> days = availabilityCache.getAll(masters, dateFrom, dateTo);
+        Map<AvailabilityCache.DayKey, List<int[]>> held = heldMinutes(salonId, masters, null);
+
+        List<DaySlotRuns> result = new ArrayList<>();
+        for (Master master : masters) {
+            result.addAll(computeMasterSlotRuns(master, service, dateFrom, dateTo, days, held));
+        }
+        return result;
+    }
+
+    private List<DaySlotRuns> computeMasterSlotRuns(
+            Master master, SalonService service, LocalDate dateFrom, LocalDate dateTo,
+            Map<AvailabilityCache.DayKey, MasterDay> days, Map<AvailabilityCache.DayKey, List<int[]>> held) {
+        int slotDuration = service.getDurationMinutes() + service.getBufferMinutes();
+        List<DaySlotRuns> masterRuns = new ArrayList<>();
+        for (LocalDate date = dateFrom; !date.isAfter(dateTo); date = date.plusDays(1)) {
+            AvailabilityCache.DayKey key = new AvailabilityCache.DayKey(master.getId(), date);
+            MasterDay day = days.get(key);
+            if (day == null || !day.working()) continue;
+            int[] runs = grid(day, service.getBufferMinutes(), held.get(key))
+                    .slotRuns(slotDuration, DEFAULT_SLOT_INCREMENT_MINUTES);
+            if (runs.length > 0) {
+                masterRuns.add(new DaySlotRuns(date, master, runs));
+            }
+        }
+        return masterRuns;
+    }
+
+    private List<Master> resolveMasters(UUID salonId, UUID masterId) {
+        if (masterId != null) {
+            Master master = masterRepository.findById(masterId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Master", masterId));
+            return List.of(master);
+        }
+        return masterRepository.findBySalonIdAndActiveTrue(salonId);
+    }
+
     private Calendar getOrCreateCalendar(UUID masterId) {
         return calendarRepository.findByMasterId(masterId)
                 .orElseGet(() -> {
@@ -215,25 +620,6 @@ public class AvailabilityService {
                 });
     }
 
-    private List<TimeWindow> subtractBlock(List<TimeWindow> windows, LocalTime blockStart, LocalTime blockEnd) {
-        List<TimeWindow> result = new ArrayList<>();
-        for (TimeWindow window : windows) {
-            if (blockEnd.compareTo(window.start()) <= 0 || blockStart.compareTo(window.end()) >= 0) {
-                result.add(window);
-            } else {
-                if (blockStart.isAfter(window.start())) {
-                    result.add(new TimeWindow(window.start(), blockStart));
-                }
-                if (blockEnd.isBefore(window.end())) {
-                    result.add(new TimeWindow(blockEnd, window.end()));
-                }
-            }
-        }
-        return result;
-    }
-
-    private record TimeWindow(LocalTime start, LocalTime end) {}
-
     private AvailabilityRuleDto toRuleDto(AvailabilityRule rule) {
         return new AvailabilityRuleDto(
                 rule.getId().toString(),
@@ -244,6 +630,13 @@ public class AvailabilityService {
         );
     }
 
+    private CalendarChangedEvent toChangedEvent(UUID masterId, TimeBlock block) {
+        // A recurring block touches every day of its series
+        return block.isRecurring()
+                ? new CalendarChangedEvent(this, masterId, null, null)
+                : new CalendarChangedEvent(this, masterId, block.getStartAt(), block.getEndAt());
+    }
+
     private TimeBlockDto toBlockDto(TimeBlock block) {
         return new TimeBlockDto(
                 block.getId().toString(),
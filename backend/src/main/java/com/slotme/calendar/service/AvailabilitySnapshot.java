@@ -0,0 +1,135 @@
+package com.slotme.calendar.service;
+
+import com.slotme.appointment.entity.Appointment;
+import com.slotme.calendar.entity.AvailabilityRule;
+import com.slotme.calendar.entity.Calendar;
+import com.slotme.calendar.entity.TimeBlock;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-memory copy of everything needed to compute availability for a set of masters
+ * over a date range: calendars, rules, time blocks (one-off and expanded recurring
+ * occurrences) and confirmed appointments.
+ * Built once by {@link AvailabilitySnapshotLoader}; per-day grids are then derived
+ * without touching the database.
+ */
+public final class AvailabilitySnapshot {
+
+    private final LocalDate dateFrom;
+    private final LocalDate dateTo;
+    private final Map<UUID, MasterSchedule> schedules;
+
+    AvailabilitySnapshot(LocalDate dateFrom, LocalDate dateTo, Map<UUID, MasterSchedule> schedules) {
+        this.dateFrom = dateFrom;
+        this.dateTo = dateTo;
+        this.schedules = schedules;
+    }
+
+    public LocalDate dateFrom() {
+        return dateFrom;
+    }
+
+    public LocalDate dateTo() {
+        return dateTo;
+    }
+
+    public ZoneId zoneOf(UUID masterId) {
+        MasterSchedule schedule = schedules.get(masterId);
+        return schedule != null ? schedule.zoneId() : null;
+    }
+
+    /**
+     * Returns the availability of a master on {@code date}; masters without a calendar
+     * never work.
+     */
+    public MasterDay day(UUID masterId, LocalDate date) {
+        if (date.isBefore(dateFrom) || date.isAfter(dateTo)) {
+            throw new IllegalArgumentException("Date " + date + " is outside of the loaded range");
+        }
+        MasterSchedule schedule = schedules.get(masterId);
+        if (schedule == null) {
+            return MasterDay.CLOSED;
+        }
+        return schedule.day(date);
+    }
+
+    record MasterSchedule(Calendar calendar,
+                          ZoneId zoneId,
+                          List<AvailabilityRule> rules,
+                          List<TimeBlock> blocks,
+                          List<TimeBlockOccurrenceIndex.Occurrence> recurringBlocks,
+                          List<Appointment> appointments) {
+
+        MasterDay day(LocalDate date) {
+            short dayOfWeek = (short) (date.getDayOfWeek().getValue() - 1); // 0=Mon
+
+            AvailabilityGrid grid = null;
+            for (AvailabilityRule rule : rules) {
+                if (!rule.isAvailable() || rule.getDayOfWeek() != dayOfWeek) continue;
+                if (rule.getValidFrom() != null && rule.getValidFrom().isAfter(date)) continue;
+                if (rule.getValidUntil() != null && rule.getValidUntil().isBefore(date)) continue;
+                if (grid == null) {
+                    grid = new AvailabilityGrid();
+                }
+                grid.open(rule.getStartTime().toSecondOfDay() / 60,
+                        rule.getEndTime().toSecondOfDay() / 60);
+            }
+            if (grid == null) {
+                return MasterDay.CLOSED;
+            }
+
+            Instant dayStart = date.atStartOfDay(zoneId).toInstant();
+            Instant dayEnd = date.plusDays(1).atStartOfDay(zoneId).toInstant();
+
+            for (TimeBlock block : blocks) {
+                if (block.getStartAt().isBefore(dayEnd) && block.getEndAt().isAfter(dayStart)) {
+                    grid.close(toDayMinute(block.getStartAt(), date, false),
+                            toDayMinute(block.getEndAt(), date, true));
+                }
+            }
+            for (TimeBlockOccurrenceIndex.Occurrence block : recurringBlocks) {
+                if (block.startAt().isBefore(dayEnd) && block.endAt().isAfter(dayStart)) {
+                    grid.close(toDayMinute(block.startAt(), date, false),
+                            toDayMinute(block.endAt(), date, true));
+                }
+            }
+
+            int[] busy = new int[0];
+            int count = 0;
+            for (Appointment appt : appointments) {
+                if (appt.getStartAt().isBefore(dayEnd) && appt.getEndAt().isAfter(dayStart)) {
+                    if (count == busy.length) {
+                        busy = Arrays.copyOf(busy, Math.max(8, count * 2));
+                    }
+                    busy[count++] = toDayMinute(appt.getStartAt(), date, false);
+                    busy[count++] = toDayMinute(appt.getEndAt(), date, true);
+                }
+            }
+            return new MasterDay(grid, Arrays.copyOf(busy, count));
+        }
+
+        /**
+         * Converts an instant to a wall-clock minute of {@code date}, clamped to the day so
+         * that blocks and appointments spanning midnight only cover their part of it.
+         */
+        private int toDayMinute(Instant instant, LocalDate date, boolean roundUp) {
+            LocalDateTime local = LocalDateTime.ofInstant(instant, zoneId);
+            if (local.toLocalDate().isBefore(date)) {
+                return 0;
+            }
+            if (local.toLocalDate().isAfter(date)) {
+                return AvailabilityGrid.MINUTES_PER_DAY;
+            }
+            int seconds = local.toLocalTime().toSecondOfDay();
+            return roundUp ? (seconds + 59) / 60 : seconds / 60;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.slotme.calendar.service;
+
+import com.slotme.appointment.entity.Appointment;
+import com.slotme.appointment.repository.AppointmentRepository;
+import com.slotme.calendar.entity.AvailabilityRule;
+import com.slotme.calendar.entity.Calendar;
+import com.slotme.calendar.entity.TimeBlock;
+import com.slotme.calendar.repository.AvailabilityRuleRepository;
+import com.slotme.calendar.repository.CalendarRepository;
+import com.slotme.calendar.repository.TimeBlockRepository;
+import com.slotme.config.StatementCounter;
+import com.slotme.master.entity.Master;
+import io.micrometer.core.instrument.DistributionSummary;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Loads an {@link AvailabilitySnapshot} for any number of masters and days with a
+ * constant number of queries: calendars, rules, one-off time blocks and appointments are
+ * each fetched once for the whole (masters x date range). Recurring blocks come from the
+ * {@link TimeBlockOccurrenceIndex}, which only queries for calendars it has not expanded yet.
+ */
+@Component
+public class AvailabilitySnapshotLoader {
+
+    private final CalendarRepository calendarRepository;
+    private final AvailabilityRuleRepository availabilityRuleRepository;
+    private final TimeBlockRepository timeBlockRepository;
+    private final TimeBlockOccurrenceIndex occurrenceIndex;
+    private final AppointmentRepository appointmentRepository;
+    private final DistributionSummary availabilitySnapshotQueries;
+
+    public AvailabilitySnapshotLoader(CalendarRepository calendarRepository,
+                                      AvailabilityRuleRepository availabilityRuleRepository,
+                                      TimeBlockRepository timeBlockRepository,
+                                      TimeBlockOccurrenceIndex occurrenceIndex,
+                                      AppointmentRepository appointmentRepository,
+                                      DistributionSummary availabilitySnapshotQueries) {
+        this.calendarRepository = calendarRepository;
+        this.availabilityRuleRepository = availabilityRuleRepository;
+        this.timeBlockRepository = timeBlockRepository;
+        this.occurrenceIndex = occurrenceIndex;
+        this.appointmentRepository = appointmentRepository;
+        this.availabilitySnapshotQueries = availabilitySnapshotQueries;
+    }
+
+    public AvailabilitySnapshot load(Collection<Master> masters, LocalDate dateFrom, LocalDate dateTo) {
+        return StatementCounter.count(() -> loadSnapshot(masters, dateFrom, dateTo),
+                availabilitySnapshotQueries::record);
+    }
+
+    private AvailabilitySnapshot loadSnapshot(Collection<Master> masters, LocalDate dateFrom, LocalDate dateTo) {
+        if (masters.isEmpty()) {
+            return new AvailabilitySnapshot(dateFrom, dateTo, Map.of());
+        }
+
+        List<UUID> masterIds = masters.stream().map(Master::getId).toList();
+        List<Calendar> calendars = calendarRepository.findByMasterIdIn(masterIds);
+        if (calendars.isEmpty()) {
+            return new AvailabilitySnapshot(dateFrom, dateTo, Map.of());
+        }
+
+        // Calendars may live in different timezones, so cover the union of their local days
+        Instant rangeStart = null;
+        Instant rangeEnd = null;
+        Map<UUID, ZoneId> zones = new HashMap<>();
+        for (Calendar calendar : calendars) {
+            ZoneId zoneId = ZoneId.of(calendar.getTimezone());
+            zones.put(calendar.getId(), zoneId);
+            Instant start = dateFrom.atStartOfDay(zoneId).toInstant();
+            Instant end = dateTo.plusDays(1).atStartOfDay(zoneId).toInstant();
+            if (rangeStart == null || start.isBefore(rangeStart)) rangeStart = start;
+            if (rangeEnd == null || end.isAfter(rangeEnd)) rangeEnd = end;
+        }
+
+        List<UUID> calendarIds = calendars.stream().map(Calendar::getId).toList();
+        List<AvailabilityRule> rules = availabilityRuleRepository
+                .findActiveRulesInRange(calendarIds, dateFrom, dateTo);
+        List<TimeBlock> blocks = timeBlockRepository
+                .findOneOffOverlappingForCalendars(calendarIds, rangeStart, rangeEnd);
+        TimeBlockOccurrenceIndex.Lookup recurring = occurrenceIndex
+                .findOverlapping(calendars, rangeStart, rangeEnd);
+        List<Appointment> appointments = appointmentRepository
+                .findConflictingForMasters(masterIds, rangeStart, rangeEnd);
+
+        Map<UUID, List<AvailabilityRule>> rulesByCalendar = groupBy(rules, AvailabilityRule::getCalendarId);
+        Map<UUID, List<TimeBlock>> blocksByCalendar = groupBy(blocks, TimeBlock::getCalendarId);
+        Map<UUID, List<Appointment>> appointmentsByMaster = groupBy(appointments, Appointment::getMasterId);
+
+        Map<UUID, AvailabilitySnapshot.MasterSchedule> schedules = new HashMap<>();
+        for (Calendar calendar : calendars) {
+            schedules.put(calendar.getMasterId(), new AvailabilitySnapshot.MasterSchedule(
+                    calendar,
+                    zones.get(calendar.getId()),
+                    rulesByCalendar.getOrDefault(calendar.getId(), List.of()),
+                    blocksByCalendar.getOrDefault(calendar.getId(), List.of()),
+                    recurring.byCalendar().getOrDefault(calendar.getId(), List.of()),
+                    appointmentsByMaster.getOrDefault(calendar.getMasterId(), List.of())));
+        }
+        return new AvailabilitySnapshot(dateFrom, dateTo, schedules);
+    }
+
+    private static <T> Map<UUID, List<T>> groupBy(List<T> items, Function<T, UUID> key) {
+        Map<UUID, List<T>> grouped = new HashMap<>();
+        for (T item : items) {
+            grouped.computeIfAbsent(key.apply(item), k -> new ArrayList<>()).add(item);
+        }
+        return grouped;
+    }
+}
@@ -0,0 +1,317 @@
+package com.slotme.calendar.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.slotme.appointment.dto.AppointmentResponse;
+import com.slotme.appointment.entity.Appointment;
+import com.slotme.appointment.event.AppointmentCancelledEvent;
+import com.slotme.appointment.event.AppointmentCompletedEvent;
+import com.slotme.appointment.event.AppointmentCreatedEvent;
+import com.slotme.appointment.event.AppointmentNoShowEvent;
+import com.slotme.appointment.event.AppointmentRescheduledEvent;
+import com.slotme.appointment.event.AppointmentSeriesCreatedEvent;
+import com.slotme.appointment.service.AppointmentOutboxWriter;
+import com.slotme.appointment.service.AppointmentService;
+import com.slotme.calendar.config.AvailabilityProperties;
+import com.slotme.calendar.entity.Calendar;
+import com.slotme.calendar.entity.CalendarFeedToken;
+import com.slotme.calendar.entity.TimeBlock;
+import com.slotme.calendar.event.CalendarChangedEvent;
+import com.slotme.calendar.repository.CalendarFeedTokenRepository;
+import com.slotme.calendar.repository.CalendarRepository;
+import com.slotme.calendar.repository.TimeBlockRepository;
+import com.slotme.common.exception.ResourceNotFoundException;
+import com.slotme.master.entity.Master;
+import com.slotme.master.repository.MasterRepository;
+import com.slotme.outbox.repository.OutboxRepository;
+import com.slotme.outbox.service.OutboxEventHandler;
+import com.slotme.tenant.TenantContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Per-master iCalendar feeds for phone calendar apps. Each master's feed is rendered once
+ * into a byte buffer and served from cache to every poll; appointment and calendar events
+ * drop that master's entry after commit, so the next poll re-renders it. A poll that hits
+ * the cache costs one token lookup and no appointment query.
+ * <p>
+ * Other instances learn about a change through the outbox: relaying it bumps the feed
+ * version on the master's token row, and a cached feed rendered at a lower version is
+ * rendered again when next polled.
+ */
+@Service
+public class CalendarFeedService implements OutboxEventHandler {
+
+    public static final String CALENDAR_AGGREGATE_TYPE = "master_calendar";
+    public static final String CALENDAR_CHANGED = "calendar.changed";
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final CalendarFeedTokenRepository tokenRepository;
+    private final MasterRepository masterRepository;
+    private final CalendarRepository calendarRepository;
+    private final TimeBlockRepository timeBlockRepository;
+    private final AppointmentService appointmentService;
+    private final AvailabilityProperties.Feed properties;
+    private final TransactionTemplate readTransaction;
+    private final OutboxRepository outboxRepository;
+    private final Cache<UUID, RenderedFeed> cache;
+    private final SecureRandom random = new SecureRandom();
+
+    public CalendarFeedService(CalendarFeedTokenRepository tokenRepository,
+                               MasterRepository masterRepository,
+                               CalendarRepository calendarRepository,
+                               TimeBlockRepository timeBlockRepository,
+                               AppointmentService appointmentService,
+                               AvailabilityProperties availabilityProperties,
+                               OutboxRepository outboxRepository,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry registry) {
+        this.tokenRepository = tokenRepository;
+        this.masterRepository = masterRepository;
+        this.calendarRepository = calendarRepository;
+        this.timeBlockRepository = timeBlockRepository;
+        this.appointmentService = appointmentService;
+        this.properties = availabilityProperties.feed();
+        this.outboxRepository = outboxRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "calendar-feed");
+    }
+
+    public record RenderedFeed(byte[] body, String etag, long version) {}
+
+    // --- Tokens ---
+
+    /**
+     * Issues a new feed token for the master, replacing any previous one. The token is
+     * returned once and only its hash is stored.
+     */
+    @Transactional
+    public String issueToken(UUID masterId) {
+        Master master = masterRepository.findById(masterId)
+                .orElseThrow(() -> new ResourceNotFoundException("Master", masterId));
+        tokenRepository.deleteByMasterId(masterId);
+
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        CalendarFeedToken feedToken = new CalendarFeedToken();
+        feedToken.setTenantId(master.getTenantId());
+        feedToken.setMasterId(masterId);
+        feedToken.setTokenHash(HexFormat.of().formatHex(sha256(token.getBytes(StandardCharsets.UTF_8))));
+        tokenRepository.save(feedToken);
+        return token;
+    }
+
+    @Transactional
+    public void revokeToken(UUID masterId) {
+        // Token rows have no RLS, so check the master is visible to the caller's tenant first
+        masterRepository.findById(masterId)
+                .orElseThrow(() -> new ResourceNotFoundException("Master", masterId));
+        tokenRepository.deleteByMasterId(masterId);
+    }
+
+    // --- Feed ---
+
+    /**
+     * Resolves the token and returns its master's feed. Rendering runs in the token's
+     * tenant in one read-only transaction; concurrent polls of an uncached feed wait for a
+     * single render.
+     */
+    public RenderedFeed getFeed(String token) {
+        CalendarFeedToken feedToken = tokenRepository
+                .findByTokenHash(HexFormat.of().formatHex(sha256(token.getBytes(StandardCharsets.UTF_8))))
+                .orElseThrow(() -> new ResourceNotFoundException("Calendar feed not found"));
+
+        UUID previousTenant = TenantContext.getCurrentTenantId();
+        TenantContext.setCurrentTenant(feedToken.getTenantId());
+        try {
+            UUID masterId = feedToken.getMasterId();
+            long version = feedToken.getFeedVersion();
+            RenderedFeed feed = cache.get(masterId, id -> render(id, version));
+            if (feed.version() < version) {
+                cache.asMap().remove(masterId, feed);
+                feed = cache.get(masterId, id -> render(id, version));
+            }
+            return feed;
+        } finally {
+            if (previousTenant != null) {
+                TenantContext.setCurrentTenant(previousTenant);
+            } else {
+                TenantContext.clear();
+            }
+        }
+    }
+
+    // --- Event Listeners ---
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentCreated(AppointmentCreatedEvent event) {
+        cache.invalidate(event.getAppointment().getMasterId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentSeriesCreated(AppointmentSeriesCreatedEvent event) {
+        cache.invalidateAll(event.getAppointments().stream().map(Appointment::getMasterId).distinct().toList());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentCancelled(AppointmentCancelledEvent event) {
+        cache.invalidate(event.getAppointment().getMasterId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentCompleted(AppointmentCompletedEvent event) {
+        cache.invalidate(event.getAppointment().getMasterId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentNoShow(AppointmentNoShowEvent event) {
+        cache.invalidate(event.getAppointment().getMasterId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentRescheduled(AppointmentRescheduledEvent event) {
+        cache.invalidate(event.getAppointment().getMasterId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCalendarChanged(CalendarChangedEvent event) {
+        cache.invalidate(event.getMasterId());
+    }
+
+    // Appointment changes are already in the outbox; calendar changes are added here
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void recordCalendarChanged(CalendarChangedEvent event) {
+        outboxRepository.append(TenantContext.requireCurrentTenantId(), CALENDAR_AGGREGATE_TYPE,
+                event.getMasterId(), CALENDAR_CHANGED, Map.of());
+    }
+
+    @Override
+    public String name() {
+        return "calendar-feed";
+    }
+
+    @Override
+    public void handle(OutboxRepository.Event event) {
+        switch (event.eventType()) {
+            case AppointmentOutboxWriter.CREATED, AppointmentOutboxWriter.CANCELLED,
+                 AppointmentOutboxWriter.COMPLETED, AppointmentOutboxWriter.NO_SHOW,
+                 AppointmentOutboxWriter.RESCHEDULED ->
+                    tokenRepository.bumpFeedVersionForAppointments(List.of(event.aggregateId()));
+            case AppointmentOutboxWriter.SERIES_CREATED -> {
+                List<UUID> appointmentIds = new ArrayList<>();
+                event.payload().path("appointmentIds").forEach(id -> appointmentIds.add(UUID.fromString(id.asText())));
+                tokenRepository.bumpFeedVersionForAppointments(appointmentIds);
+            }
+            case CALENDAR_CHANGED -> tokenRepository.bumpFeedVersion(event.aggregateId());
+            default -> { }
+        }
+    }
+
+    // --- Helper Methods ---
+
+    private RenderedFeed render(UUID masterId, long version) {
+        return readTransaction.execute(status -> renderFeed(masterId, version));
+    }
+
+    private RenderedFeed renderFeed(UUID masterId, long version) {
+        Master master = masterRepository.findById(masterId)
+                .orElseThrow(() -> new ResourceNotFoundException("Master", masterId));
+        Optional<Calendar> calendar = calendarRepository.findByMasterId(masterId);
+        ZoneId zone = ZoneId.of(calendar.map(Calendar::getTimezone).orElse("UTC"));
+        Instant now = Instant.now();
+        Instant from = now.minus(properties.past());
+        Instant to = now.plus(properties.ahead());
+
+        ICalendarWriter ics = new ICalendarWriter()
+                .line("BEGIN", "VCALENDAR")
+                .line("VERSION", "2.0")
+                .line("PRODID", "-//SlotMe//Master Calendar//EN")
+                .line("CALSCALE", "GREGORIAN")
+                .line("METHOD", "PUBLISH")
+                .text("X-WR-CALNAME", master.getDisplayName())
+                .line("X-WR-TIMEZONE", zone.getId());
+
+        for (AppointmentResponse appointment : appointmentService.listForMasters(List.of(masterId), from, to)) {
+            String summary = Objects.requireNonNullElse(appointment.serviceName(), "Appointment");
+            if (appointment.clientName() != null && !appointment.clientName().isBlank()) {
+                summary += " - " + appointment.clientName();
+            }
+            ics.line("BEGIN", "VEVENT")
+                    .line("UID", appointment.id() + "@slotme")
+                    .time("DTSTAMP", lastModified(appointment.updatedAt(), appointment.createdAt()))
+                    .time("DTSTART", appointment.startAt())
+                    .time("DTEND", appointment.endAt())
+                    .text("SUMMARY", summary);
+            if (appointment.notes() != null && !appointment.notes().isBlank()) {
+                ics.text("DESCRIPTION", appointment.notes());
+            }
+            ics.line("STATUS", "CONFIRMED")
+                    .line("END", "VEVENT");
+        }
+
+        if (calendar.isPresent()) {
+            List<UUID> calendarIds = List.of(calendar.get().getId());
+            for (TimeBlock block : timeBlockRepository.findOneOffOverlappingForCalendars(calendarIds, from, to)) {
+                writeBlock(ics, block, block.getStartAt(), block.getEndAt());
+            }
+            for (TimeBlock block : timeBlockRepository.findRecurringForCalendars(calendarIds)) {
+                TimeBlockOccurrenceIndex.expandBlock(block, zone, from, to,
+                        (start, end) -> writeBlock(ics, block, start, end));
+            }
+        }
+
+        // Nothing in the body depends on the time of rendering, so an unchanged feed keeps its ETag
+        byte[] body = ics.line("END", "VCALENDAR").toByteArray();
+        return new RenderedFeed(body, "\"" + HexFormat.of().formatHex(sha256(body), 0, 16) + "\"", version);
+    }
+
+    private static void writeBlock(ICalendarWriter ics, TimeBlock block, Instant start, Instant end) {
+        // Occurrences of a series share the block id, so the start keeps their UIDs apart
+        String uid = block.isRecurring()
+                ? block.getId() + "-" + start.getEpochSecond() + "@slotme"
+                : block.getId() + "@slotme";
+        ics.line("BEGIN", "VEVENT")
+                .line("UID", uid)
+                .time("DTSTAMP", lastModified(block.getUpdatedAt(), block.getCreatedAt()))
+                .time("DTSTART", start)
+                .time("DTEND", end)
+                .text("SUMMARY", block.getTitle() != null ? block.getTitle() : block.getBlockType())
+                .line("TRANSP", "OPAQUE")
+                .line("END", "VEVENT");
+    }
+
+    private static Instant lastModified(Instant updatedAt, Instant createdAt) {
+        return updatedAt != null ? updatedAt : createdAt;
+    }
+
+    private static byte[] sha256(byte[] value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.slotme.calendar.service;
+
+import com.slotme.appointment.dto.AppointmentResponse;
+import com.slotme.appointment.service.AppointmentService;
+import com.slotme.calendar.dto.AvailabilityRuleDto;
+import com.slotme.calendar.dto.CalendarViewResponse;
+import com.slotme.calendar.dto.TimeBlockDto;
+import com.slotme.calendar.entity.AvailabilityRule;
+import com.slotme.calendar.entity.Calendar;
+import com.slotme.calendar.entity.TimeBlock;
+import com.slotme.calendar.repository.AvailabilityRuleRepository;
+import com.slotme.calendar.repository.CalendarRepository;
+import com.slotme.calendar.repository.CalendarVersionRepository;
+import com.slotme.calendar.repository.TimeBlockRepository;
+import com.slotme.master.entity.Master;
+import com.slotme.master.repository.MasterRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Front desk view of a salon: every active master's working hours, time blocks and
+ * appointments over a few days, loaded with a fixed number of queries however many
+ * masters there are. {@link #currentVersion} is the cheap check that lets clients poll it
+ * conditionally.
+ */
+@Service
+public class CalendarViewService {
+
+    private static final int MAX_VIEW_DAYS = 7;
+
+    private final MasterRepository masterRepository;
+    private final CalendarRepository calendarRepository;
+    private final AvailabilityRuleRepository availabilityRuleRepository;
+    private final TimeBlockRepository timeBlockRepository;
+    private final CalendarVersionRepository calendarVersionRepository;
+    private final AppointmentService appointmentService;
+
+    public CalendarViewService(MasterRepository masterRepository,
+                               CalendarRepository calendarRepository,
+                               AvailabilityRuleRepository availabilityRuleRepository,
+                               TimeBlockRepository timeBlockRepository,
+                               CalendarVersionRepository calendarVersionRepository,
+                               AppointmentService appointmentService) {
+        this.masterRepository = masterRepository;
+        this.calendarRepository = calendarRepository;
+        this.availabilityRuleRepository = availabilityRuleRepository;
+        this.timeBlockRepository = timeBlockRepository;
+        this.calendarVersionRepository = calendarVersionRepository;
+        this.appointmentService = appointmentService;
+    }
+
+    public long currentVersion(UUID salonId) {
+        return calendarVersionRepository.findVersion(salonId);
+    }
+
+    /**
+     * Builds the view of {@code [dateFrom, dateTo]}, each master's days taken in the
+     * timezone of their calendar. {@code version} must be read before calling, so the view
+     * is never older than the version it is reported with.
+     */
+    public CalendarViewResponse getView(UUID salonId, long version, LocalDate dateFrom, LocalDate dateTo) {
+        if (dateTo.isBefore(dateFrom)) {
+            throw new IllegalArgumentException("dateTo must not be before dateFrom");
+        }
+        if (!dateTo.isBefore(dateFrom.plusDays(MAX_VIEW_DAYS))) {
+            throw new IllegalArgumentException("View must not exceed " + MAX_VIEW_DAYS + " days");
+        }
+
+        List<Master> masters = masterRepository.findBySalonIdAndActiveTrue(salonId);
+        if (masters.isEmpty()) {
+            return new CalendarViewResponse(dateFrom, dateTo, version, List.of());
+        }
+        Map<UUID, Calendar> calendarByMaster = new HashMap<>();
+        for (Calendar calendar : calendarRepository.findByMasterIdIn(masters.stream().map(Master::getId).toList())) {
+            calendarByMaster.put(calendar.getMasterId(), calendar);
+        }
+
+        Map<UUID, Instant[]> windows = new HashMap<>();
+        Instant from = null;
+        Instant to = null;
+        for (Master master : masters) {
+            ZoneId zone = zone(calendarByMaster.get(master.getId()));
+            Instant start = dateFrom.atStartOfDay(zone).toInstant();
+            Instant end = dateTo.plusDays(1).atStartOfDay(zone).toInstant();
+            windows.put(master.getId(), new Instant[]{start, end});
+            if (from == null || start.isBefore(from)) from = start;
+            if (to == null || end.isAfter(to)) to = end;
+        }
+
+        List<UUID> calendarIds = calendarByMaster.values().stream().map(Calendar::getId).toList();
+        Map<UUID, List<AvailabilityRuleDto>> rulesByCalendar = new HashMap<>();
+        Map<UUID, List<TimeBlockDto>> blocksByCalendar = new HashMap<>();
+        if (!calendarIds.isEmpty()) {
+            for (AvailabilityRule rule : availabilityRuleRepository.findActiveRulesInRange(calendarIds, dateFrom, dateTo)) {
+                rulesByCalendar.computeIfAbsent(rule.getCalendarId(), id -> new ArrayList<>()).add(toRuleDto(rule));
+            }
+            for (TimeBlock block : timeBlockRepository.findOneOffOverlappingForCalendars(calendarIds, from, to)) {
+                blocksByCalendar.computeIfAbsent(block.getCalendarId(), id -> new ArrayList<>())
+                        .add(toBlockDto(block, block.getStartAt(), block.getEndAt()));
+            }
+            Map<UUID, Calendar> calendarById = new HashMap<>();
+            calendarByMaster.values().forEach(calendar -> calendarById.put(calendar.getId(), calendar));
+            for (TimeBlock block : timeBlockRepository.findRecurringForCalendars(calendarIds)) {
+                Calendar calendar = calendarById.get(block.getCalendarId());
+                Instant[] window = windows.get(calendar.getMasterId());
+                List<TimeBlockDto> blocks = blocksByCalendar.computeIfAbsent(block.getCalendarId(), id -> new ArrayList<>());
+                TimeBlockOccurrenceIndex.expandBlock(block, zone(calendar), window[0], window[1],
+                        (start, end) -> blocks.add(toBlockDto(block, start, end)));
+            }
+        }
+
+        Map<UUID, List<AppointmentResponse>> appointmentsByMaster = new HashMap<>();
+        for (AppointmentResponse appointment : appointmentService.listForMasters(windows.keySet(), from, to)) {
+            appointmentsByMaster.computeIfAbsent(UUID.fromString(appointment.masterId()), id -> new ArrayList<>())
+                    .add(appointment);
+        }
+
+        List<CalendarViewResponse.MasterCalendar> views = new ArrayList<>(masters.size());
+        for (Master master : masters) {
+            Calendar calendar = calendarByMaster.get(master.getId());
+            Instant[] window = windows.get(master.getId());
+            List<TimeBlockDto> blocks = new ArrayList<>(calendar != null
+                    ? blocksByCalendar.getOrDefault(calendar.getId(), List.of())
+                    : List.of());
+            blocks.removeIf(block -> !overlaps(block.startAt(), block.endAt(), window));
+            blocks.sort(Comparator.comparing(TimeBlockDto::startAt));
+            List<AppointmentResponse> appointments = appointmentsByMaster.getOrDefault(master.getId(), List.of())
+                    .stream()
+                    .filter(appointment -> overlaps(appointment.startAt(), appointment.endAt(), window))
+                    .toList();
+            views.add(new CalendarViewResponse.MasterCalendar(
+                    master.getId().toString(),
+                    master.getDisplayName(),
+                    zone(calendar).getId(),
+                    calendar != null ? rulesByCalendar.getOrDefault(calendar.getId(), List.of()) : List.of(),
+                    blocks,
+                    appointments));
+        }
+        return new CalendarViewResponse(dateFrom, dateTo, version, views);
+    }
+
+    // --- Helper Methods ---
+
+    private static boolean overlaps(Instant start, Instant end, Instant[] window) {
+        return start.isBefore(window[1]) && end.isAfter(window[0]);
+    }
+
+    private static ZoneId zone(Calendar calendar) {
+        return ZoneId.of(calendar != null ? calendar.getTimezone() : "UTC");
+    }
+
+    private AvailabilityRuleDto toRuleDto(AvailabilityRule rule) {
+        return new AvailabilityRuleDto(
+                rule.getId().toString(),
+                rule.getDayOfWeek(),
+                rule.getStartTime(),
+                rule.getEndTime(),
+                rule.isAvailable()
+        );
+    }
+
+    private TimeBlockDto toBlockDto(TimeBlock block, Instant startAt, Instant endAt) {
+        return new TimeBlockDto(
+                block.getId().toString(),
+                block.getBlockType(),
+                block.getTitle(),
+                startAt,
+                endAt,
+                block.isRecurring(),
+                block.getRecurrenceRule()
+        );
+    }
+}
@@ -0,0 +1,64 @@
+package com.slotme.calendar.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Minimal RFC 5545 writer: CRLF line endings, lines folded at 75 octets, text values
+ * escaped. Builds straight into a byte buffer.
+ */
+final class ICalendarWriter {
+
+    private static final DateTimeFormatter UTC_DATE_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+
+    ICalendarWriter line(String name, String value) {
+        byte[] bytes = (name + ":" + value).getBytes(StandardCharsets.UTF_8);
+        int start = 0;
+        int limit = MAX_LINE_OCTETS;
+        while (bytes.length - start > limit) {
+            int end = start + limit;
+            // Never split a multi-byte character
+            while ((bytes[end] & 0xC0) == 0x80) end--;
+            out.write(bytes, start, end - start);
+            out.writeBytes(new byte[]{'\r', '\n', ' '});
+            start = end;
+            limit = MAX_LINE_OCTETS - 1;
+        }
+        out.write(bytes, start, bytes.length - start);
+        out.writeBytes(new byte[]{'\r', '\n'});
+        return this;
+    }
+
+    ICalendarWriter text(String name, String value) {
+        return line(name, escape(value));
+    }
+
+    ICalendarWriter time(String name, Instant value) {
+        return line(name, UTC_DATE_TIME.format(value));
+    }
+
+    byte[] toByteArray() {
+        return out.toByteArray();
+    }
+
+    private static String escape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\', ';', ',' -> sb.append('\\').append(c);
+                case '\n' -> sb.append("\\n");
+                case '\r' -> { }
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package com.slotme.calendar.service;
+
+/**
+ * Service-independent availability of one master on one day: the cells opened by
+ * working hours minus time blocks, plus the busy intervals of confirmed appointments
+ * as {@code [start0, end0, start1, end1, ...]} minutes of the day. Appointment buffers
+ * depend on the service being booked, so they are only applied in {@link #grid(int)}.
+ * <p>
+ * Instances are immutable and safe to share through {@link AvailabilityCache}.
+ */
+public record MasterDay(AvailabilityGrid open, int[] busy) {
+
+    public static final MasterDay CLOSED = new MasterDay(null, new int[0]);
+
+    private static final String CLOSED_ENCODING = "closed";
+
+    public boolean working() {
+        return open != null;
+    }
+
+    /**
+     * Returns a fresh grid for a service with the given buffer, or {@code null} when the
+     * master does not work this day.
+     */
+    public AvailabilityGrid grid(int bufferMinutes) {
+        if (open == null) {
+            return null;
+        }
+        AvailabilityGrid grid = open.copy();
+        for (int i = 0; i < busy.length; i += 2) {
+            // Extend blocked window by buffer to ensure master has break between appointments
+            grid.close(busy[i], busy[i + 1] + bufferMinutes);
+        }
+        return grid;
+    }
+
+    String encode() {
+        if (open == null) {
+            return CLOSED_ENCODING;
+        }
+        StringBuilder sb = new StringBuilder();
+        long[] words = open.toWords();
+        for (int i = 0; i < words.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(Long.toUnsignedString(words[i], 16));
+        }
+        sb.append(';');
+        for (int i = 0; i < busy.length; i += 2) {
+            if (i > 0) sb.append(',');
+            sb.append(busy[i]).append('-').append(busy[i + 1]);
+        }
+        return sb.toString();
+    }
+
+    static MasterDay decode(String encoded) {
+        if (CLOSED_ENCODING.equals(encoded)) {
+            return CLOSED;
+        }
+        int separator = encoded.indexOf(';');
+        String[] wordParts = encoded.substring(0, separator).split(",");
+        long[] words = new long[wordParts.length];
+        for (int i = 0; i < wordParts.length; i++) {
+            words[i] = Long.parseUnsignedLong(wordParts[i], 16);
+        }
+
+        String busyPart = encoded.substring(separator + 1);
+        int[] busy = new int[0];
+        if (!busyPart.isEmpty()) {
+            String[] intervals = busyPart.split(",");
+            busy = new int[intervals.length * 2];
+            for (int i = 0; i < intervals.length; i++) {
+                int dash = intervals[i].indexOf('-');
+                busy[i * 2] = Integer.parseInt(intervals[i], 0, dash, 10);
+                busy[i * 2 + 1] = Integer.parseInt(intervals[i], dash + 1, intervals[i].length(), 10);
+            }
+        }
+        return new MasterDay(AvailabilityGrid.fromWords(words), busy);
+    }
+
+    @Override
+    public String toString() {
+        return "MasterDay[" + encode() + "]";
+    }
+}
@@ -0,0 +1,182 @@
+package com.slotme.calendar.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.slotme.appointment.entity.Appointment;
+import com.slotme.appointment.event.AppointmentCancelledEvent;
+import com.slotme.appointment.event.AppointmentCompletedEvent;
+import com.slotme.appointment.event.AppointmentCreatedEvent;
+import com.slotme.appointment.event.AppointmentRescheduledEvent;
+import com.slotme.appointment.event.AppointmentSeriesCreatedEvent;
+import com.slotme.calendar.config.AvailabilityProperties;
+import com.slotme.calendar.dto.OccupancyResponse;
+import com.slotme.calendar.event.CalendarChangedEvent;
+import com.slotme.calendar.repository.OccupancyRepository;
+import com.slotme.master.entity.Master;
+import com.slotme.master.repository.MasterRepository;
+import com.slotme.tenant.TenantContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Salon occupancy heatmap. Buckets come from {@link OccupancyRepository} and are cached
+ * per salon-day; a range request only queries the days that are not cached, with one
+ * statement. Appointment events evict the days they touch, working hour changes evict
+ * everything.
+ */
+@Service
+public class OccupancyService {
+
+    private static final int MAX_RANGE_DAYS = 92;
+    // Events carry instants but cache keys are local dates; this covers every UTC offset
+    private static final Duration ZONE_MARGIN = Duration.ofHours(14);
+
+    private final OccupancyRepository occupancyRepository;
+    private final MasterRepository masterRepository;
+    private final Cache<DayKey, List<OccupancyRepository.Bucket>> cache;
+    private final AtomicLong invalidationSequence = new AtomicLong();
+
+    public OccupancyService(OccupancyRepository occupancyRepository,
+                            MasterRepository masterRepository,
+                            AvailabilityProperties availabilityProperties,
+                            MeterRegistry registry) {
+        this.occupancyRepository = occupancyRepository;
+        this.masterRepository = masterRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(availabilityProperties.occupancy().maximumSize())
+                .expireAfterWrite(availabilityProperties.occupancy().ttl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "occupancy");
+    }
+
+    // Tenant is part of the key so a salon id from another tenant never hits a cached day
+    private record DayKey(UUID tenantId, UUID salonId, LocalDate date) {}
+
+    public OccupancyResponse getOccupancy(UUID salonId, LocalDate dateFrom, LocalDate dateTo) {
+        if (dateTo.isBefore(dateFrom)) {
+            throw new IllegalArgumentException("dateTo must not be before dateFrom");
+        }
+        if (dateFrom.plusDays(MAX_RANGE_DAYS).isBefore(dateTo)) {
+            throw new IllegalArgumentException("Range must not exceed " + MAX_RANGE_DAYS + " days");
+        }
+        UUID tenantId = TenantContext.getCurrentTenantId();
+
+        Map<LocalDate, List<OccupancyRepository.Bucket>> byDate = new HashMap<>();
+        LocalDate missFrom = null;
+        LocalDate missTo = null;
+        for (LocalDate date = dateFrom; !date.isAfter(dateTo); date = date.plusDays(1)) {
+            List<OccupancyRepository.Bucket> cached = cache.getIfPresent(new DayKey(tenantId, salonId, date));
+            if (cached != null) {
+                byDate.put(date, cached);
+            } else {
+                if (missFrom == null) missFrom = date;
+                missTo = date;
+            }
+        }
+
+        if (missFrom != null) {
+            long sequence = invalidationSequence.get();
+            Map<LocalDate, List<OccupancyRepository.Bucket>> loaded = new HashMap<>();
+            for (OccupancyRepository.Bucket bucket : occupancyRepository.findBuckets(salonId, missFrom, missTo)) {
+                loaded.computeIfAbsent(bucket.date(), d -> new ArrayList<>()).add(bucket);
+            }
+            // Skip caching if anything was invalidated while loading, the result may predate it
+            boolean cacheable = sequence == invalidationSequence.get();
+            for (LocalDate date = missFrom; !date.isAfter(missTo); date = date.plusDays(1)) {
+                if (byDate.containsKey(date)) continue;
+                List<OccupancyRepository.Bucket> buckets = List.copyOf(loaded.getOrDefault(date, List.of()));
+                byDate.put(date, buckets);
+                if (cacheable) {
+                    cache.put(new DayKey(tenantId, salonId, date), buckets);
+                }
+            }
+        }
+
+        Map<UUID, List<OccupancyResponse.HourCell>> cells = new HashMap<>();
+        for (LocalDate date = dateFrom; !date.isAfter(dateTo); date = date.plusDays(1)) {
+            for (OccupancyRepository.Bucket bucket : byDate.get(date)) {
+                cells.computeIfAbsent(bucket.masterId(), id -> new ArrayList<>()).add(new OccupancyResponse.HourCell(
+                        bucket.date(), bucket.hour(), bucket.availableMinutes(), bucket.bookedMinutes()));
+            }
+        }
+
+        List<OccupancyResponse.MasterOccupancy> masters = new ArrayList<>();
+        for (Master master : masterRepository.findBySalonIdAndActiveTrue(salonId)) {
+            List<OccupancyResponse.HourCell> hours = cells.getOrDefault(master.getId(), List.of());
+            int available = 0;
+            int booked = 0;
+            for (OccupancyResponse.HourCell cell : hours) {
+                available += cell.availableMinutes();
+                booked += cell.bookedMinutes();
+            }
+            masters.add(new OccupancyResponse.MasterOccupancy(
+                    master.getId().toString(), master.getDisplayName(), available, booked, hours));
+        }
+        return new OccupancyResponse(dateFrom, dateTo, masters);
+    }
+
+    // --- Event Listeners ---
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentCreated(AppointmentCreatedEvent event) {
+        evictAppointment(event.getAppointment());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentSeriesCreated(AppointmentSeriesCreatedEvent event) {
+        event.getAppointments().forEach(this::evictAppointment);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentCancelled(AppointmentCancelledEvent event) {
+        evictAppointment(event.getAppointment());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentCompleted(AppointmentCompletedEvent event) {
+        evictAppointment(event.getAppointment());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentRescheduled(AppointmentRescheduledEvent event) {
+        Appointment appt = event.getAppointment();
+        evictAppointment(appt);
+        if (event.getPreviousStartAt() != null) {
+            evictDays(appt.getSalonId(), event.getPreviousStartAt(),
+                    event.getPreviousStartAt().plusSeconds((long) appt.getDurationMinutes() * 60));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCalendarChanged(CalendarChangedEvent event) {
+        // One-off time blocks are not part of occupancy; working hours can change any day
+        if (event.isWholeCalendar()) {
+            invalidationSequence.incrementAndGet();
+            cache.invalidateAll();
+        }
+    }
+
+    // --- Helper Methods ---
+
+    private void evictAppointment(Appointment appt) {
+        evictDays(appt.getSalonId(), appt.getStartAt(), appt.getEndAt());
+    }
+
+    private void evictDays(UUID salonId, Instant from, Instant to) {
+        invalidationSequence.incrementAndGet();
+        LocalDate first = LocalDate.ofInstant(from.minus(ZONE_MARGIN), ZoneOffset.UTC);
+        LocalDate last = LocalDate.ofInstant(to.plus(ZONE_MARGIN), ZoneOffset.UTC);
+        cache.asMap().keySet().removeIf(key -> key.salonId().equals(salonId)
+                && !key.date().isBefore(first) && !key.date().isAfter(last));
+    }
+}
@@ -0,0 +1,244 @@
+package com.slotme.calendar.service;
+
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Subset of RFC 5545 RRULE used for recurring time blocks: {@code FREQ} (DAILY, WEEKLY,
+ * MONTHLY), {@code INTERVAL}, {@code COUNT}, {@code UNTIL}, {@code BYDAY} (plain weekdays,
+ * DAILY and WEEKLY only) and {@code BYMONTHDAY} (MONTHLY only). Occurrences keep the wall-clock time of the first one in the
+ * calendar's timezone, so a 13:00 lunch break stays at 13:00 across DST changes.
+ */
+public final class RecurrenceRule {
+
+    private static final int MAX_CANDIDATES = 100_000;
+    private static final DateTimeFormatter UNTIL_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UNTIL_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    enum Frequency { DAILY, WEEKLY, MONTHLY }
+
+    private final Frequency frequency;
+    private final int interval;
+    private final Integer count;
+    private final String until;
+    private final EnumSet<DayOfWeek> byDay;
+    private final int[] byMonthDay;
+
+    private RecurrenceRule(Frequency frequency, int interval, Integer count, String until,
+                           EnumSet<DayOfWeek> byDay, int[] byMonthDay) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.count = count;
+        this.until = until;
+        this.byDay = byDay;
+        this.byMonthDay = byMonthDay;
+    }
+
+    /**
+     * Parses an RRULE value, with or without the {@code RRULE:} prefix.
+     *
+     * @throws IllegalArgumentException if the rule is malformed or uses unsupported parts
+     */
+    public static RecurrenceRule parse(String rule) {
+        if (rule == null || rule.isBlank()) {
+            throw new IllegalArgumentException("Recurrence rule is required for recurring blocks");
+        }
+        String value = rule.trim();
+        if (value.regionMatches(true, 0, "RRULE:", 0, 6)) {
+            value = value.substring(6);
+        }
+
+        Frequency frequency = null;
+        int interval = 1;
+        Integer count = null;
+        String until = null;
+        EnumSet<DayOfWeek> byDay = EnumSet.noneOf(DayOfWeek.class);
+        int[] byMonthDay = new int[0];
+
+        for (String part : value.split(";")) {
+            if (part.isBlank()) continue;
+            int eq = part.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Invalid recurrence rule part: " + part);
+            }
+            String name = part.substring(0, eq).trim().toUpperCase(Locale.ROOT);
+            String arg = part.substring(eq + 1).trim().toUpperCase(Locale.ROOT);
+            try {
+                switch (name) {
+                    case "FREQ" -> frequency = parseFrequency(arg);
+                    case "INTERVAL" -> interval = Integer.parseInt(arg);
+                    case "COUNT" -> count = Integer.parseInt(arg);
+                    case "UNTIL" -> until = arg;
+                    case "BYDAY" -> {
+                        for (String day : arg.split(",")) {
+                            byDay.add(parseDay(day));
+                        }
+                    }
+                    case "BYMONTHDAY" -> byMonthDay = Arrays.stream(arg.split(","))
+                            .mapToInt(Integer::parseInt).sorted().toArray();
+                    case "WKST" -> {
+                        // Weeks always start on Monday
+                    }
+                    default -> throw new IllegalArgumentException("Unsupported recurrence rule part: " + name);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid recurrence rule part: " + part);
+            }
+        }
+
+        if (frequency == null) {
+            throw new IllegalArgumentException("Recurrence rule must specify FREQ (DAILY, WEEKLY or MONTHLY)");
+        }
+        if (interval < 1) {
+            throw new IllegalArgumentException("Recurrence INTERVAL must be positive");
+        }
+        if (count != null && count < 1) {
+            throw new IllegalArgumentException("Recurrence COUNT must be positive");
+        }
+        if (!byDay.isEmpty() && frequency == Frequency.MONTHLY) {
+            throw new IllegalArgumentException("Recurrence BYDAY is only supported with FREQ=DAILY or WEEKLY");
+        }
+        if (byMonthDay.length > 0 && frequency != Frequency.MONTHLY) {
+            throw new IllegalArgumentException("Recurrence BYMONTHDAY is only supported with FREQ=MONTHLY");
+        }
+        if (until != null) {
+            parseUntil(until, ZoneOffset.UTC);
+        }
+        return new RecurrenceRule(frequency, interval, count, until, byDay, byMonthDay);
+    }
+
+    /**
+     * Emits every occurrence that overlaps {@code [windowStart, windowEnd)} as
+     * (start, end) instants, in chronological order.
+     */
+    public void expand(ZonedDateTime first, Duration duration, Instant windowStart, Instant windowEnd,
+                       BiConsumer<Instant, Instant> sink) {
+        ZoneId zoneId = first.getZone();
+        LocalDateTime dtStart = first.toLocalDateTime();
+        Instant untilInstant = until != null ? parseUntil(until, zoneId) : null;
+
+        int emitted = 0;
+        int candidates = 0;
+        Iterator<LocalDate> dates = candidateDates(dtStart.toLocalDate());
+        while (dates.hasNext() && candidates++ < MAX_CANDIDATES) {
+            LocalDate date = dates.next();
+            if (date.isBefore(dtStart.toLocalDate())) continue;
+            if (frequency == Frequency.DAILY && !byDay.isEmpty() && !byDay.contains(date.getDayOfWeek())) continue;
+
+            Instant start = date.atTime(dtStart.toLocalTime()).atZone(zoneId).toInstant();
+            if (untilInstant != null && start.isAfter(untilInstant)) return;
+            if (count != null && ++emitted > count) return;
+            if (!start.isBefore(windowEnd)) return;
+
+            Instant end = start.plus(duration);
+            if (end.isAfter(windowStart)) {
+                sink.accept(start, end);
+            }
+        }
+    }
+
+    private Iterator<LocalDate> candidateDates(LocalDate startDate) {
+        return switch (frequency) {
+            case DAILY -> new Iterator<>() {
+                LocalDate next = startDate;
+
+                public boolean hasNext() { return true; }
+
+                public LocalDate next() {
+                    LocalDate current = next;
+                    next = next.plusDays(interval);
+                    return current;
+                }
+            };
+            case WEEKLY -> new Iterator<>() {
+                final List<DayOfWeek> days = byDay.isEmpty()
+                        ? List.of(startDate.getDayOfWeek()) : List.copyOf(byDay);
+                LocalDate weekStart = startDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                int index = 0;
+
+                public boolean hasNext() { return true; }
+
+                public LocalDate next() {
+                    LocalDate current = weekStart.plusDays(days.get(index).getValue() - 1);
+                    if (++index == days.size()) {
+                        index = 0;
+                        weekStart = weekStart.plusWeeks(interval);
+                    }
+                    return current;
+                }
+            };
+            case MONTHLY -> new Iterator<>() {
+                final int[] days = byMonthDay.length == 0 ? new int[]{startDate.getDayOfMonth()} : byMonthDay;
+                YearMonth month = YearMonth.from(startDate);
+                int index = 0;
+                LocalDate pending = advance();
+
+                public boolean hasNext() { return pending != null; }
+
+                public LocalDate next() {
+                    LocalDate current = pending;
+                    pending = advance();
+                    return current;
+                }
+
+                // Skips days that do not exist in a month (e.g. the 31st of April)
+                private LocalDate advance() {
+                    for (int guard = 0; guard < MAX_CANDIDATES; guard++) {
+                        if (index == days.length) {
+                            index = 0;
+                            month = month.plusMonths(interval);
+                        }
+                        int day = days[index++];
+                        int resolved = day > 0 ? day : month.lengthOfMonth() + day + 1;
+                        if (resolved >= 1 && resolved <= month.lengthOfMonth()) {
+                            return month.atDay(resolved);
+                        }
+                    }
+                    return null;
+                }
+            };
+        };
+    }
+
+    private static Frequency parseFrequency(String value) {
+        for (Frequency frequency : Frequency.values()) {
+            if (frequency.name().equals(value)) {
+                return frequency;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported recurrence FREQ: " + value + " (expected DAILY, WEEKLY or MONTHLY)");
+    }
+
+    private static DayOfWeek parseDay(String day) {
+        return switch (day.trim()) {
+            case "MO" -> DayOfWeek.MONDAY;
+            case "TU" -> DayOfWeek.TUESDAY;
+            case "WE" -> DayOfWeek.WEDNESDAY;
+            case "TH" -> DayOfWeek.THURSDAY;
+            case "FR" -> DayOfWeek.FRIDAY;
+            case "SA" -> DayOfWeek.SATURDAY;
+            case "SU" -> DayOfWeek.SUNDAY;
+            default -> throw new IllegalArgumentException("Unsupported BYDAY value: " + day);
+        };
+    }
+
+    private static Instant parseUntil(String until, ZoneId zoneId) {
+        try {
+            if (until.endsWith("Z")) {
+                return LocalDateTime.parse(until.substring(0, until.length() - 1), UNTIL_DATE_TIME)
+                        .toInstant(ZoneOffset.UTC);
+            }
+            if (until.contains("T")) {
+                return LocalDateTime.parse(until, UNTIL_DATE_TIME).atZone(zoneId).toInstant();
+            }
+            // A date-only UNTIL includes the whole day
+            return LocalDate.parse(until, UNTIL_DATE).plusDays(1).atStartOfDay(zoneId).toInstant().minusNanos(1);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid recurrence UNTIL value: " + until);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.slotme.calendar.service;
+
+import com.slotme.appointment.entity.Appointment;
+import com.slotme.appointment.event.AppointmentCreatedEvent;
+import com.slotme.appointment.event.AppointmentRescheduledEvent;
+import com.slotme.appointment.event.AppointmentSeriesCreatedEvent;
+import com.slotme.calendar.config.AvailabilityProperties;
+import com.slotme.common.exception.ConflictException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived reservations of a master's time, taken while a client is deciding so the
+ * slot is not booked through another channel in the meantime. Held time is hidden from
+ * availability and bookings by anyone but the holder are rejected until it expires.
+ * <p>
+ * Holds live in one Redis hash per salon when {@code slotme.availability.holds.redis-enabled}
+ * is set and Redis is configured, otherwise (or when Redis fails) in memory. They are
+ * advisory: the appointments exclusion constraint still decides every booking.
+ */
+@Component
+public class SlotHoldService {
+
+    private static final Logger log = LoggerFactory.getLogger(SlotHoldService.class);
+    private static final String REDIS_KEY_PREFIX = "slot-holds:";
+
+    private final AvailabilityProperties.Holds properties;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Map<UUID, Map<UUID, Hold>> localHolds = new ConcurrentHashMap<>();
+    private final Counter createdCounter;
+    private final Counter rejectedCounter;
+
+    public SlotHoldService(AvailabilityProperties availabilityProperties,
+                           ObjectProvider<RedisTemplate<String, Object>> redisTemplateProvider,
+                           MeterRegistry registry) {
+        this.properties = availabilityProperties.holds();
+        this.redisTemplate = properties.redisEnabled() ? redisTemplateProvider.getIfAvailable() : null;
+        this.createdCounter = Counter.builder("availability.holds")
+                .tag("result", "created")
+                .description("Slot holds taken")
+                .register(registry);
+        this.rejectedCounter = Counter.builder("availability.holds")
+                .tag("result", "rejected")
+                .description("Holds or bookings rejected because the time was held by someone else")
+                .register(registry);
+    }
+
+    public record Hold(
+            UUID id,
+            UUID masterId,
+            Instant startAt,
+            Instant endAt,
+            UUID holderId,
+            Instant createdAt,
+            Instant expiresAt
+    ) {
+        public boolean overlaps(UUID masterId, Instant from, Instant to) {
+            return this.masterId.equals(masterId) && startAt.isBefore(to) && endAt.isAfter(from);
+        }
+
+        public boolean heldBy(UUID holderId) {
+            return holderId != null && holderId.equals(this.holderId);
+        }
+
+        String encode() {
+            return masterId + "|" + startAt.toEpochMilli() + "|" + endAt.toEpochMilli() + "|"
+                    + (holderId != null ? holderId : "") + "|"
+                    + createdAt.toEpochMilli() + "|" + expiresAt.toEpochMilli();
+        }
+
+        static Hold decode(UUID id, String encoded) {
+            String[] parts = encoded.split("\\|", -1);
+            return new Hold(id,
+                    UUID.fromString(parts[0]),
+                    Instant.ofEpochMilli(Long.parseLong(parts[1])),
+                    Instant.ofEpochMilli(Long.parseLong(parts[2])),
+                    parts[3].isEmpty() ? null : UUID.fromString(parts[3]),
+                    Instant.ofEpochMilli(Long.parseLong(parts[4])),
+                    Instant.ofEpochMilli(Long.parseLong(parts[5])));
+        }
+    }
+
+    /**
+     * Returns the unexpired holds of a salon.
+     */
+    public List<Hold> findActive(UUID salonId) {
+        return load(salonId);
+    }
+
+    /**
+     * Holds {@code [startAt, endAt)} of a master for {@code holderId}, replacing the holder's
+     * own overlapping holds. Two instances may write overlapping holds at the same time;
+     * each re-reads after writing and the later one backs off.
+     *
+     * @throws ConflictException if the time is held by someone else
+     */
+    public Hold hold(UUID salonId, UUID masterId, Instant startAt, Instant endAt, UUID holderId) {
+        List<UUID> replaced = new ArrayList<>();
+        for (Hold existing : load(salonId)) {
+            if (!existing.overlaps(masterId, startAt, endAt)) continue;
+            if (!existing.heldBy(holderId)) {
+                rejectedCounter.increment();
+                throw new ConflictException("Time slot is temporarily held by another client");
+            }
+            replaced.add(existing.id());
+        }
+        remove(salonId, replaced);
+
+        Instant now = Instant.now();
+        Hold hold = new Hold(UUID.randomUUID(), masterId, startAt, endAt, holderId,
+                now, now.plus(properties.ttl()));
+        store(salonId, hold);
+
+        for (Hold other : load(salonId)) {
+            if (!other.id().equals(hold.id()) && !other.heldBy(holderId)
+                    && other.overlaps(masterId, startAt, endAt) && precedes(other, hold)) {
+                remove(salonId, List.of(hold.id()));
+                rejectedCounter.increment();
+                throw new ConflictException("Time slot is temporarily held by another client");
+            }
+        }
+        createdCounter.increment();
+        return hold;
+    }
+
+    /**
+     * Rejects a booking of {@code [startAt, endAt)} that overlaps a hold of someone other
+     * than {@code holderId}. The holder's own hold is released once the booking commits.
+     */
+    public void checkNotHeld(UUID salonId, UUID masterId, Instant startAt, Instant endAt, UUID holderId) {
+        for (Hold hold : load(salonId)) {
+            if (hold.overlaps(masterId, startAt, endAt) && !hold.heldBy(holderId)) {
+                rejectedCounter.increment();
+                throw new ConflictException("Time slot is temporarily held by another client");
+            }
+        }
+    }
+
+    /**
+     * {@link #checkNotHeld(UUID, UUID, Instant, Instant, UUID)} for several appointments of
+     * one salon, reading the holds once.
+     */
+    public void checkNotHeld(UUID salonId, Collection<Appointment> appointments, UUID holderId) {
+        List<Hold> holds = load(salonId);
+        for (Appointment appt : appointments) {
+            for (Hold hold : holds) {
+                if (hold.overlaps(appt.getMasterId(), appt.getStartAt(), appt.getEndAt()) && !hold.heldBy(holderId)) {
+                    rejectedCounter.increment();
+                    throw new ConflictException("Time slot is temporarily held by another client");
+                }
+            }
+        }
+    }
+
+    public void release(UUID salonId, UUID holdId) {
+        remove(salonId, List.of(holdId));
+    }
+
+    // --- Event Listeners ---
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentCreated(AppointmentCreatedEvent event) {
+        releaseFor(event.getAppointment());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentRescheduled(AppointmentRescheduledEvent event) {
+        releaseFor(event.getAppointment());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentSeriesCreated(AppointmentSeriesCreatedEvent event) {
+        releaseFor(event.getAppointments());
+    }
+
+    // --- Helper Methods ---
+
+    private void releaseFor(Appointment appt) {
+        releaseFor(List.of(appt));
+    }
+
+    private void releaseFor(List<Appointment> appointments) {
+        UUID salonId = appointments.getFirst().getSalonId();
+        List<UUID> consumed = new ArrayList<>();
+        for (Hold hold : load(salonId)) {
+            for (Appointment appt : appointments) {
+                if (hold.heldBy(appt.getClientId())
+                        && hold.overlaps(appt.getMasterId(), appt.getStartAt(), appt.getEndAt())) {
+                    consumed.add(hold.id());
+                    break;
+                }
+            }
+        }
+        remove(salonId, consumed);
+    }
+
+    private static boolean precedes(Hold a, Hold b) {
+        int byTime = a.createdAt().compareTo(b.createdAt());
+        return byTime != 0 ? byTime < 0 : a.id().compareTo(b.id()) < 0;
+    }
+
+    private List<Hold> load(UUID salonId) {
+        Instant now = Instant.now();
+        if (redisTemplate != null) {
+            try {
+                List<Hold> holds = new ArrayList<>();
+                List<Object> expired = new ArrayList<>();
+                for (Map.Entry<Object, Object> entry :
+                        redisTemplate.opsForHash().entries(REDIS_KEY_PREFIX + salonId).entrySet()) {
+                    Hold hold = Hold.decode(UUID.fromString((String) entry.getKey()), (String) entry.getValue());
+                    if (hold.expiresAt().isAfter(now)) {
+                        holds.add(hold);
+                    } else {
+                        expired.add(entry.getKey());
+                    }
+                }
+                if (!expired.isEmpty()) {
+                    redisTemplate.opsForHash().delete(REDIS_KEY_PREFIX + salonId, expired.toArray());
+                }
+                return holds;
+            } catch (RuntimeException e) {
+                log.warn("Failed to read slot holds for salon {} from Redis", salonId, e);
+            }
+        }
+        Map<UUID, Hold> holds = localHolds.get(salonId);
+        if (holds == null) {
+            return List.of();
+        }
+        holds.values().removeIf(hold -> !hold.expiresAt().isAfter(now));
+        return new ArrayList<>(holds.values());
+    }
+
+    private void store(UUID salonId, Hold hold) {
+        if (redisTemplate != null) {
+            try {
+                String key = REDIS_KEY_PREFIX + salonId;
+                redisTemplate.opsForHash().put(key, hold.id().toString(), hold.encode());
+                // The hash outlives its newest hold; expired fields are dropped on read
+                redisTemplate.expire(key, properties.ttl().plus(Duration.ofMinutes(1)));
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Failed to write slot hold for salon {} to Redis", salonId, e);
+            }
+        }
+        localHolds.computeIfAbsent(salonId, id -> new ConcurrentHashMap<>()).put(hold.id(), hold);
+    }
+
+    private void remove(UUID salonId, Collection<UUID> holdIds) {
+        if (holdIds.isEmpty()) return;
+        if (redisTemplate != null) {
+            try {
+                redisTemplate.opsForHash().delete(REDIS_KEY_PREFIX + salonId,
+                        holdIds.stream().map(UUID::toString).toArray());
+            } catch (RuntimeException e) {
+                log.warn("Failed to remove slot holds for salon {} from Redis", salonId, e);
+            }
+        }
+        Map<UUID, Hold> holds = localHolds.get(salonId);
+        if (holds != null) {
+            holdIds.forEach(holds::remove);
+        }
+    }
+}
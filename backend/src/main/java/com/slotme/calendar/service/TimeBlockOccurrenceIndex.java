@@ -0,0 +1,198 @@
+package com.slotme.calendar.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.slotme.calendar.config.AvailabilityProperties;
+import com.slotme.calendar.entity.Calendar;
+import com.slotme.calendar.entity.TimeBlock;
+import com.slotme.calendar.event.CalendarChangedEvent;
+import com.slotme.calendar.repository.TimeBlockRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Occurrences of recurring time blocks, expanded from their RRULE once per calendar and
+ * kept as sorted arrays so that overlap lookups are a binary search. Each calendar is
+ * expanded from a day ago up to {@code slotme.availability.recurrence.horizon} ahead;
+ * a request past the horizon re-expands the calendar to cover it.
+ */
+@Component
+public class TimeBlockOccurrenceIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TimeBlockOccurrenceIndex.class);
+
+    private final TimeBlockRepository timeBlockRepository;
+    private final Duration horizon;
+    private final Cache<UUID, CalendarOccurrences> index;
+
+    public TimeBlockOccurrenceIndex(TimeBlockRepository timeBlockRepository,
+                                    AvailabilityProperties availabilityProperties,
+                                    MeterRegistry registry) {
+        this.timeBlockRepository = timeBlockRepository;
+        this.horizon = availabilityProperties.recurrence().horizon();
+        // Expiry bounds how long another instance's change can go unnoticed
+        this.index = Caffeine.newBuilder()
+                .maximumSize(availabilityProperties.recurrence().maximumSize())
+                .expireAfterWrite(availabilityProperties.recurrence().indexTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, index, "time-block-occurrences");
+    }
+
+    public record Occurrence(Instant startAt, Instant endAt) {}
+
+    /**
+     * Occurrences overlapping the requested window per calendar id.
+     */
+    public record Lookup(Map<UUID, List<Occurrence>> byCalendar) {}
+
+    /**
+     * Returns the occurrences of every calendar overlapping {@code [from, to)}. Calendars
+     * that are not indexed over the window are expanded together with a single query.
+     */
+    public Lookup findOverlapping(Collection<Calendar> calendars, Instant from, Instant to) {
+        Map<UUID, CalendarOccurrences> entries = new HashMap<>();
+        List<Calendar> missing = new ArrayList<>();
+        for (Calendar calendar : calendars) {
+            CalendarOccurrences entry = index.getIfPresent(calendar.getId());
+            if (entry != null && entry.covers(from, to)) {
+                entries.put(calendar.getId(), entry);
+            } else {
+                missing.add(calendar);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Instant now = Instant.now();
+            Instant coverFrom = min(from, now.minus(Duration.ofDays(1)));
+            Instant coverTo = max(to, now.plus(horizon));
+
+            Map<UUID, List<TimeBlock>> blocksByCalendar = new HashMap<>();
+            for (TimeBlock block : timeBlockRepository.findRecurringForCalendars(
+                    missing.stream().map(Calendar::getId).toList())) {
+                blocksByCalendar.computeIfAbsent(block.getCalendarId(), id -> new ArrayList<>()).add(block);
+            }
+            for (Calendar calendar : missing) {
+                CalendarOccurrences entry = expand(calendar,
+                        blocksByCalendar.getOrDefault(calendar.getId(), List.of()), coverFrom, coverTo);
+                index.put(calendar.getId(), entry);
+                entries.put(calendar.getId(), entry);
+            }
+        }
+
+        Map<UUID, List<Occurrence>> byCalendar = new HashMap<>();
+        long fromSecond = from.getEpochSecond();
+        long toSecond = to.getEpochSecond();
+        entries.forEach((calendarId, entry) -> {
+            List<Occurrence> overlapping = entry.overlapping(fromSecond, toSecond);
+            if (!overlapping.isEmpty()) {
+                byCalendar.put(calendarId, overlapping);
+            }
+        });
+        return new Lookup(byCalendar);
+    }
+
+    public void evictMaster(UUID masterId) {
+        index.asMap().values().removeIf(entry -> entry.masterId().equals(masterId));
+    }
+
+    // --- Event Listeners ---
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCalendarChanged(CalendarChangedEvent event) {
+        if (event.isWholeCalendar()) {
+            evictMaster(event.getMasterId());
+        }
+    }
+
+    // --- Helper Methods ---
+
+    private CalendarOccurrences expand(Calendar calendar, List<TimeBlock> blocks, Instant from, Instant to) {
+        ZoneId zoneId = ZoneId.of(calendar.getTimezone());
+        List<long[]> occurrences = new ArrayList<>();
+        for (TimeBlock block : blocks) {
+            expandBlock(block, zoneId, from, to, (start, end) ->
+                    occurrences.add(new long[]{start.getEpochSecond(), end.getEpochSecond()}));
+        }
+        occurrences.sort(Comparator.comparingLong(o -> o[0]));
+
+        long[] starts = new long[occurrences.size()];
+        long[] ends = new long[occurrences.size()];
+        long maxDuration = 0;
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = occurrences.get(i)[0];
+            ends[i] = occurrences.get(i)[1];
+            maxDuration = Math.max(maxDuration, ends[i] - starts[i]);
+        }
+        return new CalendarOccurrences(calendar.getMasterId(), from, to, starts, ends, maxDuration);
+    }
+
+    /**
+     * Emits the occurrences of a recurring block overlapping {@code [from, to)}, expanded in
+     * the calendar's zone, in chronological order.
+     */
+    static void expandBlock(TimeBlock block, ZoneId zoneId, Instant from, Instant to,
+                            BiConsumer<Instant, Instant> sink) {
+        RecurrenceRule rule;
+        try {
+            rule = RecurrenceRule.parse(block.getRecurrenceRule());
+        } catch (IllegalArgumentException e) {
+            // Rules are validated on save; anything older is treated as a one-off block
+            log.warn("Invalid recurrence rule on time block {}: {}", block.getId(), e.getMessage());
+            if (block.getStartAt().isBefore(to) && block.getEndAt().isAfter(from)) {
+                sink.accept(block.getStartAt(), block.getEndAt());
+            }
+            return;
+        }
+        rule.expand(block.getStartAt().atZone(zoneId), Duration.between(block.getStartAt(), block.getEndAt()),
+                from, to, sink);
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static Instant max(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    /**
+     * Occurrences sorted by start, as epoch seconds. Any occurrence overlapping a window
+     * starts at most {@code maxDuration} before it, which bounds the scan.
+     */
+    private record CalendarOccurrences(UUID masterId, Instant coveredFrom, Instant coveredTo,
+                                       long[] starts, long[] ends, long maxDuration) {
+
+        boolean covers(Instant from, Instant to) {
+            return !from.isBefore(coveredFrom) && !to.isAfter(coveredTo);
+        }
+
+        List<Occurrence> overlapping(long from, long to) {
+            int i = Arrays.binarySearch(starts, from - maxDuration);
+            if (i < 0) {
+                i = -i - 1;
+            }
+            // binarySearch may land on any of several equal starts
+            while (i > 0 && starts[i - 1] >= from - maxDuration) {
+                i--;
+            }
+            List<Occurrence> result = new ArrayList<>();
+            for (; i < starts.length && starts[i] < to; i++) {
+                if (ends[i] > from) {
+                    result.add(new Occurrence(Instant.ofEpochSecond(starts[i]), Instant.ofEpochSecond(ends[i])));
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package com.slotme.client.service;
 
-import com.slotme.appointment.entity.Appointment;
-import com.slotme.appointment.repository.AppointmentRepository;
+import com.slotme.appointment.entity.AppointmentRecord;
+import com.slotme.appointment.repository.AppointmentRecordRepository;
 import com.slotme.client.dto.ClientProfileResponse;
 import com.slotme.client.entity.Client;
 import com.slotme.client.repository.ClientRepository;
@@ -21,12 +21,12 @@ import java.util.stream.Collectors;
 public class ClientEnrichmentService {
 
     private final ClientRepository clientRepository;
-    private final AppointmentRepository appointmentRepository;
+    private final AppointmentRecordRepository recordRepository;
 
     public ClientEnrichmentService(ClientRepository clientRepository,
-                                   AppointmentRepository appointmentRepository) {
+                                   AppointmentRecordRepository recordRepository) {
         this.clientRepository = clientRepository;
-        this.appointmentRepository = appointmentRepository;
+        this.recordRepository = recordRepository;
     }
 
     public ClientProfileResponse getEnrichedProfile(UUID clientId) {
@@ -40,7 +40,8 @@ public class ClientEnrichmentService {
         Client client = clientRepository.findById(clientId)
                 .orElseThrow(() -> new ResourceNotFoundException("Client", clientId));
 
-        List<Appointment> appointments = appointmentRepository.findByClientIdOrderByStartAtDesc(clientId);
+        // Archived appointments still count towards the client's visits and spend
+        List<AppointmentRecord> appointments = recordRepository.findByClientIdOrderByStartAtDesc(clientId);
 
         int totalVisits = 0;
         BigDecimal totalSpent = BigDecimal.ZERO;
@@ -49,9 +50,9 @@ public class ClientEnrichmentService {
 
         Map<UUID, Long> masterCounts = appointments.stream()
                 .filter(a -> "completed".equals(a.getStatus()))
-                .collect(Collectors.groupingBy(Appointment::getMasterId, Collectors.counting()));
+                .collect(Collectors.groupingBy(AppointmentRecord::getMasterId, Collectors.counting()));
 
-        for (Appointment appt : appointments) {
+        for (AppointmentRecord appt : appointments) {
             if ("completed".equals(appt.getStatus())) {
                 totalVisits++;
                 if (appt.getPrice() != null) {
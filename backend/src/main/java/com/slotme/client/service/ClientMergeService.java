@@ -1,6 +1,7 @@
 package com.slotme.client.service;
 
 import com.slotme.appointment.entity.Appointment;
+import com.slotme.appointment.repository.AppointmentArchiveRepository;
 import com.slotme.appointment.repository.AppointmentRepository;
 import com.slotme.client.entity.Client;
 import com.slotme.client.entity.ClientNote;
@@ -23,15 +24,18 @@ public class ClientMergeService {
     private final ClientRepository clientRepository;
     private final ClientNoteRepository noteRepository;
     private final AppointmentRepository appointmentRepository;
+    private final AppointmentArchiveRepository archiveRepository;
     private final ClientEnrichmentService enrichmentService;
 
     public ClientMergeService(ClientRepository clientRepository,
                               ClientNoteRepository noteRepository,
                               AppointmentRepository appointmentRepository,
+                              AppointmentArchiveRepository archiveRepository,
                               ClientEnrichmentService enrichmentService) {
         this.clientRepository = clientRepository;
         this.noteRepository = noteRepository;
         this.appointmentRepository = appointmentRepository;
+        this.archiveRepository = archiveRepository;
         this.enrichmentService = enrichmentService;
     }
 
@@ -48,13 +52,14 @@ public class ClientMergeService {
 
         log.info("Merging client {} into {}", secondaryId, primaryId);
 
-        // Move appointments from secondary to primary
+        // Move appointments from secondary to primary, archived ones included
         List<Appointment> secondaryAppointments =
                 appointmentRepository.findByClientIdOrderByStartAtDesc(secondaryId);
         for (Appointment appt : secondaryAppointments) {
             appt.setClientId(primaryId);
         }
         appointmentRepository.saveAll(secondaryAppointments);
+        archiveRepository.reassignClient(secondaryId, primaryId);
 
         // Move notes from secondary to primary
         List<ClientNote> secondaryNotes =
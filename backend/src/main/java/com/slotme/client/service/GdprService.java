@@ -1,6 +1,9 @@
 package com.slotme.client.service;
 
 import com.slotme.appointment.entity.Appointment;
+import com.slotme.appointment.entity.AppointmentRecord;
+import com.slotme.appointment.repository.AppointmentArchiveRepository;
+import com.slotme.appointment.repository.AppointmentRecordRepository;
 import com.slotme.appointment.repository.AppointmentRepository;
 import com.slotme.client.entity.Client;
 import com.slotme.client.entity.ClientNote;
@@ -29,15 +32,21 @@ public class GdprService {
     private final ClientRepository clientRepository;
     private final ClientNoteRepository noteRepository;
     private final AppointmentRepository appointmentRepository;
+    private final AppointmentRecordRepository recordRepository;
+    private final AppointmentArchiveRepository archiveRepository;
     private final NotificationRepository notificationRepository;
 
     public GdprService(ClientRepository clientRepository,
                        ClientNoteRepository noteRepository,
                        AppointmentRepository appointmentRepository,
+                       AppointmentRecordRepository recordRepository,
+                       AppointmentArchiveRepository archiveRepository,
                        NotificationRepository notificationRepository) {
         this.clientRepository = clientRepository;
         this.noteRepository = noteRepository;
         this.appointmentRepository = appointmentRepository;
+        this.recordRepository = recordRepository;
+        this.archiveRepository = archiveRepository;
         this.notificationRepository = notificationRepository;
     }
 
@@ -63,8 +72,8 @@ public class GdprService {
         personalData.put("created_at", client.getCreatedAt());
         export.put("personal_data", personalData);
 
-        // Appointments
-        List<Appointment> appointments = appointmentRepository.findByClientIdOrderByStartAtDesc(clientId);
+        // Appointments, archived ones included
+        List<AppointmentRecord> appointments = recordRepository.findByClientIdOrderByStartAtDesc(clientId);
         List<Map<String, Object>> apptExport = appointments.stream().map(a -> {
             Map<String, Object> m = new LinkedHashMap<>();
             m.put("id", a.getId().toString());
@@ -139,6 +148,7 @@ public class GdprService {
             appt.setInternalNotes(null);
         }
         appointmentRepository.saveAll(appointments);
+        archiveRepository.clearNotesForClient(clientId);
 
         log.info("GDPR anonymization completed for client {}", clientId);
     }
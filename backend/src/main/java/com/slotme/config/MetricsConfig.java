@@ -1,8 +1,11 @@
 package com.slotme.config;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -36,4 +39,16 @@ public class MetricsConfig {
                 .description("AI conversation processing duration")
                 .register(registry);
     }
+
+    @Bean
+    public DistributionSummary availabilitySnapshotQueries(MeterRegistry registry) {
+        return DistributionSummary.builder("availability.snapshot.queries")
+                .description("Database queries issued per availability snapshot load")
+                .register(registry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCounter());
+    }
 }
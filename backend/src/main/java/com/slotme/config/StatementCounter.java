@@ -0,0 +1,45 @@
+package com.slotme.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a piece of
+ * work runs, so query-count metrics report what was really sent to the database.
+ */
+public final class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = CURRENT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    /**
+     * Runs {@code work} and reports the statements it prepared; statements of nested
+     * counted work also count towards the enclosing one.
+     */
+    public static <T> T count(Supplier<T> work, IntConsumer statements) {
+        int[] previous = CURRENT.get();
+        int[] count = {0};
+        CURRENT.set(count);
+        try {
+            return work.get();
+        } finally {
+            if (previous != null) {
+                previous[0] += count[0];
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+            statements.accept(count[0]);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.slotme.conversation.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "slotme.conversation")
+public record ConversationProperties(
+        Mailbox mailbox
+) {
+    public ConversationProperties {
+        if (mailbox == null) mailbox = new Mailbox(null, null, 0, 0);
+    }
+
+    public record Mailbox(
+            Duration debounce,
+            Duration maxDelay,
+            int maxMessages,
+            int maxConversations
+    ) {
+        public Mailbox {
+            if (debounce == null) debounce = Duration.ofSeconds(2);
+            if (maxDelay == null) maxDelay = Duration.ofSeconds(10);
+            if (maxMessages <= 0) maxMessages = 20;
+            if (maxConversations <= 0) maxConversations = 10_000;
+        }
+    }
+}
@@ -1,28 +1,41 @@
 package com.slotme.conversation.service;
 
+import com.slotme.appointment.dto.BookComboRequest;
 import com.slotme.appointment.dto.CancelRequest;
 import com.slotme.appointment.dto.CreateAppointmentRequest;
 import com.slotme.appointment.dto.RescheduleRequest;
 import com.slotme.appointment.entity.Appointment;
 import com.slotme.appointment.repository.AppointmentRepository;
+import com.slotme.appointment.service.AppointmentChangeSource;
 import com.slotme.appointment.service.AppointmentService;
 import com.slotme.calendar.service.AvailabilityService;
-import com.slotme.calendar.dto.AvailableSlotResponse;
+import com.slotme.calendar.dto.ComboSlotResponse;
+import com.slotme.calendar.dto.CompactAvailableSlotResponse;
+import com.slotme.calendar.dto.FirstAvailableSlotsResponse;
 import com.slotme.master.entity.Master;
 import com.slotme.master.repository.MasterRepository;
 import com.slotme.service.entity.SalonService;
 import com.slotme.service.repository.SalonServiceRepository;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.ai.model.function.FunctionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * Creates FunctionCallback instances for Spring AI function calling.
  * Each tool is registered as a FunctionCallback with the ChatClient.
+ * <p>
+ * Tools run while no transaction is open, so each one takes its own: lookups share one
+ * read-only transaction, bookings use the transaction of the appointment service. Only
+ * lookups count as connection hold time; bookings are timed separately because their
+ * transactions, and retries, are opened inside the appointment service.
  */
 public class BookingToolProvider {
 
@@ -33,13 +46,19 @@ public class BookingToolProvider {
     private final AppointmentRepository appointmentRepository;
     private final SalonServiceRepository salonServiceRepository;
     private final MasterRepository masterRepository;
+    private final TransactionTemplate readTransaction;
+    private final Timer readToolTimer;
+    private final Timer writeToolTimer;
 
     public BookingToolProvider(UUID salonId, UUID clientId,
                                AvailabilityService availabilityService,
                                AppointmentService appointmentService,
                                AppointmentRepository appointmentRepository,
                                SalonServiceRepository salonServiceRepository,
-                               MasterRepository masterRepository) {
+                               MasterRepository masterRepository,
+                               TransactionTemplate readTransaction,
+                               Timer readToolTimer,
+                               Timer writeToolTimer) {
         this.salonId = salonId;
         this.clientId = clientId;
         this.availabilityService = availabilityService;
@@ -47,11 +66,17 @@ public class BookingToolProvider {
         this.appointmentRepository = appointmentRepository;
         this.salonServiceRepository = salonServiceRepository;
         this.masterRepository = masterRepository;
+        this.readTransaction = readTransaction;
+        this.readToolTimer = readToolTimer;
+        this.writeToolTimer = writeToolTimer;
     }
 
     public record CheckAvailabilityInput(String serviceName, String masterName,
                                           String dateFrom, String dateTo) {}
+    public record FindEarliestInput(String serviceName, String masterName, String after, Integer limit) {}
     public record BookAppointmentInput(String serviceId, String masterId, String startTime) {}
+    public record FindComboInput(List<String> serviceNames, String date) {}
+    public record BookComboInput(List<BookAppointmentInput> steps) {}
     public record CancelAppointmentInput(String appointmentId) {}
     public record RescheduleInput(String appointmentId, String newStartTime) {}
     public record EscalateInput(String reason) {}
@@ -59,30 +84,50 @@ public class BookingToolProvider {
     public FunctionCallback[] buildCallbacks() {
         return new FunctionCallback[]{
                 FunctionCallback.builder()
-                        .function("check_availability", (CheckAvailabilityInput input) -> doCheckAvailability(input))
+                        .function("check_availability", (CheckAvailabilityInput input) -> read(() -> doCheckAvailability(input)))
                         .description("Check available time slots for a service and optional master on given dates")
                         .inputType(CheckAvailabilityInput.class)
                         .build(),
                 FunctionCallback.builder()
-                        .function("book_appointment", (BookAppointmentInput input) -> doBookAppointment(input))
+                        .function("find_earliest_slots", (FindEarliestInput input) -> read(() -> doFindEarliestSlots(input)))
+                        .description("Find the earliest available time slots for a service, optionally with a specific master and after a given ISO-8601 time")
+                        .inputType(FindEarliestInput.class)
+                        .build(),
+                FunctionCallback.builder()
+                        .function("hold_slot", (BookAppointmentInput input) -> read(() -> doHoldSlot(input)))
+                        .description("Hold a slot for the client for a few minutes while they confirm, so nobody else can book it; book it afterwards with book_appointment using the same details")
+                        .inputType(BookAppointmentInput.class)
+                        .build(),
+                FunctionCallback.builder()
+                        .function("book_appointment", (BookAppointmentInput input) -> write(() -> doBookAppointment(input)))
                         .description("Book an appointment for the client")
                         .inputType(BookAppointmentInput.class)
                         .build(),
                 FunctionCallback.builder()
-                        .function("list_services", () -> doListServices())
+                        .function("find_combo_slots", (FindComboInput input) -> read(() -> doFindComboSlots(input)))
+                        .description("Find times when several services can be done back-to-back in the given order on a date, possibly with different masters")
+                        .inputType(FindComboInput.class)
+                        .build(),
+                FunctionCallback.builder()
+                        .function("book_combo", (BookComboInput input) -> write(() -> doBookCombo(input)))
+                        .description("Book all steps of a combo found by find_combo_slots at once; either every step is booked or none")
+                        .inputType(BookComboInput.class)
+                        .build(),
+                FunctionCallback.builder()
+                        .function("list_services", () -> read(() -> doListServices()))
                         .description("List available services and prices at the salon")
                         .build(),
                 FunctionCallback.builder()
-                        .function("get_client_appointments", () -> doGetClientAppointments())
+                        .function("get_client_appointments", () -> read(() -> doGetClientAppointments()))
                         .description("Get the client's upcoming confirmed appointments")
                         .build(),
                 FunctionCallback.builder()
-                        .function("cancel_appointment", (CancelAppointmentInput input) -> doCancelAppointment(input))
+                        .function("cancel_appointment", (CancelAppointmentInput input) -> write(() -> doCancelAppointment(input)))
                         .description("Cancel an existing appointment")
                         .inputType(CancelAppointmentInput.class)
                         .build(),
                 FunctionCallback.builder()
-                        .function("reschedule_appointment", (RescheduleInput input) -> doRescheduleAppointment(input))
+                        .function("reschedule_appointment", (RescheduleInput input) -> write(() -> doRescheduleAppointment(input)))
                         .description("Reschedule an appointment to a new time")
                         .inputType(RescheduleInput.class)
                         .build(),
@@ -94,49 +139,90 @@ public class BookingToolProvider {
         };
     }
 
+    private String read(Supplier<String> tool) {
+        return readToolTimer.record(() -> readTransaction.execute(status -> tool.get()));
+    }
+
+    // Not wrapped: bookings are retried by the appointment service, each try in a new transaction
+    private String write(Supplier<String> tool) {
+        return writeToolTimer.record(() -> AppointmentChangeSource.callAs(AppointmentChangeSource.AI, tool));
+    }
+
     private String doCheckAvailability(CheckAvailabilityInput input) {
         List<SalonService> services = salonServiceRepository.findBySalonIdAndActiveTrue(salonId);
-        SalonService service = services.stream()
-                .filter(s -> s.getName().equalsIgnoreCase(input.serviceName()))
-                .findFirst()
-                .orElse(null);
+        SalonService service = findService(services, input.serviceName());
         if (service == null) {
-            return "Service '" + input.serviceName() + "' not found. Available: " +
-                    services.stream().map(SalonService::getName).collect(Collectors.joining(", "));
-        }
-
-        UUID masterId = null;
-        if (input.masterName() != null && !input.masterName().isBlank()) {
-            List<Master> masters = masterRepository.findBySalonIdAndActiveTrue(salonId);
-            masterId = masters.stream()
-                    .filter(m -> m.getDisplayName().equalsIgnoreCase(input.masterName()))
-                    .findFirst()
-                    .map(Master::getId)
-                    .orElse(null);
+            return serviceNotFound(services, input.serviceName());
         }
+        UUID masterId = findMasterId(input.masterName());
 
         LocalDate from = LocalDate.parse(input.dateFrom());
         LocalDate to = (input.dateTo() != null && !input.dateTo().isBlank())
                 ? LocalDate.parse(input.dateTo()) : from;
 
-        AvailableSlotResponse response = availabilityService.getAvailableSlots(
+        CompactAvailableSlotResponse response = availabilityService.getAvailableSlotsCompact(
                 salonId, service.getId(), masterId, from, to);
 
         if (response.slots().isEmpty()) {
             return "No available slots for " + input.serviceName() + " between " + from + " and " + to;
         }
 
-        StringBuilder sb = new StringBuilder("Available slots:\n");
-        for (AvailableSlotResponse.DaySlots day : response.slots()) {
+        // One line per range keeps a busy month within a few hundred tokens
+        StringBuilder sb = new StringBuilder("Available start times (")
+                .append(response.durationMinutes()).append(" min, every ")
+                .append(response.stepMinutes()).append(" min within each range):\n");
+        for (CompactAvailableSlotResponse.DayRanges day : response.slots()) {
             sb.append(day.date()).append(" - ").append(day.masterName())
-                    .append(" (master_id: ").append(day.masterId()).append("):\n");
-            for (AvailableSlotResponse.TimeSlot slot : day.availableTimes()) {
-                sb.append("  ").append(slot.start()).append("-").append(slot.end()).append("\n");
+                    .append(" (master_id: ").append(day.masterId()).append("):");
+            for (CompactAvailableSlotResponse.StartRange range : day.ranges()) {
+                sb.append(" ").append(range.first());
+                if (!range.last().equals(range.first())) {
+                    sb.append("-").append(range.last());
+                }
             }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    private String doFindEarliestSlots(FindEarliestInput input) {
+        List<SalonService> services = salonServiceRepository.findBySalonIdAndActiveTrue(salonId);
+        SalonService service = findService(services, input.serviceName());
+        if (service == null) {
+            return serviceNotFound(services, input.serviceName());
+        }
+        UUID masterId = findMasterId(input.masterName());
+
+        Instant after = (input.after() != null && !input.after().isBlank())
+                ? Instant.parse(input.after()) : Instant.now();
+        int limit = input.limit() != null ? Math.max(1, Math.min(input.limit(), 10)) : 3;
+
+        FirstAvailableSlotsResponse response = availabilityService.findFirstAvailable(
+                salonId, service.getId(), masterId, after, limit);
+        if (response.slots().isEmpty()) {
+            return "No available slots for " + input.serviceName() + " in the next weeks";
+        }
+
+        StringBuilder sb = new StringBuilder("Earliest slots (service_id: ").append(service.getId()).append("):\n");
+        for (FirstAvailableSlotsResponse.Slot slot : response.slots()) {
+            sb.append("- ").append(slot.date()).append(" ").append(slot.start()).append("-").append(slot.end())
+                    .append(" with ").append(slot.masterName())
+                    .append(" (master_id: ").append(slot.masterId())
+                    .append(", start_time: ").append(slot.startAt()).append(")\n");
         }
         return sb.toString();
     }
 
+    private String doHoldSlot(BookAppointmentInput input) {
+        try {
+            var hold = availabilityService.holdSlot(salonId, UUID.fromString(input.serviceId()),
+                    UUID.fromString(input.masterId()), Instant.parse(input.startTime()), clientId);
+            return "Slot held until " + hold.expiresAt() + ". Confirm with the client, then call book_appointment.";
+        } catch (Exception e) {
+            return "Hold failed: " + e.getMessage();
+        }
+    }
+
     private String doBookAppointment(BookAppointmentInput input) {
         try {
             CreateAppointmentRequest request = new CreateAppointmentRequest(
@@ -150,6 +236,60 @@ public class BookingToolProvider {
         }
     }
 
+    private String doFindComboSlots(FindComboInput input) {
+        if (input.serviceNames() == null || input.serviceNames().isEmpty()) {
+            return "Please specify the services of the combo.";
+        }
+        List<SalonService> services = salonServiceRepository.findBySalonIdAndActiveTrue(salonId);
+        List<UUID> serviceIds = new ArrayList<>();
+        for (String name : input.serviceNames()) {
+            SalonService service = findService(services, name);
+            if (service == null) {
+                return serviceNotFound(services, name);
+            }
+            serviceIds.add(service.getId());
+        }
+
+        LocalDate date = LocalDate.parse(input.date());
+        ComboSlotResponse response = availabilityService.findComboChains(salonId, serviceIds, date, date, 5);
+        if (response.chains().isEmpty()) {
+            return "No back-to-back times for " + String.join(" + ", input.serviceNames()) + " on " + date;
+        }
+
+        StringBuilder sb = new StringBuilder("Combo options:\n");
+        for (int i = 0; i < response.chains().size(); i++) {
+            sb.append(i + 1).append(".");
+            for (ComboSlotResponse.Step step : response.chains().get(i).steps()) {
+                sb.append(" ").append(step.serviceName()).append(" ").append(step.start())
+                        .append("-").append(step.end()).append(" with ").append(step.masterName())
+                        .append(" (service_id: ").append(step.serviceId())
+                        .append(", master_id: ").append(step.masterId())
+                        .append(", start_time: ").append(step.startAt()).append(");");
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    private String doBookCombo(BookComboInput input) {
+        try {
+            List<BookComboRequest.Step> steps = input.steps().stream()
+                    .map(step -> new BookComboRequest.Step(UUID.fromString(step.serviceId()),
+                            UUID.fromString(step.masterId()), Instant.parse(step.startTime())))
+                    .toList();
+            var responses = appointmentService.bookCombo(salonId,
+                    new BookComboRequest(clientId, steps, null, "whatsapp"));
+            StringBuilder sb = new StringBuilder("Combo booked!\n");
+            for (var response : responses) {
+                sb.append("- ").append(response.serviceName()).append(" ID: ").append(response.id())
+                        .append(", Start: ").append(response.startAt()).append(", End: ").append(response.endAt()).append("\n");
+            }
+            return sb.toString();
+        } catch (Exception e) {
+            return "Booking failed: " + e.getMessage();
+        }
+    }
+
     private String doListServices() {
         List<SalonService> services = salonServiceRepository.findBySalonIdAndActiveTrue(salonId);
         if (services.isEmpty()) return "No services available.";
@@ -163,6 +303,8 @@ public class BookingToolProvider {
     }
 
     private String doGetClientAppointments() {
+        // Only appointments that ended beyond the archive window are archived, so upcoming
+        // ones are always in the live table
         List<Appointment> upcoming = appointmentRepository.findByClientIdOrderByStartAtDesc(clientId)
                 .stream()
                 .filter(a -> a.getStartAt().isAfter(Instant.now()) && "confirmed".equals(a.getStatus()))
@@ -199,4 +341,27 @@ public class BookingToolProvider {
     private String doEscalate(EscalateInput input) {
         return "ESCALATE:" + input.reason();
     }
+
+    private SalonService findService(List<SalonService> services, String name) {
+        return services.stream()
+                .filter(s -> s.getName().equalsIgnoreCase(name))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private String serviceNotFound(List<SalonService> services, String name) {
+        return "Service '" + name + "' not found. Available: " +
+                services.stream().map(SalonService::getName).collect(Collectors.joining(", "));
+    }
+
+    private UUID findMasterId(String masterName) {
+        if (masterName == null || masterName.isBlank()) {
+            return null;
+        }
+        return masterRepository.findBySalonIdAndActiveTrue(salonId).stream()
+                .filter(m -> m.getDisplayName().equalsIgnoreCase(masterName))
+                .findFirst()
+                .map(Master::getId)
+                .orElse(null);
+    }
 }
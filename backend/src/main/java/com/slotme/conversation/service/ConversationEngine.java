@@ -10,19 +10,30 @@ import com.slotme.messaging.entity.Message;
 import com.slotme.messaging.repository.ConversationRepository;
 import com.slotme.messaging.repository.MessageRepository;
 import com.slotme.service.repository.SalonServiceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+/**
+ * Answers a client message in three phases so no connection is held while the model
+ * thinks: a read-only transaction builds the prompt, the model call and its tools run
+ * outside any transaction (each tool takes its own), and a short transaction stores the
+ * reply. Time spent in each phase's transactions is recorded as
+ * {@code conversation.connection.hold} tagged by phase; {@code tool} covers the lookup
+ * tools, while booking tools are timed as {@code conversation.tool.write}.
+ */
 @Service
 public class ConversationEngine {
 
@@ -39,6 +50,12 @@ public class ConversationEngine {
     private final MasterRepository masterRepository;
     private final ObjectMapper objectMapper;
     private final Timer aiConversationTimer;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final Timer readHoldTimer;
+    private final Timer toolHoldTimer;
+    private final Timer writeHoldTimer;
+    private final Timer writeToolTimer;
 
     public ConversationEngine(ChatModel chatModel,
                               ConversationContextBuilder contextBuilder,
@@ -50,7 +67,9 @@ public class ConversationEngine {
                               SalonServiceRepository salonServiceRepository,
                               MasterRepository masterRepository,
                               ObjectMapper objectMapper,
-                              Timer aiConversationTimer) {
+                              Timer aiConversationTimer,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry registry) {
         this.chatModel = chatModel;
         this.contextBuilder = contextBuilder;
         this.conversationRepository = conversationRepository;
@@ -62,54 +81,44 @@ public class ConversationEngine {
         this.masterRepository = masterRepository;
         this.objectMapper = objectMapper;
         this.aiConversationTimer = aiConversationTimer;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.readHoldTimer = holdTimer("read", registry);
+        this.toolHoldTimer = holdTimer("tool", registry);
+        this.writeHoldTimer = holdTimer("write", registry);
+        this.writeToolTimer = Timer.builder("conversation.tool.write")
+                .description("Time of booking tools, whose own transactions are opened by the appointment service")
+                .register(registry);
     }
 
-    @Transactional
-    public String processMessage(UUID conversationId, String userMessage) {
-        Conversation conversation = conversationRepository.findById(conversationId)
-                .orElseThrow(() -> new IllegalArgumentException("Conversation not found: " + conversationId));
-
-        UUID salonId = conversation.getSalonId();
-        UUID clientId = conversation.getClientId();
-
-        // Build conversation context
-        String contextJson;
-        try {
-            contextJson = objectMapper.writeValueAsString(conversation.getContext());
-        } catch (Exception e) {
-            contextJson = "{}";
-        }
+    private record Turn(UUID salonId, UUID clientId, String systemPrompt, String history) {}
 
-        // Build system prompt
-        String systemPrompt = contextBuilder.buildSystemPrompt(salonId, contextJson);
-
-        // Load recent message history for context
-        List<Message> recentMessages = messageRepository
-                .findByConversationIdOrderByCreatedAtAsc(conversationId);
-        StringBuilder conversationHistory = new StringBuilder();
-        int historyLimit = Math.max(0, recentMessages.size() - 10);
-        for (int i = historyLimit; i < recentMessages.size(); i++) {
-            Message msg = recentMessages.get(i);
-            String role = "inbound".equals(msg.getDirection()) ? "Client" : "Assistant";
-            conversationHistory.append(role).append(": ").append(msg.getContent()).append("\n");
-        }
+    /**
+     * Answers {@code userMessage}. The inbound messages it was built from are already stored,
+     * so {@code answeredMessageIds} keeps them out of the history sent along with it.
+     */
+    public String processMessage(UUID conversationId, String userMessage, Collection<UUID> answeredMessageIds) {
+        Turn turn = readHoldTimer.record(() -> readTransaction.execute(status ->
+                loadTurn(conversationId, answeredMessageIds)));
 
         // Create tool provider with salon/client context
         BookingToolProvider toolProvider = new BookingToolProvider(
-                salonId, clientId, availabilityService, appointmentService,
-                appointmentRepository, salonServiceRepository, masterRepository);
+                turn.salonId(), turn.clientId(), availabilityService, appointmentService,
+                appointmentRepository, salonServiceRepository, masterRepository,
+                readTransaction, toolHoldTimer, writeToolTimer);
 
         // Call LLM with tools
         String aiResponse;
         try {
-            String fullUserMessage = conversationHistory.isEmpty()
+            String fullUserMessage = turn.history().isEmpty()
                     ? userMessage
-                    : conversationHistory + "Client: " + userMessage;
+                    : turn.history() + "Client: " + userMessage;
 
             aiResponse = aiConversationTimer.record(() ->
                     ChatClient.create(chatModel)
                             .prompt()
-                            .system(systemPrompt)
+                            .system(turn.systemPrompt())
                             .user(fullUserMessage)
                             .functions(toolProvider.buildCallbacks())
                             .call()
@@ -122,10 +131,56 @@ public class ConversationEngine {
         }
 
         // Check for escalation
-        if (aiResponse != null && aiResponse.contains("ESCALATE:")) {
+        boolean escalate = aiResponse != null && aiResponse.contains("ESCALATE:");
+        String reply = escalate
+                ? "I'll connect you with a team member who can help. Please hold on!"
+                : aiResponse;
+
+        writeHoldTimer.record(() -> writeTransaction.executeWithoutResult(status ->
+                saveReply(conversationId, reply, escalate)));
+        return reply;
+    }
+
+    // --- Helper Methods ---
+
+    private Turn loadTurn(UUID conversationId, Collection<UUID> answeredMessageIds) {
+        Conversation conversation = conversationRepository.findById(conversationId)
+                .orElseThrow(() -> new IllegalArgumentException("Conversation not found: " + conversationId));
+
+        // Build conversation context
+        String contextJson;
+        try {
+            contextJson = objectMapper.writeValueAsString(conversation.getContext());
+        } catch (Exception e) {
+            contextJson = "{}";
+        }
+
+        // Build system prompt
+        String systemPrompt = contextBuilder.buildSystemPrompt(conversation.getSalonId(), contextJson);
+
+        // Load recent message history for context
+        List<Message> recentMessages = messageRepository
+                .findByConversationIdOrderByCreatedAtAsc(conversationId).stream()
+                .filter(msg -> !answeredMessageIds.contains(msg.getId()))
+                .toList();
+        StringBuilder conversationHistory = new StringBuilder();
+        int historyLimit = Math.max(0, recentMessages.size() - 10);
+        for (int i = historyLimit; i < recentMessages.size(); i++) {
+            Message msg = recentMessages.get(i);
+            String role = "inbound".equals(msg.getDirection()) ? "Client" : "Assistant";
+            conversationHistory.append(role).append(": ").append(msg.getContent()).append("\n");
+        }
+
+        return new Turn(conversation.getSalonId(), conversation.getClientId(),
+                systemPrompt, conversationHistory.toString());
+    }
+
+    private void saveReply(UUID conversationId, String reply, boolean escalate) {
+        // Loaded again: the conversation may have changed while the model was thinking
+        Conversation conversation = conversationRepository.findById(conversationId)
+                .orElseThrow(() -> new IllegalArgumentException("Conversation not found: " + conversationId));
+        if (escalate) {
             conversation.setStatus("escalated");
-            conversationRepository.save(conversation);
-            aiResponse = "I'll connect you with a team member who can help. Please hold on!";
         }
 
         // Save outbound message
@@ -134,7 +189,7 @@ public class ConversationEngine {
         outbound.setDirection("outbound");
         outbound.setSenderType("ai");
         outbound.setContentType("text");
-        outbound.setContent(aiResponse != null ? aiResponse : "");
+        outbound.setContent(reply != null ? reply : "");
         outbound.setStatus("sent");
         outbound.setMetadata(Map.of());
         messageRepository.save(outbound);
@@ -142,7 +197,12 @@ public class ConversationEngine {
         // Update conversation timestamp
         conversation.setLastMessageAt(Instant.now());
         conversationRepository.save(conversation);
+    }
 
-        return aiResponse;
+    private static Timer holdTimer(String phase, MeterRegistry registry) {
+        return Timer.builder("conversation.connection.hold")
+                .tag("phase", phase)
+                .description("Time a conversation turn keeps a database transaction open")
+                .register(registry);
     }
 }
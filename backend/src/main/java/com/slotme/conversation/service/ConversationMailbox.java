@@ -0,0 +1,221 @@
+package com.slotme.conversation.service;
+
+import com.slotme.conversation.config.ConversationProperties;
+import com.slotme.messaging.channel.ChannelAdapter;
+import com.slotme.messaging.channel.ChannelType;
+import com.slotme.messaging.channel.InboundMessage;
+import com.slotme.messaging.event.InboundMessageEvent;
+import com.slotme.tenant.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One mailbox per conversation with inbound messages waiting for an AI turn. A mailbox is
+ * drained by a single virtual thread, so turns of a conversation never overlap, and
+ * messages that arrive within {@code debounce} of each other (at most {@code maxDelay}
+ * after the first) are answered with one turn. The thread exits once its mailbox is empty.
+ * <p>
+ * Memory is bounded by {@code maxConversations} open mailboxes of {@code maxMessages}
+ * each. Messages over either limit are still stored by the router, just not answered.
+ */
+@Component
+public class ConversationMailbox {
+
+    private static final Logger log = LoggerFactory.getLogger(ConversationMailbox.class);
+
+    private final ConversationEngine conversationEngine;
+    private final Map<ChannelType, ChannelAdapter> adapters;
+    private final ConversationProperties.Mailbox properties;
+    private final Map<UUID, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("conversation-", 0).factory());
+    private final Counter coalescedCounter;
+    private final Counter rejectedCounter;
+
+    public ConversationMailbox(ConversationEngine conversationEngine,
+                               List<ChannelAdapter> adapterList,
+                               ConversationProperties conversationProperties,
+                               MeterRegistry registry) {
+        this.conversationEngine = conversationEngine;
+        this.adapters = adapterList.stream()
+                .collect(Collectors.toMap(ChannelAdapter::getChannelType, Function.identity()));
+        this.properties = conversationProperties.mailbox();
+        registry.gaugeMapSize("conversation.mailbox.open", List.of(), mailboxes);
+        this.coalescedCounter = Counter.builder("conversation.mailbox.coalesced")
+                .description("Inbound messages answered together with an earlier one")
+                .register(registry);
+        this.rejectedCounter = Counter.builder("conversation.mailbox.rejected")
+                .description("Inbound messages not answered because a mailbox limit was reached")
+                .register(registry);
+    }
+
+    public void submit(InboundMessageEvent event) {
+        UUID conversationId = event.getConversationId();
+        while (true) {
+            boolean[] created = {false};
+            Mailbox mailbox = mailboxes.computeIfAbsent(conversationId, id -> {
+                if (mailboxes.size() >= properties.maxConversations()) {
+                    return null;
+                }
+                created[0] = true;
+                return new Mailbox(event);
+            });
+            if (mailbox == null) {
+                reject(event, "too many open conversations");
+                return;
+            }
+            if (created[0]) {
+                // The event is already pending, so the thread cannot find its mailbox empty
+                executor.execute(() -> run(mailbox));
+                return;
+            }
+            switch (mailbox.offer(event, properties.maxMessages())) {
+                case ACCEPTED -> { return; }
+                case FULL -> { reject(event, "mailbox full"); return; }
+                case CLOSED -> { } // Its thread just finished; open a new mailbox
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Pending messages are already stored; only their replies are lost
+        executor.shutdownNow();
+    }
+
+    // --- Helper Methods ---
+
+    private void run(Mailbox mailbox) {
+        TenantContext.setCurrentTenant(mailbox.tenantId);
+        try {
+            List<InboundMessageEvent> batch;
+            while ((batch = mailbox.awaitBatch(properties.debounce().toNanos(), properties.maxDelay().toNanos())) != null) {
+                process(mailbox.conversationId, batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            mailbox.close();
+            mailboxes.remove(mailbox.conversationId, mailbox);
+            TenantContext.clear();
+        }
+    }
+
+    private void process(UUID conversationId, List<InboundMessageEvent> batch) {
+        String text = batch.stream()
+                .map(event -> event.getMessage().textContent())
+                .filter(content -> content != null && !content.isBlank())
+                .collect(Collectors.joining("\n"));
+        if (text.isEmpty()) {
+            return;
+        }
+        coalescedCounter.increment(batch.size() - 1);
+        try {
+            List<UUID> messageIds = batch.stream().map(InboundMessageEvent::getMessageId).toList();
+            String response = conversationEngine.processMessage(conversationId, text, messageIds);
+
+            // Reply on the channel of the latest message
+            InboundMessage last = batch.getLast().getMessage();
+            ChannelAdapter adapter = adapters.get(last.channel());
+            if (adapter != null && response != null && !response.isBlank()) {
+                adapter.sendTextMessage(last.senderIdentifier(), response);
+            }
+        } catch (Exception e) {
+            log.error("Failed to process inbound messages for conversation {}", conversationId, e);
+        }
+    }
+
+    private void reject(InboundMessageEvent event, String reason) {
+        rejectedCounter.increment();
+        log.warn("Inbound message for conversation {} not answered: {}", event.getConversationId(), reason);
+    }
+
+    private enum OfferResult { ACCEPTED, FULL, CLOSED }
+
+    private static final class Mailbox {
+
+        final UUID conversationId;
+        final UUID tenantId;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition arrived = lock.newCondition();
+        private List<InboundMessageEvent> pending = new ArrayList<>();
+        private long firstArrival;
+        private long lastArrival;
+        private boolean closed;
+
+        Mailbox(InboundMessageEvent first) {
+            this.conversationId = first.getConversationId();
+            this.tenantId = first.getTenantId();
+            this.pending.add(first);
+            this.firstArrival = System.nanoTime();
+            this.lastArrival = firstArrival;
+        }
+
+        OfferResult offer(InboundMessageEvent event, int maxMessages) {
+            lock.lock();
+            try {
+                if (closed) return OfferResult.CLOSED;
+                if (pending.size() >= maxMessages) return OfferResult.FULL;
+                long now = System.nanoTime();
+                if (pending.isEmpty()) firstArrival = now;
+                lastArrival = now;
+                pending.add(event);
+                arrived.signal();
+                return OfferResult.ACCEPTED;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Waits until no message arrived for {@code debounce} or the oldest one has waited
+         * {@code maxDelay}, then takes everything pending. Returns {@code null} and closes
+         * the mailbox once it is empty.
+         */
+        List<InboundMessageEvent> awaitBatch(long debounce, long maxDelay) throws InterruptedException {
+            lock.lock();
+            try {
+                while (true) {
+                    if (pending.isEmpty()) {
+                        closed = true;
+                        return null;
+                    }
+                    long wait = Math.min(lastArrival + debounce, firstArrival + maxDelay) - System.nanoTime();
+                    if (wait <= 0) {
+                        List<InboundMessageEvent> batch = pending;
+                        pending = new ArrayList<>();
+                        return batch;
+                    }
+                    arrived.awaitNanos(wait);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                closed = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
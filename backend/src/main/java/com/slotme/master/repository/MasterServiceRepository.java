@@ -4,6 +4,7 @@ import com.slotme.master.entity.MasterService;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,6 +16,8 @@ public interface MasterServiceRepository extends JpaRepository<MasterService, UU
 
     List<MasterService> findByServiceId(UUID serviceId);
 
+    List<MasterService> findByServiceIdIn(Collection<UUID> serviceIds);
+
     Optional<MasterService> findByMasterIdAndServiceId(UUID masterId, UUID serviceId);
 
     void deleteByMasterIdAndServiceId(UUID masterId, UUID serviceId);
@@ -11,14 +11,16 @@ public class InboundMessageEvent extends ApplicationEvent {
     private final UUID tenantId;
     private final UUID salonId;
     private final UUID conversationId;
+    private final UUID messageId;
 
     public InboundMessageEvent(Object source, InboundMessage message,
-                               UUID tenantId, UUID salonId, UUID conversationId) {
+                               UUID tenantId, UUID salonId, UUID conversationId, UUID messageId) {
         super(source);
         this.message = message;
         this.tenantId = tenantId;
         this.salonId = salonId;
         this.conversationId = conversationId;
+        this.messageId = messageId;
     }
 
     public InboundMessage getMessage() {
@@ -36,4 +38,11 @@ public class InboundMessageEvent extends ApplicationEvent {
     public UUID getConversationId() {
         return conversationId;
     }
+
+    /**
+     * Id of the stored inbound message.
+     */
+    public UUID getMessageId() {
+        return messageId;
+    }
 }
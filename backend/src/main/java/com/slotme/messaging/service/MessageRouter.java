@@ -100,6 +100,6 @@ public class MessageRouter {
 
         // Publish event for AI conversation engine to process
         eventPublisher.publishEvent(new InboundMessageEvent(
-                this, inbound, salon.getTenantId(), salon.getId(), conversation.getId()));
+                this, inbound, salon.getTenantId(), salon.getId(), conversation.getId(), message.getId()));
     }
 }
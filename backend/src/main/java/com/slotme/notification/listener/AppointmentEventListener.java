@@ -1,54 +1,80 @@
 package com.slotme.notification.listener;
 
 import com.slotme.appointment.entity.Appointment;
-import com.slotme.appointment.event.AppointmentCancelledEvent;
-import com.slotme.appointment.event.AppointmentCreatedEvent;
-import com.slotme.appointment.event.AppointmentRescheduledEvent;
+import com.slotme.appointment.repository.AppointmentRepository;
+import com.slotme.appointment.service.AppointmentOutboxWriter;
 import com.slotme.client.entity.Client;
 import com.slotme.client.repository.ClientRepository;
 import com.slotme.master.entity.Master;
 import com.slotme.master.repository.MasterRepository;
 import com.slotme.notification.service.NotificationService;
+import com.slotme.outbox.repository.OutboxRepository;
+import com.slotme.outbox.service.OutboxEventHandler;
 import com.slotme.service.entity.SalonService;
 import com.slotme.service.repository.SalonServiceRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
+/**
+ * Sends client notifications for appointment changes. Events arrive through the outbox
+ * relay, only after the change has committed, on whichever instance claims them.
+ */
 @Component
-public class AppointmentEventListener {
+public class AppointmentEventListener implements OutboxEventHandler {
 
     private static final Logger log = LoggerFactory.getLogger(AppointmentEventListener.class);
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("EEEE, MMMM d, yyyy");
     private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("h:mm a");
 
     private final NotificationService notificationService;
+    private final AppointmentRepository appointmentRepository;
     private final ClientRepository clientRepository;
     private final MasterRepository masterRepository;
     private final SalonServiceRepository salonServiceRepository;
 
     public AppointmentEventListener(NotificationService notificationService,
+                                    AppointmentRepository appointmentRepository,
                                     ClientRepository clientRepository,
                                     MasterRepository masterRepository,
                                     SalonServiceRepository salonServiceRepository) {
         this.notificationService = notificationService;
+        this.appointmentRepository = appointmentRepository;
         this.clientRepository = clientRepository;
         this.masterRepository = masterRepository;
         this.salonServiceRepository = salonServiceRepository;
     }
 
-    @Async
-    @EventListener
-    public void onAppointmentCreated(AppointmentCreatedEvent event) {
-        Appointment appt = event.getAppointment();
-        log.info("Handling AppointmentCreatedEvent for appointment {}", appt.getId());
+    @Override
+    public String name() {
+        return "notifications";
+    }
+
+    @Override
+    public void handle(OutboxRepository.Event event) {
+        switch (event.eventType()) {
+            case AppointmentOutboxWriter.CREATED -> onAppointmentCreated(event);
+            case AppointmentOutboxWriter.SERIES_CREATED -> onAppointmentSeriesCreated(event);
+            case AppointmentOutboxWriter.CANCELLED -> onAppointmentCancelled(event);
+            case AppointmentOutboxWriter.RESCHEDULED -> onAppointmentRescheduled(event);
+            default -> { }
+        }
+    }
+
+    private void onAppointmentCreated(OutboxRepository.Event event) {
+        Appointment appt = appointmentRepository.findById(event.aggregateId()).orElse(null);
+        if (appt == null) return;
+        log.info("Handling {} for appointment {}", event.eventType(), appt.getId());
 
         Map<String, String> variables = buildVariables(appt);
         if (variables == null) return;
@@ -59,11 +85,32 @@ public class AppointmentEventListener {
                 variables.get("client_phone"), variables);
     }
 
-    @Async
-    @EventListener
-    public void onAppointmentCancelled(AppointmentCancelledEvent event) {
-        Appointment appt = event.getAppointment();
-        log.info("Handling AppointmentCancelledEvent for appointment {}", appt.getId());
+    private void onAppointmentSeriesCreated(OutboxRepository.Event event) {
+        List<UUID> ids = new ArrayList<>();
+        event.payload().path("appointmentIds").forEach(id -> ids.add(UUID.fromString(id.asText())));
+        List<Appointment> appointments = appointmentRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(Appointment::getStartAt))
+                .toList();
+        if (appointments.isEmpty()) return;
+
+        // One confirmation for the whole series, worded for its first appointment
+        Appointment appt = appointments.getFirst();
+        log.info("Handling {} for {} appointments starting {}", event.eventType(), appointments.size(), appt.getId());
+
+        Map<String, String> variables = buildVariables(appt);
+        if (variables == null) return;
+        variables.put("occurrences", String.valueOf(appointments.size()));
+
+        notificationService.sendNotification(
+                appt.getTenantId(), appt.getSalonId(), appt.getClientId(),
+                appt.getId(), "appointment_confirmation",
+                variables.get("client_phone"), variables);
+    }
+
+    private void onAppointmentCancelled(OutboxRepository.Event event) {
+        Appointment appt = appointmentRepository.findById(event.aggregateId()).orElse(null);
+        if (appt == null) return;
+        log.info("Handling {} for appointment {}", event.eventType(), appt.getId());
 
         Map<String, String> variables = buildVariables(appt);
         if (variables == null) return;
@@ -75,19 +122,19 @@ public class AppointmentEventListener {
                 variables.get("client_phone"), variables);
     }
 
-    @Async
-    @EventListener
-    public void onAppointmentRescheduled(AppointmentRescheduledEvent event) {
-        Appointment appt = event.getAppointment();
-        log.info("Handling AppointmentRescheduledEvent for appointment {}", appt.getId());
+    private void onAppointmentRescheduled(OutboxRepository.Event event) {
+        Appointment appt = appointmentRepository.findById(event.aggregateId()).orElse(null);
+        if (appt == null) return;
+        log.info("Handling {} for appointment {}", event.eventType(), appt.getId());
 
         Map<String, String> variables = buildVariables(appt);
         if (variables == null) return;
 
-        variables.put("previous_date", DATE_FORMAT.format(
-                event.getPreviousStartAt().atZone(ZoneId.systemDefault())));
-        variables.put("previous_time", TIME_FORMAT.format(
-                event.getPreviousStartAt().atZone(ZoneId.systemDefault())));
+        if (event.payload().hasNonNull("previousStartAt")) {
+            Instant previousStartAt = Instant.parse(event.payload().get("previousStartAt").asText());
+            variables.put("previous_date", DATE_FORMAT.format(previousStartAt.atZone(ZoneId.systemDefault())));
+            variables.put("previous_time", TIME_FORMAT.format(previousStartAt.atZone(ZoneId.systemDefault())));
+        }
 
         notificationService.sendNotification(
                 appt.getTenantId(), appt.getSalonId(), appt.getClientId(),
@@ -0,0 +1,20 @@
+package com.slotme.outbox.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "slotme.outbox")
+public record OutboxProperties(
+        Boolean relayEnabled,
+        int batchSize,
+        int maxAttempts,
+        Duration retention
+) {
+    public OutboxProperties {
+        if (relayEnabled == null) relayEnabled = true;
+        if (batchSize <= 0) batchSize = 100;
+        if (maxAttempts <= 0) maxAttempts = 10;
+        if (retention == null) retention = Duration.ofDays(7);
+    }
+}
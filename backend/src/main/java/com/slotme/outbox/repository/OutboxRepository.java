@@ -0,0 +1,168 @@
+package com.slotme.outbox.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+@Repository
+public class OutboxRepository {
+
+    private static final String LOCK_BATCH_SQL = """
+            SELECT id, tenant_id, aggregate_type, aggregate_id, event_type, payload, attempts, created_at
+            FROM outbox_events
+            WHERE published_at IS NULL AND attempts < :maxAttempts AND next_attempt_at <= NOW()
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public OutboxRepository(NamedParameterJdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public record Event(
+            long id,
+            UUID tenantId,
+            String aggregateType,
+            UUID aggregateId,
+            String eventType,
+            JsonNode payload,
+            int attempts,
+            Instant createdAt
+    ) {}
+
+    public record Backlog(long pending, Instant oldestCreatedAt) {}
+
+    /**
+     * Inserts an event on the caller's connection, so it commits or rolls back with the
+     * surrounding transaction.
+     */
+    public void append(UUID tenantId, String aggregateType, UUID aggregateId, String eventType,
+                       Map<String, ?> payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload is not serializable", e);
+        }
+        jdbcTemplate.update("""
+                INSERT INTO outbox_events (tenant_id, aggregate_type, aggregate_id, event_type, payload)
+                VALUES (:tenantId, :aggregateType, :aggregateId, :eventType, CAST(:payload AS jsonb))
+                """, new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("aggregateType", aggregateType)
+                .addValue("aggregateId", aggregateId)
+                .addValue("eventType", eventType)
+                .addValue("payload", json));
+    }
+
+    /**
+     * Locks up to {@code limit} due events in insertion order. Rows locked by another relay
+     * are skipped rather than waited for, so instances split the backlog between them.
+     */
+    public List<Event> lockBatch(int limit, int maxAttempts) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("limit", limit)
+                .addValue("maxAttempts", maxAttempts);
+        return jdbcTemplate.query(LOCK_BATCH_SQL, params, (rs, rowNum) -> new Event(
+                rs.getLong("id"),
+                rs.getObject("tenant_id", UUID.class),
+                rs.getString("aggregate_type"),
+                rs.getObject("aggregate_id", UUID.class),
+                rs.getString("event_type"),
+                readPayload(rs.getString("payload")),
+                rs.getInt("attempts"),
+                rs.getTimestamp("created_at").toInstant()));
+    }
+
+    /**
+     * Returns, per event, the handlers that have already handled it on an earlier attempt.
+     */
+    public Map<Long, Set<String>> findDeliveredHandlers(Collection<Long> eventIds) {
+        Map<Long, Set<String>> delivered = new HashMap<>();
+        if (eventIds.isEmpty()) return delivered;
+        jdbcTemplate.query("SELECT event_id, handler FROM outbox_deliveries WHERE event_id IN (:ids)",
+                new MapSqlParameterSource("ids", eventIds), rs -> {
+                    delivered.computeIfAbsent(rs.getLong("event_id"), id -> new HashSet<>()).add(rs.getString("handler"));
+                });
+        return delivered;
+    }
+
+    /**
+     * Records that {@code handler} has handled the event. Called on the handler's connection,
+     * so the record commits or rolls back with the handler's own work.
+     */
+    public void markDelivered(long eventId, String handler) {
+        jdbcTemplate.update("""
+                INSERT INTO outbox_deliveries (event_id, handler) VALUES (:eventId, :handler)
+                ON CONFLICT DO NOTHING
+                """, new MapSqlParameterSource()
+                .addValue("eventId", eventId)
+                .addValue("handler", handler));
+    }
+
+    public void markPublished(Collection<Long> ids) {
+        if (ids.isEmpty()) return;
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        jdbcTemplate.update("UPDATE outbox_events SET published_at = NOW(), last_error = NULL WHERE id IN (:ids)",
+                params);
+        jdbcTemplate.update("DELETE FROM outbox_deliveries WHERE event_id IN (:ids)", params);
+    }
+
+    /**
+     * Records a failed attempt and backs the event off exponentially, up to five minutes.
+     * Handlers that succeeded on this attempt keep their delivery rows.
+     */
+    public void markFailed(long id, String error) {
+        jdbcTemplate.update("""
+                UPDATE outbox_events
+                SET attempts = attempts + 1,
+                    last_error = :error,
+                    next_attempt_at = NOW() + make_interval(secs => LEAST(power(2, attempts + 1), 300))
+                WHERE id = :id
+                """, new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("error", error));
+    }
+
+    public Backlog backlog(int maxAttempts) {
+        return jdbcTemplate.queryForObject("""
+                SELECT count(*) AS pending, min(created_at) AS oldest
+                FROM outbox_events
+                WHERE published_at IS NULL AND attempts < :maxAttempts
+                """, new MapSqlParameterSource("maxAttempts", maxAttempts), (rs, rowNum) -> {
+            Timestamp oldest = rs.getTimestamp("oldest");
+            return new Backlog(rs.getLong("pending"), oldest != null ? oldest.toInstant() : null);
+        });
+    }
+
+    public int deletePublishedBefore(Instant cutoff) {
+        return jdbcTemplate.update("DELETE FROM outbox_events WHERE published_at < :cutoff",
+                new MapSqlParameterSource("cutoff", Timestamp.from(cutoff)));
+    }
+
+    private JsonNode readPayload(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt outbox payload", e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.slotme.outbox.service;
+
+import com.slotme.outbox.repository.OutboxRepository;
+
+/**
+ * Receives every relayed outbox event and ignores the types it does not handle. Each
+ * handler runs in its own transaction with the event's tenant set, and its success is
+ * recorded in that transaction. Delivery is at least once: when a handler throws, the
+ * event is offered again after a back-off, but only to the handlers that have not yet
+ * succeeded.
+ */
+public interface OutboxEventHandler {
+
+    /**
+     * Identifies the handler in the delivery records, so it must stay stable across releases.
+     */
+    String name();
+
+    void handle(OutboxRepository.Event event);
+}
@@ -0,0 +1,187 @@
+package com.slotme.outbox.service;
+
+import com.slotme.outbox.config.OutboxProperties;
+import com.slotme.outbox.repository.OutboxRepository;
+import com.slotme.tenant.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves committed outbox events to the {@link OutboxEventHandler}s. Every instance polls;
+ * batches are claimed with {@code FOR UPDATE SKIP LOCKED}, so instances never handle the
+ * same event concurrently and a crashed instance's batch is picked up once its locks go.
+ * Events are handled in id order within a batch but not across instances. An event is
+ * published once every handler has handled it; until then it is retried with back-off
+ * for the handlers still missing.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final OutboxRepository outboxRepository;
+    private final List<OutboxEventHandler> handlers;
+    private final OutboxProperties properties;
+    private final TransactionTemplate batchTransaction;
+    private final TransactionTemplate handlerTransaction;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Timer lagTimer;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong oldestAgeSeconds = new AtomicLong();
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       List<OutboxEventHandler> handlers,
+                       OutboxProperties properties,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry registry) {
+        this.outboxRepository = outboxRepository;
+        this.handlers = handlers;
+        this.properties = properties;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.handlerTransaction = new TransactionTemplate(transactionManager);
+        this.handlerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.publishedCounter = Counter.builder("outbox.events")
+                .tag("result", "published")
+                .description("Outbox events handled")
+                .register(registry);
+        this.failedCounter = Counter.builder("outbox.events")
+                .tag("result", "failed")
+                .description("Outbox event handling attempts that failed")
+                .register(registry);
+        this.lagTimer = Timer.builder("outbox.lag")
+                .description("Time from an event's commit to its handling")
+                .register(registry);
+        Gauge.builder("outbox.pending", pending, AtomicLong::get)
+                .description("Outbox events waiting to be handled")
+                .register(registry);
+        Gauge.builder("outbox.oldest.age", oldestAgeSeconds, AtomicLong::get)
+                .description("Age in seconds of the oldest outbox event waiting to be handled")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${slotme.outbox.poll-interval:1s}")
+    public void poll() {
+        if (!properties.relayEnabled()) return;
+        try {
+            relayPending();
+        } catch (RuntimeException e) {
+            log.error("Outbox relay failed", e);
+        }
+    }
+
+    /**
+     * Relays due events batch by batch until a batch comes back short, then refreshes the
+     * backlog gauges. Returns the number of events handled successfully.
+     */
+    public int relayPending() {
+        int relayed = 0;
+        int claimed;
+        do {
+            BatchResult batch = batchTransaction.execute(status -> relayBatch());
+            claimed = batch.claimed();
+            relayed += batch.published();
+        } while (claimed == properties.batchSize());
+
+        OutboxRepository.Backlog backlog = outboxRepository.backlog(properties.maxAttempts());
+        pending.set(backlog.pending());
+        oldestAgeSeconds.set(backlog.oldestCreatedAt() != null
+                ? Math.max(0, Duration.between(backlog.oldestCreatedAt(), Instant.now()).toSeconds())
+                : 0);
+        return relayed;
+    }
+
+    @Scheduled(cron = "0 15 * * * *")
+    public void purgePublished() {
+        int deleted = outboxRepository.deletePublishedBefore(Instant.now().minus(properties.retention()));
+        if (deleted > 0) {
+            log.info("Purged {} published outbox events", deleted);
+        }
+    }
+
+    // --- Helper Methods ---
+
+    private record BatchResult(int claimed, int published) {}
+
+    private BatchResult relayBatch() {
+        List<OutboxRepository.Event> batch = outboxRepository.lockBatch(properties.batchSize(), properties.maxAttempts());
+        Map<Long, Set<String>> delivered = outboxRepository.findDeliveredHandlers(
+                batch.stream().map(OutboxRepository.Event::id).toList());
+        List<Long> published = new ArrayList<>(batch.size());
+        for (OutboxRepository.Event event : batch) {
+            List<String> failures = dispatch(event, delivered.getOrDefault(event.id(), Set.of()));
+            if (failures.isEmpty()) {
+                published.add(event.id());
+                publishedCounter.increment();
+                lagTimer.record(Duration.between(event.createdAt(), Instant.now()));
+            } else {
+                failedCounter.increment();
+                outboxRepository.markFailed(event.id(), truncate(String.join("; ", failures)));
+            }
+        }
+        outboxRepository.markPublished(published);
+        return new BatchResult(batch.size(), published.size());
+    }
+
+    /**
+     * Runs each handler that has not yet handled the event in its own transaction, so one
+     * handler's failure neither rolls back nor repeats another's work. Returns the failures.
+     */
+    private List<String> dispatch(OutboxRepository.Event event, Set<String> alreadyDelivered) {
+        List<String> failures = new ArrayList<>();
+        // Each handler transaction takes a fresh connection, which picks up the event's tenant
+        UUID previousTenant = TenantContext.getCurrentTenantId();
+        TenantContext.setCurrentTenant(event.tenantId());
+        try {
+            for (OutboxEventHandler handler : handlers) {
+                if (alreadyDelivered.contains(handler.name())) continue;
+                try {
+                    handlerTransaction.executeWithoutResult(status -> {
+                        handler.handle(event);
+                        outboxRepository.markDelivered(event.id(), handler.name());
+                    });
+                } catch (RuntimeException e) {
+                    if (event.attempts() + 1 >= properties.maxAttempts()) {
+                        log.error("Giving up on outbox event {} ({}) in {} after {} attempts",
+                                event.id(), event.eventType(), handler.name(), event.attempts() + 1, e);
+                    } else {
+                        log.warn("Outbox event {} ({}) failed in {}, will retry",
+                                event.id(), event.eventType(), handler.name(), e);
+                    }
+                    failures.add(handler.name() + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            if (previousTenant != null) {
+                TenantContext.setCurrentTenant(previousTenant);
+            } else {
+                TenantContext.clear();
+            }
+        }
+        return failures;
+    }
+
+    private static String truncate(String message) {
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
@@ -53,6 +53,7 @@ public class SecurityConfig {
                                     "/api/v1/auth/password-reset/request",
                                     "/api/v1/auth/password-reset/confirm").permitAll()
                             .requestMatchers("/api/v1/webhooks/**").permitAll()
+                            .requestMatchers(HttpMethod.GET, "/api/v1/calendar-feeds/**").permitAll()
                             .requestMatchers("/actuator/health/**", "/actuator/info",
                                     "/actuator/prometheus").permitAll()
                             .requestMatchers("/actuator/**").hasRole("PLATFORM_ADMIN")
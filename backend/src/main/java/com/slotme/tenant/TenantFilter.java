@@ -31,6 +31,7 @@ public class TenantFilter extends OncePerRequestFilter {
             "/api/v1/auth/reset-password",
             "/api/v1/auth/password-reset/",
             "/api/v1/webhooks/",
+            "/api/v1/calendar-feeds/",
             "/actuator/",
             "/swagger-ui",
             "/api-docs"
@@ -86,11 +86,18 @@ CREATE POLICY tenant_isolation_client_preferences ON client_preferences
 CREATE POLICY tenant_isolation_appointments ON appointments
     USING (tenant_id = current_setting('app.current_tenant_id', true)::UUID);
 
--- Appointment history: via appointment -> tenant
+-- Appointments archive: tenant-scoped
+CREATE POLICY tenant_isolation_appointments_archive ON appointments_archive
+    USING (tenant_id = current_setting('app.current_tenant_id', true)::UUID);
+
+-- Appointment history: via appointment (live or archived) -> tenant
 CREATE POLICY tenant_isolation_appointment_history ON appointment_history
     USING (appointment_id IN (
         SELECT id FROM appointments
         WHERE tenant_id = current_setting('app.current_tenant_id', true)::UUID
+        UNION ALL
+        SELECT id FROM appointments_archive
+        WHERE tenant_id = current_setting('app.current_tenant_id', true)::UUID
     ));
 
 -- Conversations: tenant-scoped
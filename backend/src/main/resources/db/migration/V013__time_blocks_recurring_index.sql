@@ -0,0 +1,6 @@
+-- V013: Split time_blocks lookups between one-off blocks (range scans) and recurring
+-- series (loaded per calendar and expanded in the application)
+CREATE INDEX idx_time_blocks_calendar_range ON time_blocks(calendar_id, start_at, end_at)
+    WHERE is_recurring = false;
+CREATE INDEX idx_time_blocks_calendar_recurring ON time_blocks(calendar_id)
+    WHERE is_recurring = true;
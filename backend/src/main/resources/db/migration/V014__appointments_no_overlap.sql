@@ -0,0 +1,43 @@
+-- V014: Let the database reject overlapping confirmed appointments per master.
+-- The generated range is half-open, so back-to-back appointments do not collide,
+-- and cancelled or completed rows are outside the constraint.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE appointments
+    ADD COLUMN during TSTZRANGE GENERATED ALWAYS AS (tstzrange(start_at, end_at, '[)')) STORED;
+
+-- Existing overlaps would make the constraint fail with only the first pair in the error.
+-- List them all (up to 100) and stop instead. Resolve each pair before running again, e.g.
+-- by moving or cancelling the later booking:
+--   UPDATE appointments SET status = 'cancelled', cancelled_at = now(),
+--          cancellation_reason = 'Double booking' WHERE id = '<later id>';
+-- The migration user must bypass row level security (superuser or BYPASSRLS), otherwise
+-- the check sees no rows.
+DO $$
+DECLARE
+    pairs TEXT;
+BEGIN
+    SELECT string_agg(pair, E'\n')
+    INTO pairs
+    FROM (
+        SELECT format('master %s: %s [%s, %s) overlaps %s [%s, %s)',
+                      a.master_id, a.id, a.start_at, a.end_at, b.id, b.start_at, b.end_at) AS pair
+        FROM appointments a
+        JOIN appointments b
+          ON b.master_id = a.master_id
+         AND b.start_at < a.end_at AND b.end_at > a.start_at
+         AND (b.start_at, b.id) > (a.start_at, a.id)
+        WHERE a.status = 'confirmed' AND b.status = 'confirmed'
+        ORDER BY a.master_id, a.start_at
+        LIMIT 100
+    ) found;
+
+    IF pairs IS NOT NULL THEN
+        RAISE EXCEPTION 'Confirmed appointments overlap; resolve them before applying V014:%', E'\n' || pairs;
+    END IF;
+END $$;
+
+ALTER TABLE appointments
+    ADD CONSTRAINT appointments_master_no_overlap
+    EXCLUDE USING gist (master_id WITH =, during WITH &&)
+    WHERE (status = 'confirmed');
@@ -0,0 +1,118 @@
+-- V016: Monthly range partitions for appointment history and an archive for cold appointments.
+--
+-- appointments itself stays a plain table: its overlap exclusion constraint and the
+-- foreign keys onto appointments(id) cannot be expressed on a partitioned table whose key
+-- is start_at. Instead, appointments that ended long ago are moved to appointments_archive,
+-- partitioned by month of start_at, which keeps the hot table to roughly the archive window.
+
+-- Creates the missing monthly partitions of a range-partitioned table for every month
+-- overlapping [from_month, to_month]. Partitions are named <table>_pYYYYMM, bounded at
+-- UTC midnight. Returns the number of partitions created.
+CREATE OR REPLACE FUNCTION create_monthly_partitions(parent TEXT, from_month DATE, to_month DATE)
+RETURNS INT
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    month_start DATE := date_trunc('month', from_month)::date;
+    partition_name TEXT;
+    created INT := 0;
+BEGIN
+    WHILE month_start <= to_month LOOP
+        partition_name := parent || '_p' || to_char(month_start, 'YYYYMM');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, parent,
+                           month_start::timestamp AT TIME ZONE 'UTC',
+                           (month_start + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC');
+            created := created + 1;
+        END IF;
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN created;
+END;
+$$;
+
+-- History is append-only and always read per appointment, so it no longer references
+-- appointments: rows stay behind when their appointment is archived.
+ALTER TABLE appointment_history RENAME TO appointment_history_old;
+ALTER TABLE appointment_history_old RENAME CONSTRAINT appointment_history_pkey TO appointment_history_old_pkey;
+ALTER INDEX idx_appointment_history_appt RENAME TO idx_appointment_history_old_appt;
+
+CREATE TABLE appointment_history (
+    id              UUID NOT NULL DEFAULT gen_random_uuid(),
+    appointment_id  UUID NOT NULL,
+    action          VARCHAR(50) NOT NULL,
+    old_status      VARCHAR(30),
+    new_status      VARCHAR(30) NOT NULL,
+    old_start_at    TIMESTAMPTZ,
+    new_start_at    TIMESTAMPTZ,
+    changed_by      UUID REFERENCES users(id),
+    change_source   VARCHAR(30) NOT NULL,
+    notes           TEXT,
+    created_at      TIMESTAMPTZ NOT NULL DEFAULT now(),
+    updated_at      TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX idx_appointment_history_appt ON appointment_history(appointment_id, created_at);
+
+-- Catches rows if partition maintenance ever falls behind, so a booking never fails on it
+CREATE TABLE appointment_history_default PARTITION OF appointment_history DEFAULT;
+
+SELECT create_monthly_partitions('appointment_history',
+                                 COALESCE((SELECT min(created_at) FROM appointment_history_old), now())::date,
+                                 (now() + INTERVAL '3 months')::date);
+
+INSERT INTO appointment_history SELECT * FROM appointment_history_old;
+DROP TABLE appointment_history_old;
+
+-- Notifications are kept after their appointment is archived, as history is. A foreign
+-- key onto appointments would block the archiver's delete, and one onto the archive
+-- cannot exist since its primary key is (id, start_at). appointment_id stays a plain,
+-- nullable reference that resolves through either table.
+ALTER TABLE notifications DROP CONSTRAINT IF EXISTS notifications_appointment_id_fkey;
+
+CREATE TABLE appointments_archive (
+    id                  UUID NOT NULL,
+    tenant_id           UUID NOT NULL,
+    salon_id            UUID NOT NULL,
+    master_id           UUID NOT NULL,
+    client_id           UUID NOT NULL,
+    service_id          UUID NOT NULL,
+    status              VARCHAR(30) NOT NULL,
+    start_at            TIMESTAMPTZ NOT NULL,
+    end_at              TIMESTAMPTZ NOT NULL,
+    duration_minutes    INT NOT NULL,
+    price               DECIMAL(10,2) NOT NULL,
+    currency            VARCHAR(3) NOT NULL,
+    notes               TEXT,
+    internal_notes      TEXT,
+    source              VARCHAR(30) NOT NULL,
+    cancelled_at        TIMESTAMPTZ,
+    cancellation_reason TEXT,
+    created_at          TIMESTAMPTZ NOT NULL,
+    updated_at          TIMESTAMPTZ NOT NULL,
+    archived_at         TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (id, start_at)
+) PARTITION BY RANGE (start_at);
+
+CREATE INDEX idx_appointments_archive_salon_date ON appointments_archive(salon_id, start_at);
+CREATE INDEX idx_appointments_archive_client ON appointments_archive(client_id);
+
+-- Free-text columns are the bulk of an archived row; lz4 is only available when the
+-- server was built with it, pglz stays in place otherwise
+DO $$
+BEGIN
+    ALTER TABLE appointments_archive
+        ALTER COLUMN notes SET COMPRESSION lz4,
+        ALTER COLUMN internal_notes SET COMPRESSION lz4,
+        ALTER COLUMN cancellation_reason SET COMPRESSION lz4;
+EXCEPTION WHEN feature_not_supported THEN
+    RAISE NOTICE 'lz4 not available, archive keeps default compression';
+END $$;
+
+ALTER TABLE appointments_archive ENABLE ROW LEVEL SECURITY;
+ALTER TABLE appointments_archive FORCE ROW LEVEL SECURITY;
+
+-- Archival picks candidates by start_at across all salons
+CREATE INDEX idx_appointments_start ON appointments(start_at);
@@ -0,0 +1,14 @@
+-- V017: Salon on history rows so a salon's audit trail can be range-scanned by time.
+ALTER TABLE appointment_history ADD COLUMN salon_id UUID;
+
+UPDATE appointment_history h
+SET salon_id = a.salon_id
+FROM appointments a
+WHERE a.id = h.appointment_id;
+
+UPDATE appointment_history h
+SET salon_id = a.salon_id
+FROM appointments_archive a
+WHERE a.id = h.appointment_id AND h.salon_id IS NULL;
+
+CREATE INDEX idx_appointment_history_salon_created ON appointment_history(salon_id, created_at);
@@ -0,0 +1,84 @@
+-- V018: Per-salon calendar version for conditional GETs of the calendar view.
+-- Every change to what the view shows (appointments, masters, calendars, working hours,
+-- time blocks, client and service names) gives the salon a fresh value from one sequence,
+-- so equal versions mean an unchanged calendar. The triggers are deferred to commit, which
+-- keeps the row lock out of the booking transaction and skips rolled-back changes.
+-- Rows hold nothing but a counter and are only read by salon id, so there is no RLS.
+CREATE SEQUENCE calendar_version_seq;
+
+CREATE TABLE calendar_versions (
+    salon_id    UUID PRIMARY KEY,
+    version     BIGINT NOT NULL,
+    updated_at  TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- TG_ARGV[0] names the column that leads to the salon: salon_id, master_id or calendar_id
+CREATE FUNCTION bump_calendar_version() RETURNS trigger
+LANGUAGE plpgsql AS $$
+DECLARE
+    row_data JSONB;
+    target_salon UUID;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        row_data := to_jsonb(OLD);
+    ELSE
+        row_data := to_jsonb(NEW);
+    END IF;
+
+    CASE TG_ARGV[0]
+        WHEN 'salon_id' THEN
+            target_salon := (row_data ->> 'salon_id')::UUID;
+        WHEN 'master_id' THEN
+            SELECT m.salon_id INTO target_salon
+            FROM masters m
+            WHERE m.id = (row_data ->> 'master_id')::UUID;
+        WHEN 'calendar_id' THEN
+            SELECT m.salon_id INTO target_salon
+            FROM calendars c
+            JOIN masters m ON m.id = c.master_id
+            WHERE c.id = (row_data ->> 'calendar_id')::UUID;
+    END CASE;
+
+    IF target_salon IS NOT NULL THEN
+        INSERT INTO calendar_versions (salon_id, version)
+        VALUES (target_salon, nextval('calendar_version_seq'))
+        ON CONFLICT (salon_id) DO UPDATE
+            SET version = nextval('calendar_version_seq'), updated_at = now();
+    END IF;
+    RETURN NULL;
+END $$;
+
+CREATE CONSTRAINT TRIGGER appointments_calendar_version
+    AFTER INSERT OR UPDATE OR DELETE ON appointments
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW EXECUTE FUNCTION bump_calendar_version('salon_id');
+
+CREATE CONSTRAINT TRIGGER masters_calendar_version
+    AFTER INSERT OR UPDATE OR DELETE ON masters
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW EXECUTE FUNCTION bump_calendar_version('salon_id');
+
+CREATE CONSTRAINT TRIGGER calendars_calendar_version
+    AFTER INSERT OR UPDATE ON calendars
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW EXECUTE FUNCTION bump_calendar_version('master_id');
+
+CREATE CONSTRAINT TRIGGER availability_rules_calendar_version
+    AFTER INSERT OR UPDATE OR DELETE ON availability_rules
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW EXECUTE FUNCTION bump_calendar_version('calendar_id');
+
+CREATE CONSTRAINT TRIGGER time_blocks_calendar_version
+    AFTER INSERT OR UPDATE OR DELETE ON time_blocks
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW EXECUTE FUNCTION bump_calendar_version('calendar_id');
+
+CREATE CONSTRAINT TRIGGER clients_calendar_version
+    AFTER UPDATE OF first_name, last_name ON clients
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW EXECUTE FUNCTION bump_calendar_version('salon_id');
+
+CREATE CONSTRAINT TRIGGER services_calendar_version
+    AFTER UPDATE OF name ON services
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW EXECUTE FUNCTION bump_calendar_version('salon_id');
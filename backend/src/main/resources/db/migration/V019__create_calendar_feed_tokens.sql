@@ -0,0 +1,10 @@
+-- V019: Secret iCalendar feed URLs, one per master. Calendar apps poll them without
+-- credentials, so the token is resolved before any tenant is known; like
+-- password_reset_tokens the table has no RLS. Only the SHA-256 of the token is stored.
+CREATE TABLE calendar_feed_tokens (
+    id              UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id       UUID NOT NULL REFERENCES tenants(id) ON DELETE CASCADE,
+    master_id       UUID NOT NULL UNIQUE REFERENCES masters(id) ON DELETE CASCADE,
+    token_hash      VARCHAR(64) NOT NULL UNIQUE,
+    created_at      TIMESTAMPTZ NOT NULL DEFAULT now()
+);
@@ -0,0 +1,40 @@
+-- V020: Time-ordered UUIDv7 ids for rows created in SQL, matching the @UuidV7 entity ids.
+-- PostgreSQL 16 has no built-in v7, so the millisecond timestamp is laid over a random
+-- v4 and the version nibble is switched from 4 to 7.
+CREATE FUNCTION uuid_generate_v7() RETURNS UUID
+LANGUAGE sql VOLATILE AS $$
+    SELECT encode(
+        set_bit(
+            set_bit(
+                overlay(uuid_send(gen_random_uuid())
+                        PLACING substring(int8send(floor(extract(epoch FROM clock_timestamp()) * 1000)::BIGINT) FROM 3)
+                        FROM 1 FOR 6),
+                52, 1),
+            53, 1),
+        'hex')::UUID;
+$$;
+
+-- Every id column that defaulted to a random v4 now defaults to v7; partitions follow
+-- their parent. Existing ids stay as they are: they are referenced by foreign keys and
+-- have been handed out in URLs and calendar feeds. New v7 keys sort next to each other
+-- even among the old random ones, so inserts keep hitting the same few index pages; the
+-- pages split by earlier random inserts can be compacted with REINDEX INDEX CONCURRENTLY
+-- outside a migration.
+DO $$
+DECLARE
+    col RECORD;
+BEGIN
+    FOR col IN
+        SELECT c.relname AS table_name, a.attname AS column_name
+        FROM pg_attrdef d
+        JOIN pg_class c ON c.oid = d.adrelid
+        JOIN pg_namespace n ON n.oid = c.relnamespace
+        JOIN pg_attribute a ON a.attrelid = d.adrelid AND a.attnum = d.adnum
+        WHERE n.nspname = current_schema()
+          AND NOT c.relispartition
+          AND pg_get_expr(d.adbin, d.adrelid) = 'gen_random_uuid()'
+    LOOP
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN %I SET DEFAULT uuid_generate_v7()',
+                       col.table_name, col.column_name);
+    END LOOP;
+END $$;
@@ -0,0 +1,4 @@
+-- V021: Per-master feed version, so every instance can tell that its cached feed is stale.
+-- The outbox relay bumps it once an appointment or calendar change has committed; a feed
+-- rendered at a lower version is rendered again on the next poll.
+ALTER TABLE calendar_feed_tokens ADD COLUMN feed_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,11 @@
+-- V022: Per-handler delivery of outbox events. A handler's row is written in the same
+-- transaction as its work, so a retried event only runs the handlers that have not yet
+-- succeeded. Rows go with their event once it is published. There is no foreign key:
+-- the relay holds the event row FOR UPDATE while handlers insert here on other
+-- connections, and the key check's share lock would wait on it.
+CREATE TABLE outbox_deliveries (
+    event_id BIGINT NOT NULL,
+    handler VARCHAR(50) NOT NULL,
+    delivered_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (event_id, handler)
+);
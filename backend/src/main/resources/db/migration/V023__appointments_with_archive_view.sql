@@ -0,0 +1,18 @@
+-- V023: One read path over live and archived appointments. Lists, lookups, client
+-- history and GDPR export read this view, so an appointment stays visible after the
+-- archiver moves it. Filters are pushed into both branches, and an ordered, limited scan
+-- merges the two index scans rather than sorting the union. security_invoker keeps the
+-- tenant policies of both tables in force for the caller.
+CREATE VIEW appointments_with_archive WITH (security_invoker = true) AS
+SELECT id, tenant_id, salon_id, master_id, client_id, service_id, status, start_at, end_at,
+       duration_minutes, price, currency, notes, internal_notes, source, cancelled_at,
+       cancellation_reason, created_at, updated_at, FALSE AS archived
+FROM appointments
+UNION ALL
+SELECT id, tenant_id, salon_id, master_id, client_id, service_id, status, start_at, end_at,
+       duration_minutes, price, currency, notes, internal_notes, source, cancelled_at,
+       cancellation_reason, created_at, updated_at, TRUE AS archived
+FROM appointments_archive;
+
+-- Archived appointments are listed per master as live ones are
+CREATE INDEX idx_appointments_archive_master ON appointments_archive(master_id, start_at);
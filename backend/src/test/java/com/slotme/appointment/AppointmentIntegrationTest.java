@@ -1,26 +1,73 @@
 package com.slotme.appointment;
 
 import com.slotme.AbstractIntegrationTest;
+import com.slotme.appointment.dto.CancelRequest;
+import com.slotme.appointment.service.AppointmentArchiver;
+import com.slotme.appointment.service.AppointmentChangeSource;
+import com.slotme.appointment.service.AppointmentOutboxWriter;
+import com.slotme.appointment.service.AppointmentService;
 import com.slotme.auth.dto.AuthResponse;
+import com.slotme.calendar.service.CalendarFeedService;
+import com.slotme.client.service.ClientMergeService;
+import com.slotme.notification.listener.AppointmentEventListener;
+import com.slotme.outbox.repository.OutboxRepository;
+import com.slotme.outbox.service.OutboxRelay;
+import com.slotme.tenant.TenantContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatcher;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 class AppointmentIntegrationTest extends AbstractIntegrationTest {
 
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @MockitoSpyBean
+    private AppointmentEventListener appointmentEventListener;
+
+    @MockitoSpyBean
+    private CalendarFeedService calendarFeedService;
+
+    @Autowired
+    private AppointmentArchiver appointmentArchiver;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private ClientMergeService clientMergeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private AuthResponse auth;
     private String salonId;
     private String tenantId;
+    private LocalDate date;
 
     @BeforeEach
     void setUp() throws Exception {
@@ -29,6 +76,7 @@ class AppointmentIntegrationTest extends AbstractIntegrationTest {
                 "password123", "Admin", "User", "Appt Salon " + unique);
         salonId = auth.user().salonId();
         tenantId = auth.user().tenantId();
+        date = LocalDate.now().plusDays(7);
     }
 
     @Test
@@ -137,13 +185,333 @@ class AppointmentIntegrationTest extends AbstractIntegrationTest {
                 .andExpect(status().isConflict());
     }
 
+    @Test
+    void appointmentListAndDetailCarryResolvedNames() throws Exception {
+        String serviceId = createService();
+        String masterId = createMaster();
+        setWorkingHours(masterId, "09:00", "12:00");
+        book(masterId, serviceId, createClient(), "09:00", status().isCreated());
+        String appointmentId = book(masterId, serviceId, createClient(), "10:00", status().isCreated());
+
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/appointments")
+                        .header("Authorization", authHeader(auth))
+                        .param("masterId", masterId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[*].masterName", everyItem(is("Test Master"))))
+                .andExpect(jsonPath("$.content[*].clientName", everyItem(is("Client Test"))))
+                .andExpect(jsonPath("$.content[*].serviceName", everyItem(startsWith("Haircut"))));
+
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/appointments/" + appointmentId)
+                        .header("Authorization", authHeader(auth)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.masterName").value("Test Master"))
+                .andExpect(jsonPath("$.clientName").value("Client Test"));
+    }
+
+    @Test
+    void appointmentScrollWalksWindowsByCursor() throws Exception {
+        String serviceId = createService();
+        String masterId = createMaster();
+        setWorkingHours(masterId, "09:00", "12:00");
+        String clientId = createClient();
+        String first = book(masterId, serviceId, clientId, "09:00", status().isCreated());
+        String second = book(masterId, serviceId, clientId, "10:00", status().isCreated());
+        String third = book(masterId, serviceId, clientId, "11:00", status().isCreated());
+
+        MvcResult window = mockMvc.perform(get("/api/v1/salons/" + salonId + "/appointments/scroll")
+                        .header("Authorization", authHeader(auth))
+                        .param("masterId", masterId)
+                        .param("limit", "2")
+                        .param("includeTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains(third, second)))
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn();
+        String cursor = objectMapper.readTree(window.getResponse().getContentAsString()).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/appointments/scroll")
+                        .header("Authorization", authHeader(auth))
+                        .param("masterId", masterId)
+                        .param("limit", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains(first)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    void seriesIsBookedWeeklyOrNotAtAll() throws Exception {
+        String serviceId = createService();
+        String masterId = createMaster();
+        setWorkingHours(masterId, "09:00", "12:00");
+
+        mockMvc.perform(post("/api/v1/salons/" + salonId + "/appointments/series")
+                        .header("Authorization", authHeader(auth))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "masterId", masterId,
+                                "serviceId", serviceId,
+                                "clientId", createClient(),
+                                "firstStartAt", date + "T10:00:00Z",
+                                "intervalWeeks", 1,
+                                "occurrences", 3
+                        ))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[*].startAt", contains(
+                        date + "T10:00:00Z", date.plusWeeks(1) + "T10:00:00Z", date.plusWeeks(2) + "T10:00:00Z")));
+
+        // The second occurrence collides with the first series, so none of it is booked
+        mockMvc.perform(post("/api/v1/salons/" + salonId + "/appointments/series")
+                        .header("Authorization", authHeader(auth))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "masterId", masterId,
+                                "serviceId", serviceId,
+                                "clientId", createClient(),
+                                "firstStartAt", date.minusWeeks(1) + "T10:30:00Z",
+                                "intervalWeeks", 1,
+                                "occurrences", 2
+                        ))))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/appointments")
+                        .header("Authorization", authHeader(auth))
+                        .param("masterId", masterId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3));
+    }
+
+    @Test
+    void bookingIsRecordedInOutboxAndRelayedAfterCommit() throws Exception {
+        String serviceId = createService();
+        String masterId = createMaster();
+        setWorkingHours(masterId, "09:00", "12:00");
+        String appointmentId = book(masterId, serviceId, createClient(), "09:00", status().isCreated());
+
+        String query = "SELECT event_type, published_at IS NOT NULL AS published FROM outbox_events"
+                + " WHERE aggregate_id = CAST(? AS uuid) AND event_type <> 'appointment.audit'";
+        Map<String, Object> row = jdbcTemplate.queryForMap(query, appointmentId);
+        assertThat(row.get("event_type")).isEqualTo("appointment.created");
+        assertThat(row.get("published")).isEqualTo(false);
+
+        assertThat(outboxRelay.relayPending()).isGreaterThanOrEqualTo(1);
+        assertThat(jdbcTemplate.queryForMap(query, appointmentId).get("published")).isEqualTo(true);
+    }
+
+    @Test
+    void failedHandlerIsRetriedWithoutRepeatingTheOthers() throws Exception {
+        String serviceId = createService();
+        String masterId = createMaster();
+        setWorkingHours(masterId, "09:00", "12:00");
+        String appointmentId = book(masterId, serviceId, createClient(), "09:00", status().isCreated());
+        ArgumentMatcher<OutboxRepository.Event> created = event ->
+                event.eventType().equals(AppointmentOutboxWriter.CREATED)
+                        && event.aggregateId().toString().equals(appointmentId);
+        doThrow(new IllegalStateException("feed unavailable")).doCallRealMethod()
+                .when(calendarFeedService).handle(argThat(created));
+
+        outboxRelay.relayPending();
+
+        String query = "SELECT published_at IS NOT NULL AS published, attempts, last_error FROM outbox_events"
+                + " WHERE aggregate_id = CAST(? AS uuid) AND event_type = 'appointment.created'";
+        Map<String, Object> row = jdbcTemplate.queryForMap(query, appointmentId);
+        assertThat(row.get("published")).isEqualTo(false);
+        assertThat(row.get("attempts")).isEqualTo(1);
+        assertThat((String) row.get("last_error")).startsWith("calendar-feed: ");
+        // The audit event went through on its own, so the history is already there
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM appointment_history WHERE appointment_id = CAST(? AS uuid)",
+                Long.class, appointmentId)).isEqualTo(1);
+
+        jdbcTemplate.update("UPDATE outbox_events SET next_attempt_at = NOW()");
+        outboxRelay.relayPending();
+
+        assertThat(jdbcTemplate.queryForMap(query, appointmentId).get("published")).isEqualTo(true);
+        verify(calendarFeedService, times(2)).handle(argThat(created));
+        verify(appointmentEventListener, times(1)).handle(argThat(created));
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_deliveries", Long.class)).isZero();
+    }
+
+    @Test
+    void archivedAppointmentStaysReadableWithItsHistory() throws Exception {
+        String serviceId = createService();
+        String masterId = createMaster();
+        setWorkingHours(masterId, "09:00", "12:00");
+        String clientId = createClient();
+        String appointmentId = book(masterId, serviceId, clientId, "09:00", status().isCreated());
+        String laterId = book(masterId, serviceId, createClient(), "10:00", status().isCreated());
+        outboxRelay.relayPending();
+
+        // Cut off right after the first appointment, so nothing else in the database is touched
+        assertThat(appointmentArchiver.archive(Instant.parse(date + "T10:01:00Z"))).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM appointments_archive WHERE id = CAST(? AS uuid)",
+                Long.class, appointmentId)).isEqualTo(1);
+
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/appointments")
+                        .header("Authorization", authHeader(auth))
+                        .param("masterId", masterId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", containsInAnyOrder(appointmentId, laterId)));
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/appointments/" + appointmentId)
+                        .header("Authorization", authHeader(auth)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clientId").value(clientId));
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/clients/" + clientId + "/data-export")
+                        .header("Authorization", authHeader(auth)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.appointments[*].id", contains(appointmentId)));
+
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/appointments/" + appointmentId + "/history")
+                        .header("Authorization", authHeader(auth)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].action", contains("created")));
+    }
+
+    @Test
+    void mergeAndAnonymizationReachArchivedAppointments() throws Exception {
+        String masterId = createMaster();
+        setWorkingHours(masterId, "09:00", "12:00");
+        String secondaryId = createClient();
+        String primaryId = createClient();
+        String appointmentId = book(masterId, createService(), secondaryId, "09:00", status().isCreated());
+        jdbcTemplate.update("UPDATE appointments SET notes = 'Allergic to latex', internal_notes = 'Pays cash'"
+                + " WHERE id = CAST(? AS uuid)", appointmentId);
+        assertThat(appointmentArchiver.archive(Instant.parse(date + "T10:01:00Z"))).isEqualTo(1);
+
+        TenantContext.setCurrentTenant(UUID.fromString(tenantId));
+        try {
+            clientMergeService.mergeClients(UUID.fromString(primaryId), UUID.fromString(secondaryId));
+        } finally {
+            TenantContext.clear();
+        }
+        mockMvc.perform(delete("/api/v1/salons/" + salonId + "/clients/" + primaryId + "/gdpr-delete")
+                        .header("Authorization", authHeader(auth)))
+                .andExpect(status().isNoContent());
+
+        Map<String, Object> archived = jdbcTemplate.queryForMap(
+                "SELECT client_id, notes, internal_notes FROM appointments_archive WHERE id = CAST(? AS uuid)",
+                appointmentId);
+        assertThat(archived.get("client_id")).hasToString(primaryId);
+        assertThat(archived.get("notes")).isNull();
+        assertThat(archived.get("internal_notes")).isNull();
+    }
+
+    @Test
+    void rescheduleMayOverlapItsOwnSlotAndFreesThePreviousOne() throws Exception {
+        String serviceId = createService();
+        String masterId = createMaster();
+        setWorkingHours(masterId, "09:00", "13:00");
+
+        book(masterId, serviceId, createClient(), "09:00", status().isCreated());
+        String second = book(masterId, serviceId, createClient(), "10:00", status().isCreated());
+
+        reschedule(second, "09:30", status().isConflict());
+        reschedule(second, "10:30", status().isOk());
+
+        book(masterId, serviceId, createClient(), "10:00", status().isConflict());
+        book(masterId, serviceId, createClient(), "11:30", status().isCreated());
+    }
+
+    @Test
+    void salonHistoryIsWrittenByTheRelayAndScannedByRange() throws Exception {
+        String serviceId = createService();
+        String masterId = createMaster();
+        setWorkingHours(masterId, "09:00", "12:00");
+        Instant from = Instant.now().minus(Duration.ofMinutes(5));
+        String appointmentId = book(masterId, serviceId, createClient(), "09:00", status().isCreated());
+        mockMvc.perform(post("/api/v1/salons/" + salonId + "/appointments/" + appointmentId + "/cancel")
+                        .header("Authorization", authHeader(auth)))
+                .andExpect(status().isOk());
+        Instant to = Instant.now().plus(Duration.ofMinutes(5));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM appointment_history WHERE appointment_id = CAST(? AS uuid)",
+                Long.class, appointmentId)).isZero();
+        outboxRelay.relayPending();
+
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/appointments/history")
+                        .header("Authorization", authHeader(auth))
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].action", contains("cancelled", "created")))
+                .andExpect(jsonPath("$[*].changeSource", everyItem(is("manual"))))
+                .andExpect(jsonPath("$[0].appointmentId").value(appointmentId));
+
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/appointments/history")
+                        .header("Authorization", authHeader(auth))
+                        .param("from", from.toString())
+                        .param("to", from.plus(Duration.ofDays(200)).toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void historyRecordsTheSourceOfEachChange() throws Exception {
+        String masterId = createMaster();
+        setWorkingHours(masterId, "09:00", "12:00");
+        String appointmentId = book(masterId, createService(), createClient(), "09:00", status().isCreated());
+
+        TenantContext.setCurrentTenant(UUID.fromString(tenantId));
+        try {
+            AppointmentChangeSource.callAs(AppointmentChangeSource.AI, () -> appointmentService.cancel(
+                    UUID.fromString(appointmentId), new CancelRequest("Cancelled via AI assistant")));
+        } finally {
+            TenantContext.clear();
+        }
+        outboxRelay.relayPending();
+
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/appointments/" + appointmentId + "/history")
+                        .header("Authorization", authHeader(auth)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].action", contains("cancelled", "created")))
+                .andExpect(jsonPath("$[*].changeSource", contains("ai", "manual")));
+    }
+
+    private String book(String masterId, String serviceId, String clientId, String time,
+                        ResultMatcher expected) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/v1/salons/" + salonId + "/appointments")
+                        .header("Authorization", authHeader(auth))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "masterId", masterId,
+                                "serviceId", serviceId,
+                                "clientId", clientId,
+                                "startAt", date + "T" + time + ":00Z"
+                        ))))
+                .andExpect(expected)
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).path("id").asText();
+    }
+
+    private void reschedule(String appointmentId, String time, ResultMatcher expected) throws Exception {
+        mockMvc.perform(put("/api/v1/salons/" + salonId + "/appointments/" + appointmentId)
+                        .header("Authorization", authHeader(auth))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("startAt", date + "T" + time + ":00Z"))))
+                .andExpect(expected);
+    }
+
+    private void setWorkingHours(String masterId, String start, String end) throws Exception {
+        List<Map<String, Object>> rules = new ArrayList<>();
+        for (int day = 0; day < 7; day++) {
+            rules.add(Map.of("dayOfWeek", day, "startTime", start, "endTime", end, "available", true));
+        }
+        mockMvc.perform(put("/api/v1/masters/" + masterId + "/availability")
+                        .header("Authorization", authHeader(auth))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("rules", rules))))
+                .andExpect(status().isOk());
+    }
+
     private String createService() throws Exception {
         MvcResult result = mockMvc.perform(post("/api/v1/salons/" + salonId + "/services")
                         .header("Authorization", authHeader(auth))
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(Map.of(
                                 "name", "Haircut " + UUID.randomUUID().toString().substring(0, 4),
-                                "duration_minutes", 60,
+                                "durationMinutes", 60,
                                 "price", 50.00,
                                 "currency", "USD"
                         ))))
@@ -158,10 +526,10 @@ class AppointmentIntegrationTest extends AbstractIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(Map.of(
                                 "email", "master-" + UUID.randomUUID().toString().substring(0, 8) + "@test.com",
-                                "display_name", "Test Master",
+                                "displayName", "Test Master",
                                 "password", "password123",
-                                "first_name", "Master",
-                                "last_name", "Test"
+                                "firstName", "Master",
+                                "lastName", "Test"
                         ))))
                 .andExpect(status().isCreated())
                 .andReturn();
@@ -173,8 +541,8 @@ class AppointmentIntegrationTest extends AbstractIntegrationTest {
                         .header("Authorization", authHeader(auth))
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(Map.of(
-                                "first_name", "Client",
-                                "last_name", "Test",
+                                "firstName", "Client",
+                                "lastName", "Test",
                                 "phone", "+1" + String.format("%010d", (long)(Math.random() * 10000000000L))
                         ))))
                 .andExpect(status().isCreated())
@@ -0,0 +1,558 @@
+package com.slotme.calendar;
+
+import com.slotme.AbstractIntegrationTest;
+import com.slotme.auth.dto.AuthResponse;
+import com.slotme.outbox.service.OutboxRelay;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class AvailabilityIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private AuthResponse auth;
+    private String salonId;
+    private LocalDate date;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String unique = UUID.randomUUID().toString().substring(0, 8);
+        auth = registerUser("Avail Corp " + unique, "avail-" + unique + "@test.com",
+                "password123", "Admin", "User", "Avail Salon " + unique);
+        salonId = auth.user().salonId();
+        date = LocalDate.now().plusDays(7);
+    }
+
+    @Test
+    void slotsSkipTimeBlocks() throws Exception {
+        String serviceId = createService(60);
+        String masterId = createMaster();
+        setWorkingHours(masterId, "09:00", "12:00");
+
+        mockMvc.perform(post("/api/v1/masters/" + masterId + "/time-blocks")
+                        .header("Authorization", authHeader(auth))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "blockType", "break",
+                                "startAt", date + "T10:00:00Z",
+                                "endAt", date + "T10:30:00Z"
+                        ))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/available-slots")
+                        .header("Authorization", authHeader(auth))
+                        .param("serviceId", serviceId)
+                        .param("masterId", masterId)
+                        .param("date", date.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slots", hasSize(1)))
+                .andExpect(jsonPath("$.slots[0].availableTimes[*].start",
+                        contains("09:00:00", "10:30:00", "10:45:00", "11:00:00")));
+    }
+
+    @Test
+    void slotsSkipRecurringTimeBlocks() throws Exception {
+        String serviceId = createService(60);
+        String masterId = createMaster();
+        setWorkingHours(masterId, "09:00", "12:00");
+
+        LocalDate seriesStart = date.minusDays(5);
+        mockMvc.perform(post("/api/v1/masters/" + masterId + "/time-blocks")
+                        .header("Authorization", authHeader(auth))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "blockType", "break",
+                                "startAt", seriesStart + "T10:00:00Z",
+                                "endAt", seriesStart + "T10:30:00Z",
+                                "recurring", true,
+                                "recurrenceRule", "FREQ=DAILY;INTERVAL=1"
+                        ))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/available-slots")
+                        .header("Authorization", authHeader(auth))
+                        .param("serviceId", serviceId)
+                        .param("masterId", masterId)
+                        .param("date", date.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slots[0].availableTimes[*].start",
+                        contains("09:00:00", "10:30:00", "10:45:00", "11:00:00")));
+    }
+
+    @Test
+    void compactFormatReturnsStartRanges() throws Exception {
+        String serviceId = createService(60);
+        String masterId = createMaster();
+        setWorkingHours(masterId, "09:00", "12:00");
+
+        mockMvc.perform(post("/api/v1/masters/" + masterId + "/time-blocks")
+                        .header("Authorization", authHeader(auth))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "blockType", "break",
+                                "startAt", date + "T10:00:00Z",
+                                "endAt", date + "T10:30:00Z"
+                        ))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/available-slots")
+                        .header("Authorization", authHeader(auth))
+                        .param("serviceId", serviceId)
+                        .param("masterId", masterId)
+                        .param("date", date.toString())
+                        .param("format", "compact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stepMinutes", is(15)))
+                .andExpect(jsonPath("$.durationMinutes", is(60)))
+                .andExpect(jsonPath("$.slots[0].ranges[*].first", contains("09:00:00", "10:30:00")))
+                .andExpect(jsonPath("$.slots[0].ranges[*].last", contains("09:00:00", "11:00:00")));
+    }
+
+    @Test
+    void streamEmitsOneLinePerMasterDay() throws Exception {
+        String serviceId = createService(60);
+        String masterId = createMaster();
+        setWorkingHours(masterId, "09:00", "12:00");
+
+        MvcResult result = mockMvc.perform(get("/api/v1/salons/" + salonId + "/available-slots/stream")
+                        .header("Authorization", authHeader(auth))
+                        .param("serviceId", serviceId)
+                        .param("masterId", masterId)
+                        .param("dateFrom", date.toString())
+                        .param("dateTo", date.plusDays(2).toString()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().strip().split("\n");
+        assertThat(lines).hasSize(3);
+        for (int i = 0; i < lines.length; i++) {
+            var day = objectMapper.readTree(lines[i]);
+            assertThat(day.get("date").asText()).isEqualTo(date.plusDays(i).toString());
+            assertThat(day.get("masterId").asText()).isEqualTo(masterId);
+            assertThat(day.get("availableTimes")).hasSize(9);
+        }
+    }
+
+    @Test
+    void snapshotQueryCountDoesNotGrowWithMastersOrDays() throws Exception {
+        String serviceId = createService(60);
+        for (int i = 0; i < 3; i++) {
+            setWorkingHours(createMaster(), "09:00", "12:00");
+        }
+        DistributionSummary queries = meterRegistry.get("availability.snapshot.queries").summary();
+        long loads = queries.count();
+        double statements = queries.totalAmount();
+
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/available-slots")
+                        .header("Authorization", authHeader(auth))
+                        .param("serviceId", serviceId)
+                        .param("dateFrom", date.toString())
+                        .param("dateTo", date.plusDays(6).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slots", hasSize(21)));
+
+        // Calendars, rules, one-off blocks, recurring blocks and appointments: one query each
+        assertThat(queries.count()).isEqualTo(loads + 1);
+        assertThat(queries.totalAmount() - statements).isBetween(1.0, 5.0);
+    }
+
+    @Test
+    void invalidRecurrenceRuleIsRejected() throws Exception {
+        String masterId = createMaster();
+
+        // BYDAY and BYMONTHDAY only apply to the frequencies that expand them
+        for (String rule : List.of("FREQ=HOURLY", "FREQ=MONTHLY;BYDAY=MO", "FREQ=WEEKLY;BYMONTHDAY=1")) {
+            mockMvc.perform(post("/api/v1/masters/" + masterId + "/time-blocks")
+                            .header("Authorization", authHeader(auth))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(Map.of(
+                                    "blockType", "break",
+                                    "startAt", date + "T10:00:00Z",
+                                    "endAt", date + "T10:30:00Z",
+                                    "recurring", true,
+                                    "recurrenceRule", rule
+                            ))))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    void firstAvailableReturnsEarliestSlotsAfterGivenTime() throws Exception {
+        String serviceId = createService(60);
+        String masterId = createMaster();
+        setWorkingHours(masterId, "09:00", "12:00");
+
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/available-slots/first")
+                        .header("Authorization", authHeader(auth))
+                        .param("serviceId", serviceId)
+                        .param("masterId", masterId)
+                        .param("after", date + "T10:10:00Z")
+                        .param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slots[*].start", contains("10:15:00", "10:30:00", "10:45:00")))
+                .andExpect(jsonPath("$.slots[0].date", is(date.toString())))
+                .andExpect(jsonPath("$.slots[0].masterId", is(masterId)));
+    }
+
+    @Test
+    void anyMasterSlotsAreComputedForEveryMaster() throws Exception {
+        String serviceId = createService(60);
+        List<String> masterIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            String masterId = createMaster();
+            setWorkingHours(masterId, "09:00", "10:00");
+            masterIds.add(masterId);
+        }
+
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/available-slots")
+                        .header("Authorization", authHeader(auth))
+                        .param("serviceId", serviceId)
+                        .param("date", date.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slots", hasSize(5)))
+                .andExpect(jsonPath("$.slots[*].masterId", containsInAnyOrder(masterIds.toArray())))
+                .andExpect(jsonPath("$.slots[*].availableTimes[0].start", everyItem(is("09:00:00"))));
+    }
+
+    @Test
+    void comboChainsAreFoundAndBookedAtomically() throws Exception {
+        String cutId = createService(30);
+        String colorId = createService(60);
+        String masterId = createMaster();
+        String clientId = createClient();
+        setWorkingHours(masterId, "09:00", "11:00");
+
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/available-slots/combo")
+                        .header("Authorization", authHeader(auth))
+                        .param("serviceIds", cutId + "," + colorId)
+                        .param("date", date.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.chains", hasSize(3)))
+                .andExpect(jsonPath("$.chains[0].steps[*].start", contains("09:00:00", "09:30:00")))
+                .andExpect(jsonPath("$.chains[2].steps[*].start", contains("09:30:00", "10:00:00")));
+
+        String combo = objectMapper.writeValueAsString(Map.of(
+                "clientId", clientId,
+                "steps", List.of(
+                        Map.of("serviceId", cutId, "masterId", masterId, "startAt", date + "T09:00:00Z"),
+                        Map.of("serviceId", colorId, "masterId", masterId, "startAt", date + "T09:30:00Z"))));
+
+        mockMvc.perform(post("/api/v1/salons/" + salonId + "/appointments/combo")
+                        .header("Authorization", authHeader(auth))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(combo))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        mockMvc.perform(post("/api/v1/salons/" + salonId + "/appointments/combo")
+                        .header("Authorization", authHeader(auth))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(combo))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void comboStepsWithTheSameMasterKeepTheBufferBetweenThem() throws Exception {
+        String cutId = createService(30, 15);
+        String colorId = createService(60);
+        String masterId = createMaster();
+        setWorkingHours(masterId, "09:00", "11:00");
+
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/available-slots/combo")
+                        .header("Authorization", authHeader(auth))
+                        .param("serviceIds", cutId + "," + colorId)
+                        .param("date", date.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.chains", hasSize(2)))
+                .andExpect(jsonPath("$.chains[0].steps[*].start", contains("09:00:00", "09:45:00")))
+                .andExpect(jsonPath("$.chains[1].steps[*].start", contains("09:15:00", "10:00:00")));
+    }
+
+    @Test
+    void overlapIsRejectedButBackToBackAndRebookingAfterCancelAreAllowed() throws Exception {
+        String serviceId = createService(60);
+        String masterId = createMaster();
+        setWorkingHours(masterId, "09:00", "12:00");
+
+        String first = book(masterId, serviceId, createClient(), "09:00", status().isCreated());
+        book(masterId, serviceId, createClient(), "10:00", status().isCreated());
+        book(masterId, serviceId, createClient(), "09:30", status().isConflict());
+
+        mockMvc.perform(post("/api/v1/salons/" + salonId + "/appointments/" + first + "/cancel")
+                        .header("Authorization", authHeader(auth)))
+                .andExpect(status().isOk());
+
+        book(masterId, serviceId, createClient(), "09:00", status().isCreated());
+    }
+
+    @Test
+    void heldSlotIsHiddenAndOnlyBookableByHolder() throws Exception {
+        String serviceId = createService(60);
+        String masterId = createMaster();
+        String holderId = createClient();
+        setWorkingHours(masterId, "09:00", "11:00");
+
+        mockMvc.perform(post("/api/v1/salons/" + salonId + "/slot-holds")
+                        .header("Authorization", authHeader(auth))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "masterId", masterId,
+                                "serviceId", serviceId,
+                                "startAt", date + "T09:00:00Z",
+                                "clientId", holderId
+                        ))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.expiresAt").exists());
+
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/available-slots")
+                        .header("Authorization", authHeader(auth))
+                        .param("serviceId", serviceId)
+                        .param("masterId", masterId)
+                        .param("date", date.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slots[0].availableTimes[*].start", contains("10:00:00")));
+
+        book(masterId, serviceId, createClient(), "09:00", status().isConflict());
+        book(masterId, serviceId, holderId, "09:00", status().isCreated());
+    }
+
+    @Test
+    void occupancyReportsWorkingAndBookedMinutesPerHour() throws Exception {
+        String serviceId = createService(60);
+        String masterId = createMaster();
+        setWorkingHours(masterId, "09:00", "12:00");
+        book(masterId, serviceId, createClient(), "09:30", status().isCreated());
+
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/occupancy")
+                        .header("Authorization", authHeader(auth))
+                        .param("dateFrom", date.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.masters[0].availableMinutes").value(180))
+                .andExpect(jsonPath("$.masters[0].bookedMinutes").value(60))
+                .andExpect(jsonPath("$.masters[0].hours[*].hour", contains(9, 10, 11)))
+                .andExpect(jsonPath("$.masters[0].hours[*].bookedMinutes", contains(30, 30, 0)));
+    }
+
+    @Test
+    void calendarViewIsServedWholeAndRevalidatedByVersion() throws Exception {
+        String serviceId = createService(60);
+        String masterId = createMaster();
+        String clientId = createClient();
+        setWorkingHours(masterId, "09:00", "12:00");
+        String first = book(masterId, serviceId, clientId, "09:00", status().isCreated());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/salons/" + salonId + "/calendar-view")
+                        .header("Authorization", authHeader(auth))
+                        .param("date", date.toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.masters[0].masterId").value(masterId))
+                .andExpect(jsonPath("$.masters[0].workingHours", hasSize(7)))
+                .andExpect(jsonPath("$.masters[0].appointments[*].id", contains(first)))
+                .andReturn();
+        String etag = result.getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/calendar-view")
+                        .header("Authorization", authHeader(auth))
+                        .header("If-None-Match", etag)
+                        .param("date", date.toString()))
+                .andExpect(status().isNotModified());
+
+        String second = book(masterId, serviceId, clientId, "10:00", status().isCreated());
+
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/calendar-view")
+                        .header("Authorization", authHeader(auth))
+                        .header("If-None-Match", etag)
+                        .param("date", date.toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$.masters[0].appointments[*].id", contains(first, second)));
+    }
+
+    @Test
+    void calendarFeedIsServedByTokenAndRenderedAgainAfterBooking() throws Exception {
+        String serviceId = createService(60);
+        String masterId = createMaster();
+        String clientId = createClient();
+        setWorkingHours(masterId, "09:00", "12:00");
+        String first = book(masterId, serviceId, clientId, "09:00", status().isCreated());
+        outboxRelay.relayPending();
+
+        MvcResult issued = mockMvc.perform(post("/api/v1/masters/" + masterId + "/calendar-feed")
+                        .header("Authorization", authHeader(auth)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String feedPath = URI.create(objectMapper.readTree(issued.getResponse().getContentAsString())
+                .get("url").asText()).getPath();
+
+        MvcResult feed = mockMvc.perform(get(feedPath))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/calendar"))
+                .andExpect(content().string(startsWith("BEGIN:VCALENDAR\r\n")))
+                .andExpect(content().string(containsString("UID:" + first + "@slotme")))
+                .andReturn();
+        String etag = feed.getResponse().getHeader("ETag");
+
+        mockMvc.perform(get(feedPath).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        String second = book(masterId, serviceId, clientId, "10:00", status().isCreated());
+        String rebookedEtag = mockMvc.perform(get(feedPath).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("UID:" + second + "@slotme")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Relaying the booking tells the other instances to render the feed again
+        assertThat(feedVersion(masterId)).isZero();
+        outboxRelay.relayPending();
+        assertThat(feedVersion(masterId)).isEqualTo(1);
+        setWorkingHours(masterId, "09:00", "13:00");
+        outboxRelay.relayPending();
+        assertThat(feedVersion(masterId)).isEqualTo(2);
+
+        // Working hours are not in the feed: rendered again, it keeps its ETag
+        mockMvc.perform(get(feedPath).header("If-None-Match", rebookedEtag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(delete("/api/v1/masters/" + masterId + "/calendar-feed")
+                        .header("Authorization", authHeader(auth)))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get(feedPath))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void slotsSkipBookedAppointments() throws Exception {
+        String serviceId = createService(60);
+        String masterId = createMaster();
+        String clientId = createClient();
+        setWorkingHours(masterId, "09:00", "12:00");
+
+        mockMvc.perform(post("/api/v1/salons/" + salonId + "/appointments")
+                        .header("Authorization", authHeader(auth))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "masterId", masterId,
+                                "serviceId", serviceId,
+                                "clientId", clientId,
+                                "startAt", date + "T09:30:00Z"
+                        ))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/v1/salons/" + salonId + "/available-slots")
+                        .header("Authorization", authHeader(auth))
+                        .param("serviceId", serviceId)
+                        .param("masterId", masterId)
+                        .param("date", date.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slots[0].availableTimes[*].start",
+                        contains("10:30:00", "10:45:00", "11:00:00")));
+    }
+
+    private String book(String masterId, String serviceId, String clientId, String time,
+                        ResultMatcher expected) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/v1/salons/" + salonId + "/appointments")
+                        .header("Authorization", authHeader(auth))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "masterId", masterId,
+                                "serviceId", serviceId,
+                                "clientId", clientId,
+                                "startAt", date + "T" + time + ":00Z"
+                        ))))
+                .andExpect(expected)
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).path("id").asText();
+    }
+
+    private void setWorkingHours(String masterId, String start, String end) throws Exception {
+        List<Map<String, Object>> rules = new ArrayList<>();
+        for (int day = 0; day < 7; day++) {
+            rules.add(Map.of("dayOfWeek", day, "startTime", start, "endTime", end, "available", true));
+        }
+        mockMvc.perform(put("/api/v1/masters/" + masterId + "/availability")
+                        .header("Authorization", authHeader(auth))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("rules", rules))))
+                .andExpect(status().isOk());
+    }
+
+    private long feedVersion(String masterId) {
+        return jdbcTemplate.queryForObject("SELECT feed_version FROM calendar_feed_tokens WHERE master_id = CAST(? AS uuid)",
+                Long.class, masterId);
+    }
+
+    private String createService(int durationMinutes) throws Exception {
+        return createService(durationMinutes, 0);
+    }
+
+    private String createService(int durationMinutes, int bufferMinutes) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/v1/salons/" + salonId + "/services")
+                        .header("Authorization", authHeader(auth))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "name", "Haircut " + UUID.randomUUID().toString().substring(0, 4),
+                                "durationMinutes", durationMinutes,
+                                "bufferMinutes", bufferMinutes,
+                                "price", 50.00,
+                                "currency", "USD"
+                        ))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asText();
+    }
+
+    private String createMaster() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/v1/salons/" + salonId + "/masters")
+                        .header("Authorization", authHeader(auth))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "email", "master-" + UUID.randomUUID().toString().substring(0, 8) + "@test.com",
+                                "displayName", "Test Master"
+                        ))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asText();
+    }
+
+    private String createClient() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/v1/salons/" + salonId + "/clients")
+                        .header("Authorization", authHeader(auth))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "firstName", "Client",
+                                "lastName", "Test",
+                                "phone", "+1" + String.format("%010d", (long)(Math.random() * 10000000000L))
+                        ))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asText();
+    }
+}
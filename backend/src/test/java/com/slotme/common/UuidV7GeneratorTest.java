@@ -0,0 +1,45 @@
+package com.slotme.common;
+
+import com.slotme.AbstractIntegrationTest;
+import com.slotme.auth.dto.AuthResponse;
+import com.slotme.common.entity.UuidV7Generator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7GeneratorTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void generatedIdsAreVersion7AndStrictlyIncreasing() {
+        long before = System.currentTimeMillis();
+        UUID previous = UuidV7Generator.generate();
+        for (int i = 0; i < 10_000; i++) {
+            UUID next = UuidV7Generator.generate();
+            assertThat(next.version()).isEqualTo(7);
+            assertThat(next.variant()).isEqualTo(2);
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+        // The counter may run the timestamp slightly ahead of the clock, never behind it
+        assertThat(previous.getMostSignificantBits() >>> 16).isGreaterThanOrEqualTo(before);
+    }
+
+    @Test
+    void entitiesAndColumnDefaultsUseVersion7() throws Exception {
+        String unique = UUID.randomUUID().toString().substring(0, 8);
+        AuthResponse auth = registerUser("Uuid Corp " + unique, "uuid-" + unique + "@test.com",
+                "password123", "Admin", "User", "Uuid Salon " + unique);
+
+        assertThat(UUID.fromString(auth.user().tenantId()).version()).isEqualTo(7);
+        assertThat(UUID.fromString(auth.user().salonId()).version()).isEqualTo(7);
+        assertThat(UUID.fromString(auth.user().id()).version()).isEqualTo(7);
+        assertThat(jdbcTemplate.queryForObject("SELECT uuid_generate_v7()", UUID.class).version()).isEqualTo(7);
+    }
+}
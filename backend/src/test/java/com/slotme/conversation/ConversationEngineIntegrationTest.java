@@ -0,0 +1,165 @@
+package com.slotme.conversation;
+
+import com.slotme.AbstractIntegrationTest;
+import com.slotme.auth.dto.AuthResponse;
+import com.slotme.conversation.service.ConversationEngine;
+import com.slotme.messaging.entity.Conversation;
+import com.slotme.messaging.entity.Message;
+import com.slotme.messaging.repository.ConversationRepository;
+import com.slotme.messaging.repository.MessageRepository;
+import com.slotme.tenant.TenantContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.function.FunctionCallback;
+import org.springframework.ai.model.function.FunctionCallingOptions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ConversationEngineIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private ConversationEngine conversationEngine;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private AuthResponse auth;
+    private String salonId;
+    private UUID tenantId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String unique = UUID.randomUUID().toString().substring(0, 8);
+        auth = registerUser("Chat Corp " + unique, "chat-" + unique + "@test.com",
+                "password123", "Admin", "User", "Chat Salon " + unique);
+        salonId = auth.user().salonId();
+        tenantId = UUID.fromString(auth.user().tenantId());
+    }
+
+    @AfterEach
+    void clearTenant() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void modelAndToolsRunWithoutAnOpenTransaction() throws Exception {
+        Conversation conversation = createConversation();
+
+        // Spring AI runs tool calls inside the model call, so the stub does the same
+        AtomicReference<Boolean> transactionDuringCall = new AtomicReference<>();
+        AtomicReference<String> toolResult = new AtomicReference<>();
+        when(chatModel.getDefaultOptions()).thenReturn(FunctionCallingOptions.builder().build());
+        when(chatModel.call(any(Prompt.class))).thenAnswer(invocation -> {
+            transactionDuringCall.set(TransactionSynchronizationManager.isActualTransactionActive());
+            Prompt prompt = invocation.getArgument(0);
+            FunctionCallback listServices = ((FunctionCallingOptions) prompt.getOptions()).getFunctionCallbacks().stream()
+                    .filter(callback -> callback.getName().equals("list_services"))
+                    .findFirst()
+                    .orElseThrow();
+            toolResult.set(listServices.call("{}"));
+            return new ChatResponse(List.of(new Generation(new AssistantMessage("We have no services yet."))));
+        });
+        long read = holdCount("read");
+        long tool = holdCount("tool");
+        long write = holdCount("write");
+
+        String reply = conversationEngine.processMessage(conversation.getId(), "What can I book?", List.of());
+
+        assertThat(reply).isEqualTo("We have no services yet.");
+        assertThat(transactionDuringCall.get()).isFalse();
+        assertThat(toolResult.get()).isEqualTo("No services available.");
+        assertThat(holdCount("read")).isEqualTo(read + 1);
+        assertThat(holdCount("tool")).isEqualTo(tool + 1);
+        assertThat(holdCount("write")).isEqualTo(write + 1);
+    }
+
+    @Test
+    void storedInboundMessageReachesTheModelOnce() throws Exception {
+        Conversation conversation = createConversation();
+        Message earlier = saveInbound(conversation.getId(), "Hello");
+        Message inbound = saveInbound(conversation.getId(), "Do you have anything on Friday?");
+
+        AtomicReference<String> promptText = new AtomicReference<>();
+        when(chatModel.getDefaultOptions()).thenReturn(FunctionCallingOptions.builder().build());
+        when(chatModel.call(any(Prompt.class))).thenAnswer(invocation -> {
+            Prompt prompt = invocation.getArgument(0);
+            promptText.set(prompt.getInstructions().stream()
+                    .map(org.springframework.ai.chat.messages.Message::getContent)
+                    .collect(Collectors.joining("\n")));
+            return new ChatResponse(List.of(new Generation(new AssistantMessage("Friday is free."))));
+        });
+
+        conversationEngine.processMessage(conversation.getId(), inbound.getContent(), List.of(inbound.getId()));
+
+        assertThat(promptText.get()).contains("Client: " + earlier.getContent());
+        assertThat(promptText.get().split(Pattern.quote(inbound.getContent()), -1)).hasSize(2);
+    }
+
+    private Conversation createConversation() throws Exception {
+        String clientId = createClient();
+        TenantContext.setCurrentTenant(tenantId);
+        Conversation conversation = new Conversation();
+        conversation.setTenantId(tenantId);
+        conversation.setSalonId(UUID.fromString(salonId));
+        conversation.setClientId(UUID.fromString(clientId));
+        conversation.setChannel("whatsapp");
+        conversation.setContext(Map.of());
+        return conversationRepository.save(conversation);
+    }
+
+    private Message saveInbound(UUID conversationId, String content) {
+        Message message = new Message();
+        message.setConversationId(conversationId);
+        message.setDirection("inbound");
+        message.setSenderType("client");
+        message.setContentType("text");
+        message.setContent(content);
+        message.setStatus("received");
+        return messageRepository.save(message);
+    }
+
+    private long holdCount(String phase) {
+        return registry.get("conversation.connection.hold").tag("phase", phase).timer().count();
+    }
+
+    private String createClient() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/v1/salons/" + salonId + "/clients")
+                        .header("Authorization", authHeader(auth))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "firstName", "Client",
+                                "lastName", "Test",
+                                "phone", "+1" + String.format("%010d", (long) (Math.random() * 10000000000L))
+                        ))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asText();
+    }
+}
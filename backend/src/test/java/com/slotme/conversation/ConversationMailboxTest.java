@@ -0,0 +1,151 @@
+package com.slotme.conversation;
+
+import com.slotme.conversation.config.ConversationProperties;
+import com.slotme.conversation.service.ConversationEngine;
+import com.slotme.conversation.service.ConversationMailbox;
+import com.slotme.messaging.channel.ChannelAdapter;
+import com.slotme.messaging.channel.ChannelType;
+import com.slotme.messaging.channel.InboundMessage;
+import com.slotme.messaging.event.InboundMessageEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ConversationMailboxTest {
+
+    private final UUID tenantId = UUID.randomUUID();
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private ConversationEngine engine;
+    private ChannelAdapter adapter;
+    private ConversationMailbox mailbox;
+
+    @BeforeEach
+    void setUp() {
+        engine = mock(ConversationEngine.class);
+        adapter = mock(ChannelAdapter.class);
+        when(adapter.getChannelType()).thenReturn(ChannelType.WHATSAPP);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (mailbox != null) {
+            mailbox.shutdown();
+        }
+    }
+
+    @Test
+    void quickMessagesAreAnsweredWithOneTurn() {
+        mailbox = mailbox(Duration.ofMillis(300), 20, 100);
+        when(engine.processMessage(any(), anyString(), any())).thenReturn("See you at 10");
+        UUID conversationId = UUID.randomUUID();
+
+        mailbox.submit(event(conversationId, "Hi"));
+        mailbox.submit(event(conversationId, "Can I book a haircut"));
+        mailbox.submit(event(conversationId, "tomorrow at 10?"));
+
+        verify(engine, timeout(5000)).processMessage(eq(conversationId), eq("Hi\nCan I book a haircut\ntomorrow at 10?"), any());
+        verify(adapter, timeout(5000)).sendTextMessage("+10000000000", "See you at 10");
+        verify(engine, times(1)).processMessage(any(), anyString(), any());
+        assertThat(registry.get("conversation.mailbox.coalesced").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void conversationsRunInParallelButNeverOverlapThemselves() throws Exception {
+        mailbox = mailbox(Duration.ofMillis(10), 20, 100);
+        Map<UUID, AtomicInteger> running = new ConcurrentHashMap<>();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        when(engine.processMessage(any(), anyString(), any())).thenAnswer(invocation -> {
+            AtomicInteger count = running.computeIfAbsent(invocation.getArgument(0), id -> new AtomicInteger());
+            maxRunning.accumulateAndGet(count.incrementAndGet(), Math::max);
+            bothStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            count.decrementAndGet();
+            return "ok";
+        });
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        mailbox.submit(event(first, "one"));
+        mailbox.submit(event(second, "one"));
+        assertThat(bothStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Well past the debounce: the message would start a turn now if turns could overlap
+        mailbox.submit(event(first, "two"));
+        Thread.sleep(200);
+        verify(engine, never()).processMessage(eq(first), eq("two"), any());
+        release.countDown();
+
+        verify(engine, timeout(5000)).processMessage(eq(first), eq("two"), any());
+        assertThat(maxRunning.get()).isEqualTo(1);
+    }
+
+    @Test
+    void messagesOverTheLimitsAreRejected() {
+        mailbox = mailbox(Duration.ofSeconds(30), 2, 1);
+        UUID conversationId = UUID.randomUUID();
+
+        mailbox.submit(event(conversationId, "one"));
+        mailbox.submit(event(conversationId, "two"));
+        mailbox.submit(event(conversationId, "three"));
+        mailbox.submit(event(UUID.randomUUID(), "other"));
+
+        assertThat(registry.get("conversation.mailbox.rejected").counter().count()).isEqualTo(2);
+        assertThat(registry.get("conversation.mailbox.open").gauge().value()).isEqualTo(1);
+        verifyNoInteractions(engine);
+    }
+
+    @Test
+    void mailboxAndItsThreadGoAwayOnceDrained() throws Exception {
+        mailbox = mailbox(Duration.ofMillis(10), 20, 100);
+        AtomicReference<Thread> worker = new AtomicReference<>();
+        when(engine.processMessage(any(), anyString(), any())).thenAnswer(invocation -> {
+            worker.set(Thread.currentThread());
+            return "ok";
+        });
+        UUID conversationId = UUID.randomUUID();
+
+        mailbox.submit(event(conversationId, "one"));
+        verify(engine, timeout(5000)).processMessage(eq(conversationId), eq("one"), any());
+        Thread thread = worker.get();
+        assertThat(thread.join(Duration.ofSeconds(5))).isTrue();
+        assertThat(registry.get("conversation.mailbox.open").gauge().value()).isZero();
+
+        // A later message opens a fresh mailbox with its own thread
+        mailbox.submit(event(conversationId, "two"));
+        verify(engine, timeout(5000)).processMessage(eq(conversationId), eq("two"), any());
+        assertThat(worker.get()).isNotSameAs(thread);
+    }
+
+    private ConversationMailbox mailbox(Duration debounce, int maxMessages, int maxConversations) {
+        ConversationProperties properties = new ConversationProperties(
+                new ConversationProperties.Mailbox(debounce, Duration.ofSeconds(10), maxMessages, maxConversations));
+        return new ConversationMailbox(engine, List.of(adapter), properties, registry);
+    }
+
+    private InboundMessageEvent event(UUID conversationId, String text) {
+        InboundMessage message = new InboundMessage(UUID.randomUUID().toString(), "+10000000000", "+20000000000",
+                ChannelType.WHATSAPP, "text", text, Map.of(), Instant.now());
+        return new InboundMessageEvent(this, message, tenantId, UUID.randomUUID(), conversationId, UUID.randomUUID());
+    }
+}